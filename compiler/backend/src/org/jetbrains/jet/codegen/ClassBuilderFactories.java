@@ -17,8 +17,11 @@
 package org.jetbrains.jet.codegen;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.asm4.ClassVisitor;
 import org.jetbrains.asm4.ClassWriter;
+import org.jetbrains.asm4.tree.ClassNode;
 import org.jetbrains.asm4.util.TraceClassVisitor;
+import org.jetbrains.jet.codegen.signature.kotlin.JetMembersAnnotationWriter;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -40,7 +43,7 @@ public class ClassBuilderFactories {
 
         @Override
         public String asText(ClassBuilder builder) {
-            TraceClassVisitor visitor = (TraceClassVisitor) builder.getVisitor();
+            TraceClassVisitor visitor = (TraceClassVisitor) ((TraceBuilder) builder).getTarget();
 
             StringWriter writer = new StringWriter();
             visitor.p.print(new PrintWriter(writer));
@@ -95,7 +98,7 @@ public class ClassBuilderFactories {
 
             @Override
             public ClassBuilder newClassBuilder() {
-                return new ClassBuilder.Concrete(new BinaryClassWriter());
+                return new BinaryClassBuilder(new BinaryClassWriter());
             }
 
             @Override
@@ -105,7 +108,7 @@ public class ClassBuilderFactories {
 
             @Override
             public byte[] asBytes(ClassBuilder builder) {
-                ClassWriter visitor = (ClassWriter) builder.getVisitor();
+                ClassWriter visitor = (ClassWriter) ((BinaryClassBuilder) builder).getTarget();
                 return visitor.toByteArray();
             }
         };
@@ -128,7 +131,36 @@ public class ClassBuilderFactories {
         }
     }
 
-    private static class TraceBuilder extends ClassBuilder.Concrete {
+    /**
+     * The class is built into a ClassNode first, so that the JetMembers annotation made of the annotations of the methods
+     * is visited before the members, as ClassVisitor requires
+     */
+    private static class BinaryClassBuilder extends ClassBuilder {
+        private final ClassNode buffer = new ClassNode();
+        private final ClassVisitor target;
+
+        public BinaryClassBuilder(@NotNull ClassVisitor target) {
+            this.target = target;
+        }
+
+        @Override
+        public ClassVisitor getVisitor() {
+            return buffer;
+        }
+
+        @NotNull
+        public ClassVisitor getTarget() {
+            return target;
+        }
+
+        @Override
+        public void done() {
+            JetMembersAnnotationWriter.writeTo(buffer);
+            buffer.accept(target);
+        }
+    }
+
+    private static class TraceBuilder extends BinaryClassBuilder {
         public final BinaryClassWriter binary;
 
         public TraceBuilder(BinaryClassWriter binary) {
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.codegen;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.descriptors.*;
+import org.jetbrains.jet.lang.psi.*;
+import org.jetbrains.jet.lang.resolve.BindingContext;
+import org.jetbrains.jet.lang.resolve.BindingContextUtils;
+import org.jetbrains.jet.lang.resolve.constants.CompileTimeConstant;
+import org.jetbrains.jet.lang.types.JetType;
+import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns;
+import org.jetbrains.jet.lang.types.lang.PrimitiveType;
+import org.jetbrains.jet.lexer.JetTokens;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evaluates at compile time expressions built of constants, non-null vals initialized with such expressions,
+ * and operations of primitive types and String which have no side effects.
+ *
+ * Values are the same Java objects as the values of {@link CompileTimeConstant}s. Results are memoized, so evaluating
+ * every subexpression of an expression takes linear time in total.
+ */
+public class ConstantExpressionEvaluator {
+    private static final Object NOT_A_CONSTANT = new Object();
+
+    private final BindingContext bindingContext;
+    private final Map<JetExpression, Object> values = Maps.newHashMap();
+    private final Set<ClassDescriptor> foldableClasses = Sets.newHashSet();
+
+    public ConstantExpressionEvaluator(@NotNull BindingContext bindingContext) {
+        this.bindingContext = bindingContext;
+
+        KotlinBuiltIns builtIns = KotlinBuiltIns.getInstance();
+        for (PrimitiveType type : PrimitiveType.values()) {
+            foldableClasses.add(builtIns.getPrimitiveClassDescriptor(type));
+        }
+        foldableClasses.add(builtIns.getString());
+    }
+
+    /**
+     * @return the value of the expression, or null if it is not a constant (null constants are not evaluated here)
+     */
+    @Nullable
+    public Object evaluate(@NotNull JetExpression expression) {
+        CompileTimeConstant<?> compileTimeValue = bindingContext.get(BindingContext.COMPILE_TIME_VALUE, expression);
+        if (compileTimeValue != null) {
+            return compileTimeValue.getValue();
+        }
+        if (!(expression instanceof JetParenthesizedExpression || expression instanceof JetBinaryExpression
+              || expression instanceof JetPrefixExpression || expression instanceof JetStringTemplateExpression
+              || expression instanceof JetSimpleNameExpression)) {
+            return null;
+        }
+
+        Object value = values.get(expression);
+        if (value == null) {
+            // Registered before the evaluation, so that a val initialized with itself can't loop forever
+            values.put(expression, NOT_A_CONSTANT);
+            value = doEvaluate(expression);
+            values.put(expression, value != null ? value : NOT_A_CONSTANT);
+        }
+        return value == NOT_A_CONSTANT ? null : value;
+    }
+
+    @Nullable
+    private Object doEvaluate(@NotNull JetExpression expression) {
+        if (expression instanceof JetParenthesizedExpression) {
+            JetExpression inner = ((JetParenthesizedExpression) expression).getExpression();
+            return inner != null ? evaluate(inner) : null;
+        }
+        if (expression instanceof JetBinaryExpression) {
+            return evaluateBinary((JetBinaryExpression) expression);
+        }
+        if (expression instanceof JetPrefixExpression) {
+            return evaluatePrefix((JetPrefixExpression) expression);
+        }
+        if (expression instanceof JetStringTemplateExpression) {
+            return evaluateStringTemplate((JetStringTemplateExpression) expression);
+        }
+        return evaluateVal((JetSimpleNameExpression) expression);
+    }
+
+    @Nullable
+    private Object evaluateBinary(@NotNull JetBinaryExpression expression) {
+        JetExpression leftExpression = expression.getLeft();
+        JetExpression rightExpression = expression.getRight();
+        if (leftExpression == null || rightExpression == null) return null;
+
+        Object left = evaluate(leftExpression);
+        if (left == null) return null;
+        Object right = evaluate(rightExpression);
+        if (right == null) return null;
+
+        IElementType operation = expression.getOperationReference().getReferencedNameElementType();
+        if (operation == JetTokens.ANDAND || operation == JetTokens.OROR) {
+            if (!(left instanceof Boolean) || !(right instanceof Boolean)) return null;
+            return operation == JetTokens.ANDAND ? (Boolean) left && (Boolean) right : (Boolean) left || (Boolean) right;
+        }
+        if (operation == JetTokens.EQEQ || operation == JetTokens.EXCLEQ) {
+            Boolean equal = constantsEqual(left, right);
+            if (equal == null) return null;
+            return operation == JetTokens.EQEQ ? equal : !equal;
+        }
+
+        FunctionDescriptor function = getFoldableOperation(expression.getOperationReference());
+        if (function == null) return null;
+
+        if (operation == JetTokens.LT || operation == JetTokens.LTEQ || operation == JetTokens.GT || operation == JetTokens.GTEQ) {
+            return compare(left, right, operation);
+        }
+        if (left instanceof String && operation == JetTokens.PLUS) {
+            return (String) left + right;
+        }
+        return arithmetic(left, right, operation, function.getReturnType());
+    }
+
+    @Nullable
+    private Object evaluatePrefix(@NotNull JetPrefixExpression expression) {
+        JetExpression baseExpression = expression.getBaseExpression();
+        if (baseExpression == null) return null;
+        Object value = evaluate(baseExpression);
+        if (value == null || getFoldableOperation(expression.getOperationReference()) == null) return null;
+
+        IElementType operation = expression.getOperationReference().getReferencedNameElementType();
+        if (operation == JetTokens.EXCL && value instanceof Boolean) {
+            return !(Boolean) value;
+        }
+        if (operation == JetTokens.PLUS && value instanceof Number) {
+            return value;
+        }
+        if (operation == JetTokens.MINUS) {
+            if (value instanceof Integer) return -(Integer) value;
+            if (value instanceof Long) return -(Long) value;
+            if (value instanceof Double) return -(Double) value;
+            if (value instanceof Float) return -(Float) value;
+        }
+        return null;
+    }
+
+    @Nullable
+    private Object evaluateStringTemplate(@NotNull JetStringTemplateExpression expression) {
+        StringBuilder builder = new StringBuilder();
+        for (JetStringTemplateEntry entry : expression.getEntries()) {
+            if (entry instanceof JetLiteralStringTemplateEntry) {
+                builder.append(entry.getText());
+            }
+            else if (entry instanceof JetEscapeStringTemplateEntry) {
+                builder.append(((JetEscapeStringTemplateEntry) entry).getUnescapedValue());
+            }
+            else {
+                JetExpression entryExpression = entry.getExpression();
+                Object value = entryExpression != null ? evaluate(entryExpression) : null;
+                if (value == null) return null;
+                builder.append(value);
+            }
+        }
+        return builder.toString();
+    }
+
+    /*
+     * Local vals and top-level vals without custom getters, declared earlier in the same file, are replaced by their
+     * initializers' values: a val declared later (or in another file) may still be uninitialized when the expression
+     * is evaluated at run time
+     */
+    @Nullable
+    private Object evaluateVal(@NotNull JetSimpleNameExpression expression) {
+        DeclarationDescriptor descriptor = bindingContext.get(BindingContext.REFERENCE_TARGET, expression);
+        if (!(descriptor instanceof VariableDescriptor) || ((VariableDescriptor) descriptor).isVar()) return null;
+        if (descriptor instanceof PropertyDescriptor && !(descriptor.getContainingDeclaration() instanceof NamespaceDescriptor)) {
+            return null;
+        }
+        if (!(descriptor instanceof PropertyDescriptor) && !(descriptor instanceof LocalVariableDescriptor)) return null;
+
+        JetType type = ((VariableDescriptor) descriptor).getType();
+        if (type.isNullable()) return null;
+
+        PsiElement declaration = BindingContextUtils.descriptorToDeclaration(bindingContext, descriptor);
+        if (!(declaration instanceof JetProperty)) return null;
+        if (declaration.getContainingFile() != expression.getContainingFile()
+            || declaration.getTextRange().getEndOffset() > expression.getTextRange().getStartOffset()) {
+            return null;
+        }
+        JetProperty property = (JetProperty) declaration;
+        JetExpression initializer = property.getInitializer();
+        if (initializer == null || property.getGetter() != null) return null;
+
+        return evaluate(initializer);
+    }
+
+    /*
+     * The operation must be a member of a primitive class or String, not an extension or a user-defined function
+     */
+    @Nullable
+    private FunctionDescriptor getFoldableOperation(@NotNull JetSimpleNameExpression operationReference) {
+        DeclarationDescriptor descriptor = bindingContext.get(BindingContext.REFERENCE_TARGET, operationReference);
+        if (!(descriptor instanceof FunctionDescriptor)) return null;
+        FunctionDescriptor function = (FunctionDescriptor) descriptor;
+        if (function.getReceiverParameter() != null) return null;
+        DeclarationDescriptor container = function.getContainingDeclaration();
+        return foldableClasses.contains(container) ? function : null;
+    }
+
+    /*
+     * Floating point values are not compared for equality: NaN and -0.0 make equals() disagree with ==
+     */
+    @Nullable
+    static Boolean constantsEqual(@NotNull Object left, @NotNull Object right) {
+        if (left.getClass() != right.getClass()) return null;
+        if (isIntegral(left) || left instanceof String || left instanceof Boolean || left instanceof Character) {
+            return left.equals(right);
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Boolean compare(@NotNull Object left, @NotNull Object right, @NotNull IElementType operation) {
+        if (left instanceof Character && right instanceof Character) {
+            left = (int) (Character) left;
+            right = (int) (Character) right;
+        }
+        if (!(left instanceof Number) || !(right instanceof Number)) return null;
+
+        if (isIntegral(left) && isIntegral(right)) {
+            long l = ((Number) left).longValue();
+            long r = ((Number) right).longValue();
+            if (operation == JetTokens.LT) return l < r;
+            if (operation == JetTokens.LTEQ) return l <= r;
+            if (operation == JetTokens.GT) return l > r;
+            return l >= r;
+        }
+        double l = ((Number) left).doubleValue();
+        double r = ((Number) right).doubleValue();
+        if (operation == JetTokens.LT) return l < r;
+        if (operation == JetTokens.LTEQ) return l <= r;
+        if (operation == JetTokens.GT) return l > r;
+        return l >= r;
+    }
+
+    /*
+     * Computed in the type of the result, which is exactly what the JVM would do at runtime. Chars are not folded.
+     */
+    @Nullable
+    private static Object arithmetic(@NotNull Object left, @NotNull Object right, @NotNull IElementType operation, @Nullable JetType resultType) {
+        if (!(left instanceof Number) || !(right instanceof Number) || resultType == null) return null;
+        Number l = (Number) left;
+        Number r = (Number) right;
+
+        KotlinBuiltIns builtIns = KotlinBuiltIns.getInstance();
+        if (resultType.equals(builtIns.getIntType())) {
+            int a = l.intValue();
+            int b = r.intValue();
+            if (operation == JetTokens.PLUS) return a + b;
+            if (operation == JetTokens.MINUS) return a - b;
+            if (operation == JetTokens.MUL) return a * b;
+            if (b == 0) return null;
+            if (operation == JetTokens.DIV) return a / b;
+            if (operation == JetTokens.PERC) return a % b;
+        }
+        else if (resultType.equals(builtIns.getLongType())) {
+            long a = l.longValue();
+            long b = r.longValue();
+            if (operation == JetTokens.PLUS) return a + b;
+            if (operation == JetTokens.MINUS) return a - b;
+            if (operation == JetTokens.MUL) return a * b;
+            if (b == 0) return null;
+            if (operation == JetTokens.DIV) return a / b;
+            if (operation == JetTokens.PERC) return a % b;
+        }
+        else if (resultType.equals(builtIns.getDoubleType())) {
+            double a = l.doubleValue();
+            double b = r.doubleValue();
+            if (operation == JetTokens.PLUS) return a + b;
+            if (operation == JetTokens.MINUS) return a - b;
+            if (operation == JetTokens.MUL) return a * b;
+            if (operation == JetTokens.DIV) return a / b;
+            if (operation == JetTokens.PERC) return a % b;
+        }
+        else if (resultType.equals(builtIns.getFloatType())) {
+            float a = l.floatValue();
+            float b = r.floatValue();
+            if (operation == JetTokens.PLUS) return a + b;
+            if (operation == JetTokens.MINUS) return a - b;
+            if (operation == JetTokens.MUL) return a * b;
+            if (operation == JetTokens.DIV) return a / b;
+            if (operation == JetTokens.PERC) return a % b;
+        }
+        return null;
+    }
+
+    private static boolean isIntegral(@NotNull Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+}
@@ -232,6 +232,13 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
             if (constant != null) {
                 return StackValue.constant(constant.getValue(), expressionType(expression));
             }
+            if (receiver == StackValue.none()) {
+                Object value = state.getConstantExpressionEvaluator().evaluate(expression);
+                Type type = expressionType(expression);
+                if (value != null && (isPrimitive(type) || type.equals(JAVA_STRING_TYPE))) {
+                    return StackValue.constant(value, type);
+                }
+            }
         }
         try {
             return selector.accept(visitor, receiver);
@@ -357,7 +364,6 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
 
     /* package */ StackValue generateIfExpression(JetIfExpression expression, boolean isStatement) {
         Type asmType = isStatement ? Type.VOID_TYPE : expressionType(expression);
-        StackValue condition = gen(expression.getCondition());
 
         JetExpression thenExpression = expression.getThen();
         JetExpression elseExpression = expression.getElse();
@@ -366,6 +372,25 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
             throw new CompilationException("Both brunches of if/else are null", null, expression);
         }
 
+        JetExpression conditionExpression = expression.getCondition();
+        Object conditionValue = conditionExpression != null ? state.getConstantExpressionEvaluator().evaluate(conditionExpression) : null;
+        if (conditionValue instanceof Boolean) {
+            // Only the branch which is taken is generated
+            JetExpression takenExpression = (Boolean) conditionValue ? thenExpression : elseExpression;
+            if (isStatement) {
+                if (!isEmptyExpression(takenExpression)) {
+                    gen(takenExpression, Type.VOID_TYPE);
+                }
+                return StackValue.none();
+            }
+            if (!isEmptyExpression(thenExpression) && !isEmptyExpression(elseExpression)) {
+                gen(takenExpression, asmType);
+                return StackValue.onStack(asmType);
+            }
+        }
+
+        StackValue condition = gen(conditionExpression);
+
         if (isEmptyExpression(thenExpression)) {
             if (isEmptyExpression(elseExpression)) {
                 condition.put(asmType, v);
@@ -1690,6 +1715,9 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
             receiver = StackValue.receiver(resolvedCall, receiver, this, null);
             return generateConstructorCall(expression, (JetSimpleNameExpression) callee, receiver);
         }
+        else if (bindingContext.get(BindingContext.TAIL_RECURSIVE_CALL, expression) == Boolean.TRUE) {
+            return generateTailRecursiveCall(resolvedCall, receiver);
+        }
         else {
             Call call = bindingContext.get(CALL, expression.getCalleeExpression());
             if (resolvedCall instanceof VariableAsFunctionResolvedCall) {
@@ -1703,6 +1731,60 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
         }
     }
 
+    /*
+     * The frontend only allows tail recursive calls on the same object and with all the arguments specified,
+     * so the arguments are stored to the parameter slots and the function body is started over
+     */
+    @NotNull
+    private StackValue generateTailRecursiveCall(
+            @NotNull ResolvedCall<? extends CallableDescriptor> resolvedCall,
+            @NotNull StackValue receiver
+    ) {
+        FunctionDescriptor fd = (FunctionDescriptor) resolvedCall.getResultingDescriptor();
+
+        Method asmMethod;
+        int mask;
+        if (isCallAsFunctionObject(fd)) {
+            // The body of a local function is the typed invoke method of its closure, which is the same object
+            // on every iteration, so only the receiver argument and the value arguments are stored
+            asmMethod = typeMapper.invokeSignature(fd).getAsmMethod();
+            List<Type> valueParameterTypes = Arrays.asList(asmMethod.getArgumentTypes());
+            if (resolvedCall.getReceiverArgument().exists()) {
+                StackValue.receiver(resolvedCall, receiver, this, null).put(valueParameterTypes.get(0), v);
+                valueParameterTypes = valueParameterTypes.subList(1, valueParameterTypes.size());
+            }
+            mask = pushMethodArguments(resolvedCall, valueParameterTypes);
+        }
+        else {
+            CallableMethod callableMethod = (CallableMethod) resolveToCallable(fd, false);
+            asmMethod = callableMethod.getSignature().getAsmMethod();
+
+            receiver = StackValue.receiver(resolvedCall, receiver, this, callableMethod);
+            receiver.put(receiver.type, v);
+            mask = pushMethodArguments(resolvedCall, callableMethod.getValueParameterTypes());
+        }
+        assert mask == 0 : "Default values of parameters are not supported in tail recursive calls: " + fd;
+
+        Type[] argumentTypes = asmMethod.getArgumentTypes();
+        int[] slots = new int[argumentTypes.length];
+        int slot = context.getContextKind() != OwnerKind.NAMESPACE ? 1 : 0;
+        for (int i = 0; i < argumentTypes.length; i++) {
+            slots[i] = slot;
+            slot += argumentTypes[i].getSize();
+        }
+        for (int i = argumentTypes.length - 1; i >= 0; i--) {
+            v.store(slots[i], argumentTypes[i]);
+        }
+        if (resolvedCall.getThisObject().exists()) {
+            v.pop();
+        }
+
+        v.goTo(((MethodContext) context).getMethodStartLabel());
+
+        // Nothing after the jump is reachable, but the code for the call's value is still generated
+        return returnValueAsStackValue(fd, asmMethod.getReturnType());
+    }
+
     private PropertyDescriptor accessablePropertyDescriptor(PropertyDescriptor propertyDescriptor) {
         PropertySetterDescriptor setter = propertyDescriptor.getSetter();
         PropertyGetterDescriptor getter = propertyDescriptor.getGetter();
@@ -2010,9 +2092,13 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
                     JvmClassName className =
                             classNameForScriptDescriptor(bindingContext,
                                                                         receiver.getDeclarationDescriptor());
-                    String fieldName = state.getScriptCodegen().getScriptFieldName(receiver.getDeclarationDescriptor());
+                    int index = state.getScriptCodegen().getEarlierScriptIndex(receiver.getDeclarationDescriptor());
                     result.put(currentScriptClassName.getAsmType(), v);
-                    StackValue.field(className.getAsmType(), currentScriptClassName, fieldName, false).put(className.getAsmType(), v);
+                    StackValue.field(JAVA_LIST_TYPE, currentScriptClassName, ScriptCodegen.EARLIER_SCRIPTS_FIELD_NAME, false)
+                            .put(JAVA_LIST_TYPE, v);
+                    v.iconst(index);
+                    v.invokeinterface("java/util/List", "get", "(I)Ljava/lang/Object;");
+                    v.checkcast(className.getAsmType());
                 }
                 return;
             }
@@ -3352,6 +3438,13 @@ The "returned" value of try expression with no finally is either the last expres
         JetType subjectJetType = bindingContext.get(BindingContext.EXPRESSION_TYPE, expr);
         final Type subjectType = asmTypeOrVoid(subjectJetType);
         final Type resultType = isStatement ? Type.VOID_TYPE : expressionType(expression);
+
+        JetWhenEntry constantEntry = findConstantWhenEntry(expression);
+        if (constantEntry != null) {
+            gen(constantEntry.getExpression(), resultType);
+            return StackValue.onStack(resultType);
+        }
+
         final int subjectLocal = expr != null ? myFrameMap.enterTemp(subjectType) : -1;
         if (subjectLocal != -1) {
             gen(expr, subjectType);
@@ -3411,6 +3504,37 @@ The "returned" value of try expression with no finally is either the last expres
         return StackValue.onStack(resultType);
     }
 
+    /*
+     * Returns the entry which is always taken, if the subject and all the conditions up to it are constants
+     */
+    @Nullable
+    private JetWhenEntry findConstantWhenEntry(@NotNull JetWhenExpression expression) {
+        ConstantExpressionEvaluator evaluator = state.getConstantExpressionEvaluator();
+        JetExpression subjectExpression = expression.getSubjectExpression();
+        Object subjectValue = null;
+        if (subjectExpression != null) {
+            subjectValue = evaluator.evaluate(subjectExpression);
+            if (subjectValue == null) return null;
+        }
+
+        for (JetWhenEntry whenEntry : expression.getEntries()) {
+            if (whenEntry.isElse()) return whenEntry;
+            for (JetWhenCondition condition : whenEntry.getConditions()) {
+                if (!(condition instanceof JetWhenConditionWithExpression)) return null;
+                JetExpression conditionExpression = ((JetWhenConditionWithExpression) condition).getExpression();
+                Object conditionValue = conditionExpression != null ? evaluator.evaluate(conditionExpression) : null;
+                if (conditionValue == null) return null;
+
+                Boolean matches = subjectValue != null
+                                  ? ConstantExpressionEvaluator.constantsEqual(subjectValue, conditionValue)
+                                  : conditionValue instanceof Boolean ? (Boolean) conditionValue : null;
+                if (matches == null) return null;
+                if (matches) return whenEntry;
+            }
+        }
+        return null;
+    }
+
     private StackValue generateWhenCondition(
             Type subjectType, int subjectLocal, boolean subjectIsNullable,
             JetWhenCondition condition, @Nullable Label nextEntry
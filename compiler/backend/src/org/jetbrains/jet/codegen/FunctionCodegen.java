@@ -197,6 +197,10 @@ public class FunctionCodegen extends GenerationStateAware {
                 frameMap.enter(parameters.get(i), argTypes[i + add]);
             }
 
+            Label methodStart = new Label();
+            mv.visitLabel(methodStart);
+            context.setMethodStartLabel(methodStart);
+
             createSharedVarsForParameters(mv, functionDescriptor, frameMap, localVariablesInfo);
 
             genNotNullAssertionsForParameters(new InstructionAdapter(mv), state, functionDescriptor, frameMap);
@@ -16,7 +16,6 @@
 
 package org.jetbrains.jet.codegen;
 
-import com.intellij.openapi.util.Pair;
 import com.intellij.util.containers.MultiMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.jet.codegen.state.GenerationState;
@@ -48,7 +47,7 @@ public class KotlinCodegenFacade {
             }
         }
 
-        state.getScriptCodegen().registerEarlierScripts(Collections.<Pair<ScriptDescriptor, JvmClassName>>emptyList());
+        state.getScriptCodegen().registerEarlierScripts(Collections.<ScriptDescriptor, Integer>emptyMap());
 
         state.beforeCompile();
 
@@ -16,8 +16,6 @@
 
 package org.jetbrains.jet.codegen;
 
-import com.google.common.collect.Lists;
-import com.intellij.openapi.util.Pair;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.asm4.MethodVisitor;
 import org.jetbrains.asm4.Type;
@@ -37,18 +35,25 @@ import org.jetbrains.jet.lang.resolve.java.JvmClassName;
 
 import javax.inject.Inject;
 import java.util.Collections;
-import java.util.List;
+import java.util.Map;
 
 import static org.jetbrains.asm4.Opcodes.*;
 import static org.jetbrains.jet.codegen.binding.CodegenBinding.*;
-import static org.jetbrains.jet.lang.resolve.java.AsmTypeConstants.OBJECT_TYPE;
+import static org.jetbrains.jet.lang.resolve.java.AsmTypeConstants.JAVA_LIST_TYPE;
 
 public class ScriptCodegen extends MemberCodegen {
 
+    /**
+     * A script with earlier scripts (e.g. a REPL line) gets the list of their instances as the only extra constructor parameter,
+     * so that the constructor doesn't grow with the number of earlier scripts
+     */
+    public static final String EARLIER_SCRIPTS_FIELD_NAME = "$earlierScripts";
+
     @NotNull
     private ClassFileFactory classFileFactory;
 
-    private List<ScriptDescriptor> earlierScripts;
+    // earlier script -> index of its instance in the list
+    private Map<ScriptDescriptor, Integer> earlierScripts;
     private Method scriptConstructorMethod;
 
     public ScriptCodegen(@NotNull GenerationState state) {
@@ -90,8 +95,7 @@ public class ScriptCodegen extends MemberCodegen {
         genMembers(scriptDeclaration, context, classBuilder);
         genFieldsForParameters(scriptDescriptor, classBuilder);
         genConstructor(scriptDeclaration, scriptDescriptor, classDescriptorForScript, classBuilder,
-                       context.intoFunction(scriptDescriptor.getScriptCodeDescriptor()),
-                       earlierScripts);
+                       context.intoFunction(scriptDescriptor.getScriptCodeDescriptor()));
 
         classBuilder.done();
     }
@@ -101,8 +105,7 @@ public class ScriptCodegen extends MemberCodegen {
             @NotNull ScriptDescriptor scriptDescriptor,
             @NotNull ClassDescriptor classDescriptorForScript,
             @NotNull ClassBuilder classBuilder,
-            @NotNull CodegenContext context,
-            @NotNull List<ScriptDescriptor> importedScripts
+            @NotNull CodegenContext context
     ) {
 
         Type blockType = typeMapper.mapType(scriptDescriptor.getReturnType());
@@ -110,7 +113,7 @@ public class ScriptCodegen extends MemberCodegen {
         classBuilder.newField(null, ACC_PUBLIC | ACC_FINAL, ScriptNameUtil.LAST_EXPRESSION_VALUE_FIELD_NAME,
                               blockType.getDescriptor(), null, null);
 
-        JvmMethodSignature jvmSignature = typeMapper.mapScriptSignature(scriptDescriptor, importedScripts);
+        JvmMethodSignature jvmSignature = typeMapper.mapScriptSignature(scriptDescriptor, hasEarlierScripts());
 
         state.getScriptCodegen().setScriptConstructorMethod(jvmSignature.getAsmMethod());
 
@@ -128,16 +131,26 @@ public class ScriptCodegen extends MemberCodegen {
         instructionAdapter.load(0, className.getAsmType());
         instructionAdapter.invokespecial("java/lang/Object", "<init>", "()V");
 
+        int offset = 1;
+
+        // Earlier scripts may be used by initializers already
+        if (hasEarlierScripts()) {
+            instructionAdapter.load(0, className.getAsmType());
+            instructionAdapter.load(offset, JAVA_LIST_TYPE);
+            offset += JAVA_LIST_TYPE.getSize();
+            instructionAdapter.putfield(className.getInternalName(), EARLIER_SCRIPTS_FIELD_NAME, JAVA_LIST_TYPE.getDescriptor());
+        }
+
         instructionAdapter.load(0, className.getAsmType());
 
         FrameMap frameMap = context.prepareFrame(typeMapper);
 
-        for (ScriptDescriptor importedScript : importedScripts) {
-            frameMap.enter(importedScript, OBJECT_TYPE);
+        if (hasEarlierScripts()) {
+            frameMap.enterTemp(JAVA_LIST_TYPE);
         }
 
         Type[] argTypes = jvmSignature.getAsmMethod().getArgumentTypes();
-        int add = 0;
+        int add = hasEarlierScripts() ? 1 : 0;
 
         for (int i = 0; i < scriptDescriptor.getValueParameters().size(); i++) {
             ValueParameterDescriptor parameter = scriptDescriptor.getValueParameters().get(i);
@@ -151,17 +164,6 @@ public class ScriptCodegen extends MemberCodegen {
                 bindingContext,
                 state);
 
-        int offset = 1;
-
-        for (ScriptDescriptor earlierScript : importedScripts) {
-            JvmClassName earlierClassName = classNameForScriptDescriptor(bindingContext, earlierScript);
-            instructionAdapter.load(0, className.getAsmType());
-            instructionAdapter.load(offset, earlierClassName.getAsmType());
-            offset += earlierClassName.getAsmType().getSize();
-            instructionAdapter.putfield(className.getInternalName(), getScriptFieldName(earlierScript),
-                                        earlierClassName.getAsmType().getDescriptor());
-        }
-
         for (ValueParameterDescriptor parameter : scriptDescriptor.getValueParameters()) {
             Type parameterType = typeMapper.mapType(parameter.getType());
             instructionAdapter.load(0, className.getAsmType());
@@ -184,11 +186,9 @@ public class ScriptCodegen extends MemberCodegen {
     }
 
     private void genFieldsForParameters(@NotNull ScriptDescriptor script, @NotNull ClassBuilder classBuilder) {
-        for (ScriptDescriptor earlierScript : earlierScripts) {
-            JvmClassName earlierClassName;
-            earlierClassName = classNameForScriptDescriptor(bindingContext, earlierScript);
+        if (hasEarlierScripts()) {
             int access = ACC_PRIVATE | ACC_FINAL;
-            classBuilder.newField(null, access, getScriptFieldName(earlierScript), earlierClassName.getDescriptor(), null, null);
+            classBuilder.newField(null, access, EARLIER_SCRIPTS_FIELD_NAME, JAVA_LIST_TYPE.getDescriptor(), null, null);
         }
 
         for (ValueParameterDescriptor parameter : script.getValueParameters()) {
@@ -204,32 +204,24 @@ public class ScriptCodegen extends MemberCodegen {
         }
     }
 
-    public void registerEarlierScripts(List<Pair<ScriptDescriptor, JvmClassName>> earlierScripts) {
-        for (Pair<ScriptDescriptor, JvmClassName> t : earlierScripts) {
-            ScriptDescriptor earlierDescriptor = t.first;
-            JvmClassName earlierClassName = t.second;
-
-            registerClassNameForScript(state.getBindingTrace(), earlierDescriptor, earlierClassName);
-        }
+    /**
+     * @param earlierScripts earlier scripts by the indices of their instances in the list passed to the constructor,
+     *                       class names of these scripts must already be registered in the binding context
+     */
+    public void registerEarlierScripts(@NotNull Map<ScriptDescriptor, Integer> earlierScripts) {
+        this.earlierScripts = earlierScripts;
+    }
 
-        List<ScriptDescriptor> earlierScriptDescriptors = Lists.newArrayList();
-        for (Pair<ScriptDescriptor, JvmClassName> t : earlierScripts) {
-            ScriptDescriptor earlierDescriptor = t.first;
-            earlierScriptDescriptors.add(earlierDescriptor);
-        }
-        this.earlierScripts = earlierScriptDescriptors;
+    private boolean hasEarlierScripts() {
+        return !earlierScripts.isEmpty();
     }
 
-    protected int getScriptIndex(@NotNull ScriptDescriptor scriptDescriptor) {
-        int index = earlierScripts.indexOf(scriptDescriptor);
-        if (index < 0) {
+    public int getEarlierScriptIndex(@NotNull ScriptDescriptor scriptDescriptor) {
+        Integer index = earlierScripts.get(scriptDescriptor);
+        if (index == null) {
             throw new IllegalStateException("Unregistered script: " + scriptDescriptor);
         }
-        return index + 1;
-    }
-
-    public String getScriptFieldName(@NotNull ScriptDescriptor scriptDescriptor) {
-        return "script$" + getScriptIndex(scriptDescriptor);
+        return index;
     }
 
     public void setScriptConstructorMethod(Method scriptConstructorMethod) {
@@ -240,14 +232,15 @@ public class ScriptCodegen extends MemberCodegen {
         return scriptConstructorMethod;
     }
 
+    /**
+     * Class names of the script and of all earlier scripts must already be registered in the binding context
+     */
     public void compileScript(
             @NotNull JetScript script,
-            @NotNull JvmClassName className,
-            @NotNull List<Pair<ScriptDescriptor, JvmClassName>> earlierScripts,
+            @NotNull Map<ScriptDescriptor, Integer> earlierScripts,
             @NotNull CompilationErrorHandler errorHandler
     ) {
         registerEarlierScripts(earlierScripts);
-        registerClassNameForScript(state.getBindingTrace(), script, className);
 
         state.beforeCompile();
         KotlinCodegenFacade.generateNamespace(
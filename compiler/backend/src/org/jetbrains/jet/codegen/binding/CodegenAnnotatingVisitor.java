@@ -16,7 +16,9 @@
 
 package org.jetbrains.jet.codegen.binding;
 
+import com.intellij.psi.tree.IElementType;
 import com.intellij.util.containers.Stack;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.jet.lang.descriptors.*;
 import org.jetbrains.jet.lang.descriptors.annotations.AnnotationDescriptor;
 import org.jetbrains.jet.lang.psi.*;
@@ -30,6 +32,7 @@ import org.jetbrains.jet.lang.resolve.name.FqName;
 import org.jetbrains.jet.lang.resolve.name.Name;
 import org.jetbrains.jet.lang.resolve.scopes.JetScope;
 import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns;
+import org.jetbrains.jet.lexer.JetTokens;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -284,4 +287,33 @@ class CodegenAnnotatingVisitor extends JetVisitorVoid {
             classStack.pop();
         }
     }
+
+    @Override
+    public void visitBinaryExpression(JetBinaryExpression expression) {
+        super.visitBinaryExpression(expression);
+        IElementType operationToken = expression.getOperationToken();
+        if (operationToken == JetTokens.EQ || JetTokens.AUGMENTED_ASSIGNMENTS.contains(operationToken)) {
+            recordReassignment(expression.getLeft());
+        }
+    }
+
+    @Override
+    public void visitUnaryExpression(JetUnaryExpression expression) {
+        super.visitUnaryExpression(expression);
+        IElementType operationToken = expression.getOperationReference().getReferencedNameElementType();
+        if (operationToken == JetTokens.PLUSPLUS || operationToken == JetTokens.MINUSMINUS) {
+            recordReassignment(expression.getBaseExpression());
+        }
+    }
+
+    private void recordReassignment(@Nullable JetExpression expression) {
+        if (expression == null) return;
+        JetExpression deparenthesized = JetPsiUtil.deparenthesizeWithNoTypeResolution(expression);
+        if (!(deparenthesized instanceof JetSimpleNameExpression)) return;
+
+        DeclarationDescriptor descriptor = bindingContext.get(REFERENCE_TARGET, (JetSimpleNameExpression) deparenthesized);
+        if (descriptor instanceof VariableDescriptor && !(descriptor instanceof PropertyDescriptor)) {
+            bindingTrace.record(REASSIGNED_LOCAL_VARIABLE, (VariableDescriptor) descriptor);
+        }
+    }
 }
@@ -52,6 +52,11 @@ public class CodegenBinding {
 
     public static final WritableSlice<ClassDescriptor, Boolean> ENUM_ENTRY_CLASS_NEED_SUBCLASS = Slices.createSimpleSetSlice();
 
+    /**
+     * Local variables and parameters which are assigned after their declaration
+     */
+    public static final WritableSlice<VariableDescriptor, Boolean> REASSIGNED_LOCAL_VARIABLE = Slices.createSimpleSetSlice();
+
     private CodegenBinding() {
     }
 
@@ -356,11 +361,16 @@ public class CodegenBinding {
         return name.getIdentifier();
     }
 
+    /**
+     * Variables which are never assigned after their declaration are captured by value, as vals are.
+     * The others are kept in a shared box, because closures can be called when the variable is changed
+     */
     public static boolean isVarCapturedInClosure(BindingContext bindingContext, DeclarationDescriptor descriptor) {
         if (!(descriptor instanceof VariableDescriptor) || descriptor instanceof PropertyDescriptor) return false;
         VariableDescriptor variableDescriptor = (VariableDescriptor) descriptor;
         return Boolean.TRUE.equals(bindingContext.get(CAPTURED_IN_CLOSURE, variableDescriptor)) &&
-               variableDescriptor.isVar();
+               variableDescriptor.isVar() &&
+               Boolean.TRUE.equals(bindingContext.get(REASSIGNED_LOCAL_VARIABLE, variableDescriptor));
     }
 
     public static boolean hasThis0(BindingContext bindingContext, ClassDescriptor classDescriptor) {
@@ -18,6 +18,7 @@ package org.jetbrains.jet.codegen.context;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.asm4.Label;
 import org.jetbrains.jet.lang.resolve.java.AsmTypeConstants;
 import org.jetbrains.jet.codegen.OwnerKind;
 import org.jetbrains.jet.codegen.StackValue;
@@ -27,6 +28,9 @@ import org.jetbrains.jet.lang.descriptors.FunctionDescriptor;
 import org.jetbrains.jet.lang.descriptors.PropertyAccessorDescriptor;
 
 public class MethodContext extends CodegenContext {
+    @Nullable
+    private Label methodStartLabel;
+
     public MethodContext(
             @NotNull FunctionDescriptor contextType,
             OwnerKind contextKind,
@@ -60,6 +64,19 @@ public class MethodContext extends CodegenContext {
         return getParentContext().getOuterExpression(prefix, false);
     }
 
+    /**
+     * The beginning of the function body, after the parameters are in their slots. Tail recursive calls jump here
+     */
+    public void setMethodStartLabel(@NotNull Label methodStartLabel) {
+        this.methodStartLabel = methodStartLabel;
+    }
+
+    @NotNull
+    public Label getMethodStartLabel() {
+        assert methodStartLabel != null : "Method start label is not set in " + this;
+        return methodStartLabel;
+    }
+
     @Override
     public String toString() {
         return "Method: " + getContextDescriptor();
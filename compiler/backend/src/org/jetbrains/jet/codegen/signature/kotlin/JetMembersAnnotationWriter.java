@@ -0,0 +1,136 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.codegen.signature.kotlin;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.asm4.AnnotationVisitor;
+import org.jetbrains.asm4.Type;
+import org.jetbrains.asm4.tree.AnnotationNode;
+import org.jetbrains.asm4.tree.ClassNode;
+import org.jetbrains.asm4.tree.MethodNode;
+import org.jetbrains.jet.lang.resolve.java.JvmStdlibNames;
+import org.jetbrains.jet.lang.resolve.java.kt.JetMembersData;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects JetMethod and JetValueParameter annotations written to the methods of a class and writes them once more,
+ * all together, as the JetMembers annotation of the class, which is read without building PSI for the members.
+ *
+ * The annotations of the methods themselves are kept: JetMembers doesn't cover constructors and overloads with
+ * the same number of parameters, and the IDE finds compiled extension functions by the JetValueParameter index.
+ */
+public class JetMembersAnnotationWriter {
+    private JetMembersAnnotationWriter() {
+    }
+
+    /**
+     * Constructors are not collected: compiled constructors of inner classes and enums have synthetic parameters
+     * which are not there in PSI
+     */
+    public static void writeTo(@NotNull ClassNode classNode) {
+        List<JetMembersData.Method> data = new ArrayList<JetMembersData.Method>(classNode.methods.size());
+        boolean hasKotlinAnnotations = false;
+        for (MethodNode methodNode : classNode.methods) {
+            if (methodNode.name.startsWith("<")) continue;
+
+            JetMembersData.Method method = new JetMembersData.Method(methodNode.name, Type.getArgumentTypes(methodNode.desc).length);
+            hasKotlinAnnotations |= collectAnnotations(methodNode, method);
+            data.add(method);
+        }
+        if (!hasKotlinAnnotations) return;
+
+        JetMembersData.Encoded encoded = new JetMembersData(data).encode();
+        AnnotationVisitor av = classNode.visitAnnotation(JvmStdlibNames.JET_MEMBERS.getDescriptor(), true);
+        AnnotationVisitor strings = av.visitArray(JvmStdlibNames.JET_MEMBERS_STRINGS_FIELD);
+        for (String string : encoded.strings) {
+            strings.visit(null, string);
+        }
+        strings.visitEnd();
+        av.visit(JvmStdlibNames.JET_MEMBERS_DATA_FIELD, encoded.data);
+        av.visitEnd();
+    }
+
+    /**
+     * @return true if the method has any Kotlin annotations
+     */
+    private static boolean collectAnnotations(@NotNull MethodNode methodNode, @NotNull JetMembersData.Method method) {
+        boolean found = false;
+
+        Map<String, Object> methodAnnotation = findAnnotation(methodNode.visibleAnnotations, JvmStdlibNames.JET_METHOD.getDescriptor());
+        if (methodAnnotation != null) {
+            method.setAnnotation(new JetMembersData.MethodAnnotation(
+                    getInt(methodAnnotation, JvmStdlibNames.JET_FLAGS_FIELD, JvmStdlibNames.FLAGS_DEFAULT_VALUE),
+                    getString(methodAnnotation, JvmStdlibNames.JET_METHOD_TYPE_PARAMETERS_FIELD),
+                    getString(methodAnnotation, JvmStdlibNames.JET_METHOD_RETURN_TYPE_FIELD),
+                    getString(methodAnnotation, JvmStdlibNames.JET_METHOD_PROPERTY_TYPE_FIELD)));
+            found = true;
+        }
+
+        List<AnnotationNode>[] parameterAnnotations = methodNode.visibleParameterAnnotations;
+        if (parameterAnnotations == null) return found;
+
+        for (int i = 0; i < parameterAnnotations.length && i < method.getParameterCount(); i++) {
+            Map<String, Object> values = findAnnotation(parameterAnnotations[i], JvmStdlibNames.JET_VALUE_PARAMETER.getDescriptor());
+            if (values == null) continue;
+
+            method.setParameterAnnotation(i, new JetMembersData.ValueParameterAnnotation(
+                    getString(values, JvmStdlibNames.JET_VALUE_PARAMETER_NAME_FIELD),
+                    getString(values, JvmStdlibNames.JET_VALUE_PARAMETER_TYPE_FIELD),
+                    Boolean.TRUE.equals(values.get(JvmStdlibNames.JET_VALUE_PARAMETER_RECEIVER_FIELD)),
+                    Boolean.TRUE.equals(values.get(JvmStdlibNames.JET_VALUE_PARAMETER_HAS_DEFAULT_VALUE_FIELD))));
+            found = true;
+        }
+        return found;
+    }
+
+    /**
+     * @return the values of the annotation by their names, null if there's no such annotation
+     */
+    @Nullable
+    private static Map<String, Object> findAnnotation(@Nullable List<AnnotationNode> annotations, @NotNull String desc) {
+        if (annotations == null) return null;
+
+        for (AnnotationNode annotation : annotations) {
+            if (!desc.equals(annotation.desc)) continue;
+
+            Map<String, Object> values = new HashMap<String, Object>();
+            if (annotation.values != null) {
+                for (int i = 0; i + 1 < annotation.values.size(); i += 2) {
+                    values.put((String) annotation.values.get(i), annotation.values.get(i + 1));
+                }
+            }
+            return values;
+        }
+        return null;
+    }
+
+    @NotNull
+    private static String getString(@NotNull Map<String, Object> values, @NotNull String name) {
+        Object value = values.get(name);
+        return value instanceof String ? (String) value : "";
+    }
+
+    private static int getInt(@NotNull Map<String, Object> values, @NotNull String name, int defaultValue) {
+        Object value = values.get(name);
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+}
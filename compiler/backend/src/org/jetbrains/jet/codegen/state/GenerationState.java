@@ -68,6 +68,9 @@ public class GenerationState {
 
     private final boolean generateDeclaredClasses;
 
+    @NotNull
+    private final ConstantExpressionEvaluator constantExpressionEvaluator;
+
     public GenerationState(Project project, ClassBuilderFactory builderFactory, BindingContext bindingContext, List<JetFile> files) {
         this(project, builderFactory, Progress.DEAF, bindingContext, files, BuiltinToJavaTypesMapping.ENABLED, true, false, true);
     }
@@ -92,6 +95,7 @@ public class GenerationState {
         this.bindingContext = bindingTrace.getBindingContext();
 
         this.typeMapper = new JetTypeMapper(bindingTrace, builtinToJavaTypesMapping == BuiltinToJavaTypesMapping.ENABLED, classBuilderMode);
+        this.constantExpressionEvaluator = new ConstantExpressionEvaluator(this.bindingContext);
 
         InjectorForJvmCodegen injector = new InjectorForJvmCodegen(
                 typeMapper, this.files,
@@ -146,6 +150,11 @@ public class GenerationState {
         return typeMapper;
     }
 
+    @NotNull
+    public ConstantExpressionEvaluator getConstantExpressionEvaluator() {
+        return constantExpressionEvaluator;
+    }
+
     @NotNull
     public Project getProject() {
         return project;
@@ -38,10 +38,9 @@ import org.jetbrains.jet.lang.resolve.name.Name;
 import org.jetbrains.jet.lang.types.*;
 import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.jetbrains.asm4.Opcodes.*;
 import static org.jetbrains.jet.codegen.AsmUtil.boxType;
@@ -54,6 +53,11 @@ public class JetTypeMapper extends BindingTraceAware {
     private final boolean mapBuiltinsToJava;
     private final ClassBuilderMode classBuilderMode;
 
+    // Signatures only depend on the descriptor and the mapping mode, so they are computed once per generation state
+    private final ConcurrentMap<DescriptorKey, JvmMethodSignature> methodSignatures = new ConcurrentHashMap<DescriptorKey, JvmMethodSignature>();
+    private final ConcurrentMap<DescriptorKey, JvmMethodSignature> namedMethodSignatures = new ConcurrentHashMap<DescriptorKey, JvmMethodSignature>();
+    private final ConcurrentMap<DescriptorKey, CallableMethod> callableMethods = new ConcurrentHashMap<DescriptorKey, CallableMethod>();
+
     public JetTypeMapper(BindingTrace bindingTrace, boolean mapBuiltinsToJava, ClassBuilderMode mode) {
         super(bindingTrace);
         this.mapBuiltinsToJava = mapBuiltinsToJava;
@@ -437,6 +441,21 @@ public class JetTypeMapper extends BindingTraceAware {
             boolean superCall,
             boolean isInsideClass,
             OwnerKind kind
+    ) {
+        DescriptorKey key = new DescriptorKey(functionDescriptor, superCall, isInsideClass, kind);
+        CallableMethod callableMethod = callableMethods.get(key);
+        if (callableMethod == null) {
+            callableMethod = doMapToCallableMethod(functionDescriptor, superCall, isInsideClass, kind);
+            callableMethods.putIfAbsent(key, callableMethod);
+        }
+        return callableMethod;
+    }
+
+    private CallableMethod doMapToCallableMethod(
+            @NotNull FunctionDescriptor functionDescriptor,
+            boolean superCall,
+            boolean isInsideClass,
+            OwnerKind kind
     ) {
         final DeclarationDescriptor functionParent = functionDescriptor.getOriginal().getContainingDeclaration();
 
@@ -557,6 +576,17 @@ public class JetTypeMapper extends BindingTraceAware {
             needGenericSignature = false;
         }
 
+        DescriptorKey key = new DescriptorKey(f, needGenericSignature, kind);
+        JvmMethodSignature signature = methodSignatures.get(key);
+        if (signature == null) {
+            signature = doMapSignature(f, needGenericSignature, kind);
+            methodSignatures.putIfAbsent(key, signature);
+        }
+        return signature;
+    }
+
+    private JvmMethodSignature doMapSignature(FunctionDescriptor f, boolean needGenericSignature, OwnerKind kind) {
+
         BothSignatureWriter signatureVisitor = new BothSignatureWriter(BothSignatureWriter.Mode.METHOD, needGenericSignature);
 
         writeFormalTypeParameters(f.getTypeParameters(), signatureVisitor);
@@ -672,6 +702,16 @@ public class JetTypeMapper extends BindingTraceAware {
     }
 
     public JvmMethodSignature mapSignature(Name name, FunctionDescriptor f) {
+        DescriptorKey key = new DescriptorKey(f, name);
+        JvmMethodSignature signature = namedMethodSignatures.get(key);
+        if (signature == null) {
+            signature = doMapSignature(name, f);
+            namedMethodSignatures.putIfAbsent(key, signature);
+        }
+        return signature;
+    }
+
+    private JvmMethodSignature doMapSignature(Name name, FunctionDescriptor f) {
         final ReceiverParameterDescriptor receiver = f.getReceiverParameter();
 
         BothSignatureWriter signatureWriter = new BothSignatureWriter(BothSignatureWriter.Mode.METHOD, false);
@@ -882,18 +922,17 @@ public class JetTypeMapper extends BindingTraceAware {
     }
 
     @NotNull
-    public JvmMethodSignature mapScriptSignature(@NotNull ScriptDescriptor script, @NotNull List<ScriptDescriptor> importedScripts) {
+    public JvmMethodSignature mapScriptSignature(@NotNull ScriptDescriptor script, boolean hasEarlierScripts) {
         BothSignatureWriter signatureWriter = new BothSignatureWriter(BothSignatureWriter.Mode.METHOD, false);
 
         writeFormalTypeParameters(Collections.<TypeParameterDescriptor>emptyList(), signatureWriter);
 
         signatureWriter.writeParametersStart();
 
-        for (ScriptDescriptor importedScript : importedScripts) {
+        if (hasEarlierScripts) {
+            // Instances of all earlier scripts, see ScriptCodegen
             signatureWriter.writeParameterType(JvmMethodParameterKind.VALUE);
-            final ClassDescriptor descriptor = bindingContext.get(CLASS_FOR_FUNCTION, importedScript);
-            assert descriptor != null;
-            mapType(descriptor.getDefaultType(), signatureWriter, JetTypeMapperMode.VALUE);
+            signatureWriter.writeAsmType(AsmTypeConstants.JAVA_LIST_TYPE, false);
             signatureWriter.writeParameterTypeEnd();
         }
 
@@ -968,4 +1007,31 @@ public class JetTypeMapper extends BindingTraceAware {
                 owner, null, null, descriptor, INVOKEVIRTUAL,
                 getInternalClassName(fd), receiverParameterType, getInternalClassName(fd).getAsmType());
     }
+
+    /*
+     * Descriptors are compared by identity: substituted copies of the same function may be mapped differently
+     */
+    private static final class DescriptorKey {
+        private final DeclarationDescriptor descriptor;
+        private final List<Object> mode;
+
+        private DescriptorKey(@NotNull DeclarationDescriptor descriptor, Object... mode) {
+            this.descriptor = descriptor;
+            this.mode = Arrays.asList(mode);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DescriptorKey)) return false;
+
+            DescriptorKey other = (DescriptorKey) o;
+            return descriptor == other.descriptor && mode.equals(other.mode);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(descriptor) + mode.hashCode();
+        }
+    }
 }
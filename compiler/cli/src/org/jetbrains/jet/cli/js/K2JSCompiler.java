@@ -20,6 +20,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicates;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.io.FileUtil;
@@ -30,10 +31,12 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.jet.analyzer.AnalyzeExhaust;
 import org.jetbrains.jet.cli.common.CLICompiler;
+import org.jetbrains.jet.cli.common.CompilerVersion;
 import org.jetbrains.jet.cli.common.ExitCode;
 import org.jetbrains.jet.cli.common.messages.AnalyzerWithCompilerReport;
 import org.jetbrains.jet.cli.common.messages.CompilerMessageLocation;
 import org.jetbrains.jet.cli.common.messages.CompilerMessageSeverity;
+import org.jetbrains.jet.cli.common.messages.MessageCollector;
 import org.jetbrains.jet.cli.common.messages.PrintingMessageCollector;
 import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
 import org.jetbrains.jet.config.CommonConfigurationKeys;
@@ -43,8 +46,10 @@ import org.jetbrains.k2js.analyze.AnalyzerFacadeForJS;
 import org.jetbrains.k2js.config.*;
 import org.jetbrains.k2js.facade.K2JSTranslator;
 import org.jetbrains.k2js.facade.MainCallParameters;
+import org.jetbrains.k2js.facade.UpToDateCheck;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 
@@ -85,19 +90,83 @@ public class K2JSCompiler extends CLICompiler<K2JSCompilerArguments> {
             reportCompiledSourcesList(messageCollector, environmentForJS);
         }
 
-        Config config = getConfig(arguments, project);
-        if (analyzeAndReportErrors(messageCollector, environmentForJS.getSourceFiles(), config)) {
-            return ExitCode.COMPILATION_ERROR;
-        }
-
         String outputFile = arguments.outputFile;
         if (outputFile == null) {
             messageCollector.report(CompilerMessageSeverity.ERROR, "Specify output file via -output", CompilerMessageLocation.NO_LOCATION);
             return ExitCode.INTERNAL_ERROR;
         }
 
+        Config config = getConfig(arguments, project);
         MainCallParameters mainCallParameters = arguments.createMainCallParameters();
-        return translateAndGenerateOutputFile(mainCallParameters, messageCollector, environmentForJS, config, outputFile);
+
+        String fingerprint = null;
+        MessageRecorder recorder = null;
+        if (arguments.skipUpToDate) {
+            fingerprint = UpToDateCheck.compute(environmentForJS.getSourceFiles(), mainCallParameters, config,
+                                                CompilerVersion.VERSION);
+            List<String> savedMessages = UpToDateCheck.loadMessagesIfUpToDate(new File(outputFile), fingerprint);
+            if (savedMessages != null) {
+                messageCollector.report(CompilerMessageSeverity.LOGGING, "Output file is up to date: " + outputFile, NO_LOCATION);
+                MessageRecorder.replay(savedMessages, messageCollector);
+                return ExitCode.OK;
+            }
+            recorder = new MessageRecorder(messageCollector);
+        }
+
+        MessageCollector collector = recorder != null ? recorder : messageCollector;
+
+        if (analyzeAndReportErrors(collector, environmentForJS.getSourceFiles(), config)) {
+            return ExitCode.COMPILATION_ERROR;
+        }
+
+        ExitCode exitCode = translateAndGenerateOutputFile(mainCallParameters, collector, environmentForJS, config, outputFile);
+        if (exitCode == ExitCode.OK && recorder != null) {
+            saveFingerprint(messageCollector, outputFile, fingerprint, recorder.messages);
+        }
+        return exitCode;
+    }
+
+    private static void saveFingerprint(@NotNull MessageCollector messageCollector, @NotNull String outputFile,
+            @NotNull String fingerprint, @NotNull List<String> messages) {
+        try {
+            UpToDateCheck.save(new File(outputFile), fingerprint, messages);
+        }
+        catch (IOException e) {
+            // The next build just won't be skipped
+            messageCollector.report(CompilerMessageSeverity.WARNING, "Couldn't save fingerprint of " + outputFile + ": " + e.getMessage(),
+                                    NO_LOCATION);
+        }
+    }
+
+    /*
+     * Keeps the messages of a build, so that they are reported again when the next build is skipped
+     */
+    private static class MessageRecorder implements MessageCollector {
+        private final MessageCollector delegate;
+        private final List<String> messages = Lists.newArrayList();
+
+        private MessageRecorder(@NotNull MessageCollector delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void report(@NotNull CompilerMessageSeverity severity, @NotNull String message, @NotNull CompilerMessageLocation location) {
+            delegate.report(severity, message, location);
+            if (severity != CompilerMessageSeverity.LOGGING && severity != CompilerMessageSeverity.OUTPUT) {
+                String path = location.getPath();
+                messages.add(Joiner.on('\t').join(severity, path != null ? path : "", location.getLine(), location.getColumn(), message));
+            }
+        }
+
+        private static void replay(@NotNull List<String> messages, @NotNull MessageCollector collector) {
+            for (String message : messages) {
+                String[] parts = message.split("\t", 5);
+                if (parts.length < 5) continue;
+                CompilerMessageLocation location = CompilerMessageLocation.create(
+                        parts[1].isEmpty() ? null : parts[1], Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+                collector.report(CompilerMessageSeverity.valueOf(parts[0]), parts[4], location);
+            }
+        }
     }
 
     private static void reportCompiledSourcesList(@NotNull PrintingMessageCollector messageCollector,
@@ -120,7 +189,7 @@ public class K2JSCompiler extends CLICompiler<K2JSCompilerArguments> {
 
     @NotNull
     private static ExitCode translateAndGenerateOutputFile(@NotNull MainCallParameters mainCall,
-            @NotNull PrintingMessageCollector messageCollector,
+            @NotNull MessageCollector messageCollector,
             @NotNull JetCoreEnvironment environmentForJS, @NotNull Config config, @NotNull String outputFile) {
         try {
             K2JSTranslator.translateWithMainCallParametersAndSaveToFile(mainCall, environmentForJS.getSourceFiles(), outputFile, config);
@@ -135,7 +204,7 @@ public class K2JSCompiler extends CLICompiler<K2JSCompilerArguments> {
         return ExitCode.OK;
     }
 
-    private static boolean analyzeAndReportErrors(@NotNull PrintingMessageCollector messageCollector,
+    private static boolean analyzeAndReportErrors(@NotNull MessageCollector messageCollector,
             @NotNull final List<JetFile> sources, @NotNull final Config config) {
         AnalyzerWithCompilerReport analyzerWithCompilerReport = new AnalyzerWithCompilerReport(messageCollector);
         analyzerWithCompilerReport.analyzeAndReport(new Function0<AnalyzeExhaust>() {
@@ -53,6 +53,9 @@ public class K2JSCompilerArguments extends CompilerArguments {
     @Argument(value = "main", description = "Whether a main function should be called; either 'call' or 'noCall', default 'call' (main function will be auto detected)")
     public String main;
 
+    @Argument(value = "skipUpToDate", description = "Skip the whole build, reporting the messages of the last one, if no source, library or option has changed since the output was generated")
+    public boolean skipUpToDate;
+
     @Argument(value = "help", alias = "h", description = "Show help")
     public boolean help;
 
@@ -19,11 +19,15 @@ package org.jetbrains.jet.cli.jvm.compiler;
 import com.intellij.codeInsight.BaseExternalAnnotationsManager;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
+import com.intellij.psi.util.PsiFormatUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class CoreExternalAnnotationsManager extends BaseExternalAnnotationsManager {
     static {
@@ -32,6 +36,10 @@ public class CoreExternalAnnotationsManager extends BaseExternalAnnotationsManag
     }
 
     private final List<VirtualFile> externalAnnotationsRoots = new ArrayList<VirtualFile>();
+    private final List<ExternalAnnotationsIndex> externalAnnotationsIndices = new ArrayList<ExternalAnnotationsIndex>();
+
+    // Annotations from indices by external names of their owners
+    private final ConcurrentMap<String, IndexedAnnotation[]> indexedAnnotations = new ConcurrentHashMap<String, IndexedAnnotation[]>();
 
     public CoreExternalAnnotationsManager(@NotNull PsiManager psiManager) {
         super(psiManager);
@@ -41,9 +49,83 @@ public class CoreExternalAnnotationsManager extends BaseExternalAnnotationsManag
         externalAnnotationsRoots.add(externalAnnotationsRoot);
     }
 
+    public void addExternalAnnotationsIndex(@NotNull ExternalAnnotationsIndex index) {
+        externalAnnotationsIndices.add(index);
+    }
+
     @Override
     protected boolean hasAnyAnnotationsRoots() {
-        return true;
+        return !externalAnnotationsRoots.isEmpty();
+    }
+
+    @Nullable
+    @Override
+    public PsiAnnotation findExternalAnnotation(@NotNull PsiModifierListOwner listOwner, @NotNull String annotationFQN) {
+        for (IndexedAnnotation annotation : findIndexedAnnotations(listOwner)) {
+            if (annotation.fqName.equals(annotationFQN)) {
+                return annotation.psi;
+            }
+        }
+        return super.findExternalAnnotation(listOwner, annotationFQN);
+    }
+
+    @Nullable
+    @Override
+    public PsiAnnotation[] findExternalAnnotations(@NotNull PsiModifierListOwner listOwner) {
+        PsiAnnotation[] fromRoots = super.findExternalAnnotations(listOwner);
+        IndexedAnnotation[] indexed = findIndexedAnnotations(listOwner);
+        if (indexed.length == 0) {
+            return fromRoots;
+        }
+
+        List<PsiAnnotation> result = new ArrayList<PsiAnnotation>();
+        for (IndexedAnnotation annotation : indexed) {
+            result.add(annotation.psi);
+        }
+        if (fromRoots != null) {
+            result.addAll(Arrays.asList(fromRoots));
+        }
+        return result.toArray(new PsiAnnotation[result.size()]);
+    }
+
+    @NotNull
+    private IndexedAnnotation[] findIndexedAnnotations(@NotNull PsiModifierListOwner listOwner) {
+        if (externalAnnotationsIndices.isEmpty()) {
+            return IndexedAnnotation.EMPTY_ARRAY;
+        }
+        String externalName = PsiFormatUtil.getExternalName(listOwner, false, Integer.MAX_VALUE);
+        if (externalName == null) {
+            return IndexedAnnotation.EMPTY_ARRAY;
+        }
+
+        IndexedAnnotation[] cached = indexedAnnotations.get(externalName);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<IndexedAnnotation> result = new ArrayList<IndexedAnnotation>();
+        PsiElementFactory factory = JavaPsiFacade.getElementFactory(listOwner.getProject());
+        for (ExternalAnnotationsIndex index : externalAnnotationsIndices) {
+            for (ExternalAnnotationsIndex.Annotation annotation : index.find(externalName)) {
+                result.add(new IndexedAnnotation(annotation.getFqName(),
+                                                 factory.createAnnotationFromText(annotation.getText(), listOwner)));
+            }
+        }
+        IndexedAnnotation[] annotations = result.toArray(new IndexedAnnotation[result.size()]);
+        indexedAnnotations.putIfAbsent(externalName, annotations);
+        return annotations;
+    }
+
+    private static class IndexedAnnotation {
+        private static final IndexedAnnotation[] EMPTY_ARRAY = new IndexedAnnotation[0];
+
+        private final String fqName;
+        private final PsiAnnotation psi;
+
+        private IndexedAnnotation(@NotNull String fqName, @NotNull PsiAnnotation psi) {
+            this.fqName = fqName;
+            this.psi = psi;
+        }
     }
 
     @NotNull
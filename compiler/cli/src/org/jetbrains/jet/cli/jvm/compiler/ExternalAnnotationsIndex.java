@@ -0,0 +1,187 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.compiler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * External annotations compiled by {@link ExternalAnnotationsIndexBuilder} from annotations.xml files.
+ *
+ * The file is memory-mapped and looked up by binary search, so loading it costs nothing and only the entries which are
+ * actually asked for are decoded. Layout (all strings are UTF-8 bytes prefixed by their length):
+ * <pre>
+ * magic, version, entry count
+ * entry offsets, sorted by the external names of the entries
+ * entries: external name, annotation count, (annotation FQ name, annotation text)*
+ * </pre>
+ */
+public final class ExternalAnnotationsIndex {
+    private static final int MAGIC = 0x4B414E58;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 3 * 4;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public static final String INDEX_FILE_EXTENSION = ".index";
+
+    public static final class Annotation {
+        private final String fqName;
+        private final String text;
+
+        public Annotation(@NotNull String fqName, @NotNull String text) {
+            this.fqName = fqName;
+            this.text = text;
+        }
+
+        @NotNull
+        public String getFqName() {
+            return fqName;
+        }
+
+        /**
+         * @return the text of the annotation in Java, such as {@code @a.b.C(value="x")}
+         */
+        @NotNull
+        public String getText() {
+            return text;
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final int size;
+
+    private ExternalAnnotationsIndex(@NotNull ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.size = buffer.getInt(8);
+    }
+
+    /**
+     * @return the index file which is used instead of the given annotations root
+     */
+    @NotNull
+    public static File getIndexFile(@NotNull File annotationsRoot) {
+        return new File(annotationsRoot.getPath() + INDEX_FILE_EXTENSION);
+    }
+
+    /**
+     * Only indices of jars are used: a directory can be changed without changing its own timestamp
+     */
+    public static boolean isUpToDate(@NotNull File annotationsRoot, @NotNull File indexFile) {
+        return annotationsRoot.isFile() && indexFile.isFile() && indexFile.lastModified() >= annotationsRoot.lastModified();
+    }
+
+    @NotNull
+    public static ExternalAnnotationsIndex load(@NotNull File indexFile) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(indexFile, "r");
+        try {
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not an external annotations index: " + indexFile);
+            }
+            return new ExternalAnnotationsIndex(buffer);
+        }
+        finally {
+            // The mapping stays valid after the channel is closed
+            file.close();
+        }
+    }
+
+    /**
+     * @param externalName the name of a member as it is written in annotations.xml
+     */
+    @NotNull
+    public List<Annotation> find(@NotNull String externalName) {
+        // Every lookup reads a buffer of its own, so lookups may run in parallel
+        ByteBuffer entries = buffer.duplicate();
+
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            entries.position(entries.getInt(HEADER_SIZE + 4 * middle));
+            int comparison = readString(entries).compareTo(externalName);
+            if (comparison < 0) {
+                low = middle + 1;
+            }
+            else if (comparison > 0) {
+                high = middle - 1;
+            }
+            else {
+                int count = entries.getInt();
+                List<Annotation> result = new ArrayList<Annotation>(count);
+                for (int i = 0; i < count; i++) {
+                    String fqName = readString(entries);
+                    result.add(new Annotation(fqName, readString(entries)));
+                }
+                return result;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    @NotNull
+    private static String readString(@NotNull ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    public static void write(@NotNull SortedMap<String, List<Annotation>> annotations, @NotNull File indexFile) throws IOException {
+        ByteArrayOutputStream entriesBytes = new ByteArrayOutputStream();
+        DataOutputStream entries = new DataOutputStream(entriesBytes);
+        int entriesStart = HEADER_SIZE + 4 * annotations.size();
+        int[] offsets = new int[annotations.size()];
+
+        int index = 0;
+        for (Map.Entry<String, List<Annotation>> entry : annotations.entrySet()) {
+            offsets[index++] = entriesStart + entries.size();
+            writeString(entries, entry.getKey());
+            entries.writeInt(entry.getValue().size());
+            for (Annotation annotation : entry.getValue()) {
+                writeString(entries, annotation.getFqName());
+                writeString(entries, annotation.getText());
+            }
+        }
+        entries.flush();
+
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+        try {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(annotations.size());
+            for (int offset : offsets) {
+                output.writeInt(offset);
+            }
+            entriesBytes.writeTo(output);
+        }
+        finally {
+            output.close();
+        }
+    }
+
+    private static void writeString(@NotNull DataOutputStream output, @NotNull String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+}
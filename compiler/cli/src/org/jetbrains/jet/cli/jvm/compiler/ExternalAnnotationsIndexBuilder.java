@@ -0,0 +1,128 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.compiler;
+
+import com.intellij.codeInsight.ExternalAnnotationsManager;
+import com.intellij.openapi.util.JDOMUtil;
+import org.jdom.Document;
+import org.jdom.Element;
+import org.jdom.JDOMException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Compiles a directory of annotations.xml files into an {@link ExternalAnnotationsIndex}. Runs at build time:
+ * <pre>
+ * ExternalAnnotationsIndexBuilder &lt;annotations dir&gt; &lt;index file&gt;
+ * </pre>
+ */
+public final class ExternalAnnotationsIndexBuilder {
+    private final SortedMap<String, List<ExternalAnnotationsIndex.Annotation>> annotations =
+            new TreeMap<String, List<ExternalAnnotationsIndex.Annotation>>();
+
+    private ExternalAnnotationsIndexBuilder() {
+    }
+
+    @SuppressWarnings("UseOfSystemOutOrSystemErr")
+    public static void main(String[] args) throws IOException, JDOMException {
+        if (args.length != 2) {
+            System.err.println("Usage: ExternalAnnotationsIndexBuilder <annotations dir> <index file>");
+            System.exit(1);
+        }
+
+        File indexFile = new File(args[1]);
+        int count = build(new File(args[0]), indexFile);
+        System.out.println("Written " + count + " annotated members to " + indexFile);
+    }
+
+    /**
+     * @return the number of annotated members
+     */
+    public static int build(@NotNull File annotationsDir, @NotNull File indexFile) throws IOException, JDOMException {
+        ExternalAnnotationsIndexBuilder builder = new ExternalAnnotationsIndexBuilder();
+        builder.collect(annotationsDir);
+        ExternalAnnotationsIndex.write(builder.annotations, indexFile);
+        return builder.annotations.size();
+    }
+
+    private void collect(@NotNull File file) throws IOException, JDOMException {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    collect(child);
+                }
+            }
+        }
+        else if (ExternalAnnotationsManager.ANNOTATIONS_XML.equals(file.getName())) {
+            collectFromXml(JDOMUtil.loadDocument(file));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collectFromXml(@NotNull Document document) {
+        for (Element item : (List<Element>) document.getRootElement().getChildren("item")) {
+            String externalName = item.getAttributeValue("name");
+            if (externalName == null) continue;
+
+            List<ExternalAnnotationsIndex.Annotation> itemAnnotations = annotations.get(externalName);
+            if (itemAnnotations == null) {
+                itemAnnotations = new ArrayList<ExternalAnnotationsIndex.Annotation>();
+                annotations.put(externalName, itemAnnotations);
+            }
+
+            for (Element annotation : (List<Element>) item.getChildren("annotation")) {
+                String fqName = annotation.getAttributeValue("name");
+                if (fqName == null) continue;
+                itemAnnotations.add(new ExternalAnnotationsIndex.Annotation(fqName, getAnnotationText(fqName, annotation)));
+            }
+        }
+    }
+
+    /*
+     * Values are stored in annotations.xml as Java expressions, so the text is the same as the one
+     * BaseExternalAnnotationsManager creates annotations from
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    private static String getAnnotationText(@NotNull String fqName, @NotNull Element annotation) {
+        StringBuilder text = new StringBuilder("@").append(fqName);
+        List<Element> values = (List<Element>) annotation.getChildren("val");
+        if (!values.isEmpty()) {
+            text.append("(");
+            for (int i = 0; i < values.size(); i++) {
+                Element value = values.get(i);
+                if (i > 0) {
+                    text.append(",");
+                }
+                String name = value.getAttributeValue("name");
+                if (name != null) {
+                    text.append(name).append("=");
+                }
+                text.append(value.getAttributeValue("val"));
+            }
+            text.append(")");
+        }
+        return text.toString();
+    }
+}
@@ -54,6 +54,7 @@ import org.jetbrains.jet.plugin.JetFileType;
 import org.jetbrains.jet.utils.PathUtil;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -112,7 +113,9 @@ public class JetCoreEnvironment {
             addToClasspath(path);
         }
         for (File path : configuration.getList(JVMConfigurationKeys.ANNOTATIONS_PATH_KEY)) {
-            addExternalAnnotationsRoot(PathUtil.jarFileOrDirectoryToVirtualFile(path));
+            if (!addExternalAnnotationsIndex(path)) {
+                addExternalAnnotationsRoot(PathUtil.jarFileOrDirectoryToVirtualFile(path));
+            }
         }
         for (String path : configuration.getList(CommonConfigurationKeys.SOURCE_ROOTS_KEY)) {
             addSources(path);
@@ -142,6 +145,23 @@ public class JetCoreEnvironment {
         annotationsManager.addExternalAnnotationsRoot(root);
     }
 
+    /**
+     * @return false if there's no up-to-date index for the root, and its annotations.xml files should be read instead
+     */
+    private boolean addExternalAnnotationsIndex(@NotNull File root) {
+        File indexFile = ExternalAnnotationsIndex.getIndexFile(root);
+        if (!ExternalAnnotationsIndex.isUpToDate(root, indexFile)) {
+            return false;
+        }
+        try {
+            annotationsManager.addExternalAnnotationsIndex(ExternalAnnotationsIndex.load(indexFile));
+            return true;
+        }
+        catch (IOException e) {
+            return false;
+        }
+    }
+
     private void addSources(File file) {
         if (file.isDirectory()) {
             File[] files = file.listFiles();
@@ -27,7 +27,10 @@ import java.util.Map;
 
 public class ReplClassLoader extends ClassLoader {
 
-    private Map<JvmClassName, byte[]> classes = Maps.newLinkedHashMap();
+    // Bytes of the classes which are not loaded yet, dropped as soon as a class is defined
+    private final Map<JvmClassName, byte[]> classes = Maps.newHashMap();
+    // Bytes of the classes generated for the last line only, to be dumped
+    private final Map<JvmClassName, byte[]> lastLineClasses = Maps.newLinkedHashMap();
 
     public ReplClassLoader(@NotNull ClassLoader parent) {
         super(parent);
@@ -38,7 +41,7 @@ public class ReplClassLoader extends ClassLoader {
 
     @Override
     protected Class<?> findClass(String name) throws ClassNotFoundException {
-        byte[] classBytes = classes.get(JvmClassName.byFqNameWithoutInnerClasses(name));
+        byte[] classBytes = classes.remove(JvmClassName.byFqNameWithoutInnerClasses(name));
         if (classBytes != null) {
             return defineClass(name, classBytes, 0, classBytes.length);
         }
@@ -47,15 +50,20 @@ public class ReplClassLoader extends ClassLoader {
         }
     }
 
+    public void startLine() {
+        lastLineClasses.clear();
+    }
+
     public void addClass(@NotNull JvmClassName className, @NotNull byte[] bytes) {
         byte[] oldBytes = classes.put(className, bytes);
         if (oldBytes != null) {
             throw new IllegalStateException("Rewrite at key " + className);
         }
+        lastLineClasses.put(className, bytes);
     }
 
     public void dumpClasses(@NotNull PrintWriter writer) {
-        for (byte[] classBytes : classes.values()) {
+        for (byte[] classBytes : lastLineClasses.values()) {
             new ClassReader(classBytes).accept(new TraceClassVisitor(writer), 0);
         }
     }
@@ -19,10 +19,11 @@ package org.jetbrains.jet.cli.jvm.repl;
 import com.google.common.base.Predicates;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.CharsetToolkit;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiFileFactory;
 import com.intellij.psi.impl.PsiFileFactoryImpl;
@@ -37,6 +38,7 @@ import org.jetbrains.jet.cli.jvm.JVMConfigurationKeys;
 import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
 import org.jetbrains.jet.codegen.ClassBuilderFactories;
 import org.jetbrains.jet.codegen.CompilationErrorHandler;
+import org.jetbrains.jet.codegen.binding.CodegenBinding;
 import org.jetbrains.jet.codegen.state.GenerationState;
 import org.jetbrains.jet.config.CompilerConfiguration;
 import org.jetbrains.jet.di.InjectorForTopDownAnalyzerForJvm;
@@ -44,6 +46,7 @@ import org.jetbrains.jet.lang.descriptors.ModuleDescriptor;
 import org.jetbrains.jet.lang.descriptors.NamespaceDescriptorImpl;
 import org.jetbrains.jet.lang.descriptors.NamespaceLikeBuilderDummy;
 import org.jetbrains.jet.lang.descriptors.ScriptDescriptor;
+import org.jetbrains.jet.lang.psi.JetDeclaration;
 import org.jetbrains.jet.lang.psi.JetFile;
 import org.jetbrains.jet.lang.resolve.*;
 import org.jetbrains.jet.lang.resolve.java.JvmClassName;
@@ -54,6 +57,7 @@ import org.jetbrains.jet.lang.resolve.scopes.WritableScope;
 import org.jetbrains.jet.lang.resolve.scopes.WritableScopeImpl;
 import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns;
 import org.jetbrains.jet.plugin.JetLanguage;
+import org.jetbrains.jet.util.slicedmap.WritableSlice;
 import org.jetbrains.jet.utils.ExceptionUtils;
 
 import java.io.File;
@@ -65,13 +69,16 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class ReplInterpreter {
 
     private int lineNumber = 0;
     @Nullable
     private JetScope lastLineScope;
-    private List<EarlierLine> earlierLines = Lists.newArrayList();
+    // Instances of the evaluated lines: every next line gets this list and refers to earlier lines by their indices in it
+    private final List<Object> earlierScriptInstances = Lists.newArrayList();
+    private final Map<ScriptDescriptor, Integer> earlierScripts = Maps.newHashMap();
     private List<String> previousIncompleteLines = Lists.newArrayList();
     private final ReplClassLoader classLoader;
 
@@ -79,8 +86,12 @@ public class ReplInterpreter {
     private final InjectorForTopDownAnalyzerForJvm injector;
     @NotNull
     private final JetCoreEnvironment jetCoreEnvironment;
+    // Analysis results of the lines, only the part that later lines may need is kept for a processed line
     @NotNull
     private final BindingTraceContext trace;
+    // Analysis results of the current line, moved to the trace when the line is processed
+    @NotNull
+    private final DelegatingBindingTrace lineTrace;
     @NotNull
     private final ModuleDescriptor module;
 
@@ -88,13 +99,14 @@ public class ReplInterpreter {
         jetCoreEnvironment = new JetCoreEnvironment(disposable, configuration);
         Project project = jetCoreEnvironment.getProject();
         trace = new BindingTraceContext();
+        lineTrace = new DelegatingBindingTrace(trace.getBindingContext(), "trace for a REPL line");
         module = new ModuleDescriptor(Name.special("<repl>"));
         TopDownAnalysisParameters topDownAnalysisParameters = new TopDownAnalysisParameters(
                 Predicates.<PsiFile>alwaysTrue(),
                 false,
                 true,
                 Collections.<AnalyzerScriptParameter>emptyList());
-        injector = new InjectorForTopDownAnalyzerForJvm(project, topDownAnalysisParameters, trace, module);
+        injector = new InjectorForTopDownAnalyzerForJvm(project, topDownAnalysisParameters, lineTrace, module);
 
         List<URL> classpath = Lists.newArrayList();
 
@@ -209,8 +221,20 @@ public class ReplInterpreter {
         }
 
         injector.getTopDownAnalyzer().prepareForTheNextReplLine();
-        trace.clearDiagnostics();
+        try {
+            return doEval(psiFile, scriptClassName, errorCollector);
+        }
+        finally {
+            compactLineData(psiFile);
+        }
+    }
 
+    @NotNull
+    private LineResult doEval(
+            @NotNull JetFile psiFile,
+            @NotNull JvmClassName scriptClassName,
+            @NotNull MessageCollectorToString errorCollector
+    ) {
         psiFile.getScript().putUserData(ScriptHeaderResolver.PRIORITY_KEY, lineNumber);
 
         ScriptDescriptor scriptDescriptor = doAnalyze(psiFile, errorCollector);
@@ -218,18 +242,15 @@ public class ReplInterpreter {
             return LineResult.error(errorCollector.getString());
         }
 
-        List<Pair<ScriptDescriptor, JvmClassName>> earierScripts = Lists.newArrayList();
+        // Recorded for the descriptor, so it is kept for the later lines
+        CodegenBinding.registerClassNameForScript(lineTrace, scriptDescriptor, scriptClassName);
 
-        for (EarlierLine earlierLine : earlierLines) {
-            earierScripts.add(Pair.create(earlierLine.getScriptDescriptor(), earlierLine.getClassName()));
-        }
-
-        BindingContext bindingContext = AnalyzeExhaust.success(trace.getBindingContext(), injector.getModuleConfiguration()).getBindingContext();
+        BindingContext bindingContext = AnalyzeExhaust.success(lineTrace.getBindingContext(), injector.getModuleConfiguration()).getBindingContext();
         GenerationState generationState = new GenerationState(psiFile.getProject(), ClassBuilderFactories.binaries(false),
                                                               bindingContext, Collections.singletonList(psiFile));
-        generationState.getScriptCodegen().compileScript(psiFile.getScript(), scriptClassName, earierScripts,
-                                                         CompilationErrorHandler.THROW_EXCEPTION);
+        generationState.getScriptCodegen().compileScript(psiFile.getScript(), earlierScripts, CompilationErrorHandler.THROW_EXCEPTION);
 
+        classLoader.startLine();
         for (String file : generationState.getFactory().files()) {
             classLoader.addClass(JvmClassName.byInternalName(file.replaceFirst("\\.class$", "")), generationState.getFactory().asBytes(file));
         }
@@ -237,13 +258,9 @@ public class ReplInterpreter {
         try {
             Class<?> scriptClass = classLoader.loadClass(scriptClassName.getFqName().getFqName());
 
-            Class<?>[] constructorParams = new Class<?>[earlierLines.size()];
-            Object[] constructorArgs = new Object[earlierLines.size()];
-
-            for (int i = 0; i < earlierLines.size(); ++i) {
-                constructorParams[i] = earlierLines.get(i).getScriptClass();
-                constructorArgs[i] = earlierLines.get(i).getScriptInstance();
-            }
+            boolean hasEarlierScripts = !earlierScriptInstances.isEmpty();
+            Class<?>[] constructorParams = hasEarlierScripts ? new Class<?>[] {List.class} : new Class<?>[0];
+            Object[] constructorArgs = hasEarlierScripts ? new Object[] {earlierScriptInstances} : new Object[0];
 
             Constructor<?> scriptInstanceConstructor = scriptClass.getConstructor(constructorParams);
             Object scriptInstance;
@@ -256,7 +273,8 @@ public class ReplInterpreter {
             rvField.setAccessible(true);
             Object rv = rvField.get(scriptInstance);
 
-            earlierLines.add(new EarlierLine(line, scriptDescriptor, scriptClass, scriptInstance, scriptClassName));
+            earlierScripts.put(scriptDescriptor, earlierScriptInstances.size());
+            earlierScriptInstances.add(scriptInstance);
 
             return LineResult.successful(rv, scriptDescriptor.getReturnType().equals(KotlinBuiltIns.getInstance().getUnitType()));
         } catch (Throwable e) {
@@ -267,11 +285,32 @@ public class ReplInterpreter {
         }
     }
 
+    /*
+     * Keeps only the data later lines may refer to: everything about descriptors and declarations,
+     * while data about the expressions of the line and its diagnostics are dropped
+     */
+    private void compactLineData(@NotNull final JetFile psiFile) {
+        lineTrace.addAllMyDataTo(trace, new TraceEntryFilter() {
+            @Override
+            public boolean accept(@NotNull WritableSlice<?, ?> slice, Object key) {
+                if (slice == BindingContext.DEFERRED_TYPE) {
+                    // All deferred types of the line are computed already
+                    return false;
+                }
+                if (key instanceof PsiElement && !(key instanceof JetDeclaration) && !(key instanceof JetFile)) {
+                    return ((PsiElement) key).getContainingFile() != psiFile;
+                }
+                return true;
+            }
+        }, false);
+        lineTrace.clear();
+    }
+
     @Nullable
     private ScriptDescriptor doAnalyze(@NotNull JetFile psiFile, @NotNull MessageCollector messageCollector) {
         final WritableScope scope = new WritableScopeImpl(
                 JetScope.EMPTY, module,
-                new TraceBasedRedeclarationHandler(trace), "Root scope in analyzeNamespace");
+                new TraceBasedRedeclarationHandler(lineTrace), "Root scope in analyzeNamespace");
 
         scope.changeLockLevel(WritableScope.LockLevel.BOTH);
 
@@ -295,13 +334,13 @@ public class ReplInterpreter {
         // namespaces added to module explicitly in
         injector.getTopDownAnalyzer().doProcess(scope, new NamespaceLikeBuilderDummy(), Collections.singletonList(psiFile));
 
-        boolean hasErrors = AnalyzerWithCompilerReport.reportDiagnostics(trace.getBindingContext(), messageCollector);
+        boolean hasErrors = AnalyzerWithCompilerReport.reportDiagnostics(lineTrace.getBindingContext(), messageCollector);
         if (hasErrors) {
             return null;
         }
 
         ScriptDescriptor scriptDescriptor = injector.getTopDownAnalysisContext().getScripts().get(psiFile.getScript());
-        lastLineScope = trace.get(BindingContext.SCRIPT_SCOPE, scriptDescriptor);
+        lastLineScope = lineTrace.get(BindingContext.SCRIPT_SCOPE, scriptDescriptor);
         if (lastLineScope == null) {
             throw new IllegalStateException("last line scope is not initialized");
         }
@@ -20,6 +20,7 @@ import com.google.common.collect.Maps;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.asm4.Type;
 
+import java.util.List;
 import java.util.Map;
 
 public class AsmTypeConstants {
@@ -28,6 +29,7 @@ public class AsmTypeConstants {
     public static final Type OBJECT_TYPE = getType(Object.class);
     public static final Type JAVA_STRING_TYPE = getType(String.class);
     public static final Type JAVA_THROWABLE_TYPE = getType(Throwable.class);
+    public static final Type JAVA_LIST_TYPE = getType(List.class);
     public static final Type JAVA_ARRAY_GENERIC_TYPE = getType(Object[].class);
 
     public static final Type JET_NOTHING_TYPE = Type.getObjectType("jet/Nothing");
@@ -58,6 +58,11 @@ public class JvmStdlibNames {
     public static final int FLAG_CLASS_KIND_DEFAULT = 0 << 5;
     public static final int FLAG_CLASS_KIND_OBJECT = 1 << 5;
 
+    public static final JvmClassName JET_MEMBERS = JvmClassName.byFqNameWithoutInnerClasses("jet.runtime.typeinfo.JetMembers");
+
+    public static final String JET_MEMBERS_STRINGS_FIELD = "strings";
+    public static final String JET_MEMBERS_DATA_FIELD = "data";
+
     public static final JvmClassName JET_CONSTRUCTOR = JvmClassName.byFqNameWithoutInnerClasses("jet.runtime.typeinfo.JetConstructor");
 
     /**
@@ -22,7 +22,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.jet.lang.descriptors.TypeParameterDescriptor;
 import org.jetbrains.jet.lang.descriptors.TypeParameterDescriptorImpl;
 import org.jetbrains.jet.lang.psi.JetProperty;
-import org.jetbrains.jet.lang.psi.JetPsiFactory;
 import org.jetbrains.jet.lang.resolve.java.wrapper.PsiFieldWrapper;
 import org.jetbrains.jet.lang.types.JetType;
 
@@ -44,7 +43,7 @@ public class AlternativeFieldSignatureData extends ElementAlternativeSignatureDa
 
         setAnnotated(true);
         Project project = field.getPsiMember().getProject();
-        JetProperty altPropertyDeclaration = JetPsiFactory.createProperty(project, signature);
+        JetProperty altPropertyDeclaration = SignaturesUtil.parseProperty(project, signature);
 
         try {
             checkForSyntaxErrors(altPropertyDeclaration);
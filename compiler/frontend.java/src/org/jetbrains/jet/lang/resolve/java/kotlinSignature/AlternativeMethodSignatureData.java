@@ -68,7 +68,7 @@ public class AlternativeMethodSignatureData extends ElementAlternativeSignatureD
 
         setAnnotated(true);
         Project project = method.getPsiMethod().getProject();
-        altFunDeclaration = JetPsiFactory.createFunction(project, signature);
+        altFunDeclaration = SignaturesUtil.parseFunction(project, signature);
 
         originalToAltTypeParameters = SignaturesUtil.recreateTypeParametersAndReturnMapping(methodTypeParameters);
 
@@ -17,17 +17,61 @@
 package org.jetbrains.jet.lang.resolve.java.kotlinSignature;
 
 import com.google.common.collect.Maps;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.jet.lang.descriptors.TypeParameterDescriptor;
 import org.jetbrains.jet.lang.descriptors.TypeParameterDescriptorImpl;
+import org.jetbrains.jet.lang.psi.JetNamedFunction;
+import org.jetbrains.jet.lang.psi.JetProperty;
+import org.jetbrains.jet.lang.psi.JetPsiFactory;
 import org.jetbrains.jet.lang.types.TypeConstructor;
 import org.jetbrains.jet.lang.types.TypeProjection;
 import org.jetbrains.jet.lang.types.TypeSubstitutor;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SignaturesUtil {
+    // The same signature is met by every resolve of the annotated member, and the parsed declarations are only read
+    private static final Key<Map<String, JetNamedFunction>> PARSED_FUNCTIONS = Key.create("PARSED_ALTERNATIVE_FUNCTIONS");
+    private static final Key<Map<String, JetProperty>> PARSED_PROPERTIES = Key.create("PARSED_ALTERNATIVE_PROPERTIES");
+
+    @NotNull
+    public static JetNamedFunction parseFunction(@NotNull Project project, @NotNull String signature) {
+        Map<String, JetNamedFunction> cache = getParsedSignatures(project, PARSED_FUNCTIONS);
+        JetNamedFunction function = cache.get(signature);
+        if (function == null) {
+            function = JetPsiFactory.createFunction(project, signature);
+            cache.put(signature, function);
+        }
+        return function;
+    }
+
+    @NotNull
+    public static JetProperty parseProperty(@NotNull Project project, @NotNull String signature) {
+        Map<String, JetProperty> cache = getParsedSignatures(project, PARSED_PROPERTIES);
+        JetProperty property = cache.get(signature);
+        if (property == null) {
+            property = JetPsiFactory.createProperty(project, signature);
+            cache.put(signature, property);
+        }
+        return property;
+    }
+
+    @NotNull
+    private static <T> Map<String, T> getParsedSignatures(@NotNull Project project, @NotNull Key<Map<String, T>> key) {
+        synchronized (key) {
+            Map<String, T> cache = project.getUserData(key);
+            if (cache == null) {
+                cache = new ConcurrentHashMap<String, T>();
+                project.putUserData(key, cache);
+            }
+            return cache;
+        }
+    }
+
     public static Map<TypeParameterDescriptor, TypeParameterDescriptorImpl> recreateTypeParametersAndReturnMapping(
             @NotNull List<TypeParameterDescriptor> originalParameters
     ) {
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.lang.resolve.java.kt;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Contents of the JetMembers class annotation: JetMethod and JetValueParameter annotations of all the methods
+ * of a class.
+ *
+ * Encoded as a string table and a sequence of numbers (string indices, flags and counts). A number is stored as
+ * the char {@code number + 1}, so the usual small numbers take one byte of modified UTF-8 in the class file.
+ * Per method: name, parameter count, has JetMethod, [flags, type parameters, return type, property type],
+ * then per parameter: has JetValueParameter, [name, type, receiver and hasDefaultValue bits].
+ */
+public final class JetMembersData {
+    private static final char LARGE_NUMBER = '\uFFFF';
+
+    private static final int RECEIVER_BIT = 1;
+    private static final int HAS_DEFAULT_VALUE_BIT = 1 << 1;
+
+    public static final class Method {
+        @NotNull
+        private final String name;
+        @Nullable
+        private MethodAnnotation annotation;
+        @NotNull
+        private final ValueParameterAnnotation[] parameters;
+
+        public Method(@NotNull String name, int parameterCount) {
+            this.name = name;
+            this.parameters = new ValueParameterAnnotation[parameterCount];
+        }
+
+        @NotNull
+        public String getName() {
+            return name;
+        }
+
+        public int getParameterCount() {
+            return parameters.length;
+        }
+
+        /**
+         * @return null if the method has no JetMethod annotation
+         */
+        @Nullable
+        public MethodAnnotation getAnnotation() {
+            return annotation;
+        }
+
+        public void setAnnotation(@Nullable MethodAnnotation annotation) {
+            this.annotation = annotation;
+        }
+
+        /**
+         * @return null if the parameter has no JetValueParameter annotation
+         */
+        @Nullable
+        public ValueParameterAnnotation getParameterAnnotation(int index) {
+            return parameters[index];
+        }
+
+        public void setParameterAnnotation(int index, @Nullable ValueParameterAnnotation annotation) {
+            parameters[index] = annotation;
+        }
+    }
+
+    public static final class MethodAnnotation {
+        public final int flags;
+        @NotNull
+        public final String typeParameters;
+        @NotNull
+        public final String returnType;
+        @NotNull
+        public final String propertyType;
+
+        public MethodAnnotation(int flags, @NotNull String typeParameters, @NotNull String returnType, @NotNull String propertyType) {
+            this.flags = flags;
+            this.typeParameters = typeParameters;
+            this.returnType = returnType;
+            this.propertyType = propertyType;
+        }
+    }
+
+    public static final class ValueParameterAnnotation {
+        @NotNull
+        public final String name;
+        @NotNull
+        public final String type;
+        public final boolean receiver;
+        public final boolean hasDefaultValue;
+
+        public ValueParameterAnnotation(@NotNull String name, @NotNull String type, boolean receiver, boolean hasDefaultValue) {
+            this.name = name;
+            this.type = type;
+            this.receiver = receiver;
+            this.hasDefaultValue = hasDefaultValue;
+        }
+    }
+
+    public static final class Encoded {
+        @NotNull
+        public final String[] strings;
+        @NotNull
+        public final String data;
+
+        public Encoded(@NotNull String[] strings, @NotNull String data) {
+            this.strings = strings;
+            this.data = data;
+        }
+    }
+
+    @NotNull
+    private final List<Method> methods;
+    @NotNull
+    private final Map<String, List<Method>> methodsByName;
+
+    public JetMembersData(@NotNull List<Method> methods) {
+        this.methods = methods;
+        this.methodsByName = new HashMap<String, List<Method>>(methods.size());
+        for (Method method : methods) {
+            List<Method> sameName = methodsByName.get(method.getName());
+            if (sameName == null) {
+                sameName = new ArrayList<Method>(1);
+                methodsByName.put(method.getName(), sameName);
+            }
+            sameName.add(method);
+        }
+    }
+
+    @NotNull
+    public List<Method> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Methods are told apart by their names and JVM parameter counts only, so that no types need to be resolved
+     *
+     * @return null if there's no such method, or if there are several
+     */
+    @Nullable
+    public Method findMethod(@NotNull String name, int parameterCount) {
+        List<Method> sameName = methodsByName.get(name);
+        if (sameName == null) return null;
+
+        Method result = null;
+        for (Method method : sameName) {
+            if (method.getParameterCount() == parameterCount) {
+                if (result != null) return null;
+                result = method;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the strings table and the data to be written as the values of JetMembers
+     */
+    @NotNull
+    public Encoded encode() {
+        Encoder encoder = new Encoder();
+        encoder.writeNumber(methods.size());
+        for (Method method : methods) {
+            encoder.writeString(method.getName());
+            encoder.writeNumber(method.getParameterCount());
+
+            MethodAnnotation annotation = method.getAnnotation();
+            encoder.writeNumber(annotation != null ? 1 : 0);
+            if (annotation != null) {
+                encoder.writeNumber(annotation.flags);
+                encoder.writeString(annotation.typeParameters);
+                encoder.writeString(annotation.returnType);
+                encoder.writeString(annotation.propertyType);
+            }
+
+            for (int i = 0; i < method.getParameterCount(); i++) {
+                ValueParameterAnnotation parameter = method.getParameterAnnotation(i);
+                encoder.writeNumber(parameter != null ? 1 : 0);
+                if (parameter != null) {
+                    encoder.writeString(parameter.name);
+                    encoder.writeString(parameter.type);
+                    encoder.writeNumber((parameter.receiver ? RECEIVER_BIT : 0) | (parameter.hasDefaultValue ? HAS_DEFAULT_VALUE_BIT : 0));
+                }
+            }
+        }
+        String[] strings = encoder.strings.toArray(new String[encoder.strings.size()]);
+        return new Encoded(strings, encoder.data.toString());
+    }
+
+    /**
+     * @return null if the data is malformed
+     */
+    @Nullable
+    public static JetMembersData decode(@NotNull String[] strings, @NotNull String data) {
+        Decoder decoder = new Decoder(strings, data);
+        try {
+            int methodCount = decoder.readNumber();
+            List<Method> methods = new ArrayList<Method>(methodCount);
+            for (int i = 0; i < methodCount; i++) {
+                Method method = new Method(decoder.readString(), decoder.readNumber());
+                if (decoder.readNumber() != 0) {
+                    int flags = decoder.readNumber();
+                    String typeParameters = decoder.readString();
+                    String returnType = decoder.readString();
+                    method.setAnnotation(new MethodAnnotation(flags, typeParameters, returnType, decoder.readString()));
+                }
+                for (int j = 0; j < method.getParameterCount(); j++) {
+                    if (decoder.readNumber() != 0) {
+                        String name = decoder.readString();
+                        String type = decoder.readString();
+                        int bits = decoder.readNumber();
+                        method.setParameterAnnotation(j, new ValueParameterAnnotation(
+                                name, type, (bits & RECEIVER_BIT) != 0, (bits & HAS_DEFAULT_VALUE_BIT) != 0));
+                    }
+                }
+                methods.add(method);
+            }
+            return decoder.isAtEnd() ? new JetMembersData(methods) : null;
+        }
+        catch (IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static class Encoder {
+        private final List<String> strings = new ArrayList<String>();
+        private final Map<String, Integer> stringIndices = new HashMap<String, Integer>();
+        private final StringBuilder data = new StringBuilder();
+
+        void writeNumber(int number) {
+            if (number >= 0 && number < LARGE_NUMBER - 1) {
+                data.append((char) (number + 1));
+            }
+            else {
+                data.append(LARGE_NUMBER).append((char) (number >>> 16)).append((char) number);
+            }
+        }
+
+        void writeString(@NotNull String string) {
+            Integer index = stringIndices.get(string);
+            if (index == null) {
+                index = strings.size();
+                strings.add(string);
+                stringIndices.put(string, index);
+            }
+            writeNumber(index);
+        }
+    }
+
+    private static class Decoder {
+        private final String[] strings;
+        private final String data;
+        private int position = 0;
+
+        Decoder(@NotNull String[] strings, @NotNull String data) {
+            this.strings = strings;
+            this.data = data;
+        }
+
+        int readNumber() {
+            char c = data.charAt(position++);
+            if (c != LARGE_NUMBER) {
+                return c - 1;
+            }
+            int high = data.charAt(position++);
+            int low = data.charAt(position++);
+            return (high << 16) | low;
+        }
+
+        @NotNull
+        String readString() {
+            return strings[readNumber()];
+        }
+
+        boolean isAtEnd() {
+            return position == data.length();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.lang.resolve.java.kt;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCompiledElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.asm4.AnnotationVisitor;
+import org.jetbrains.asm4.ClassReader;
+import org.jetbrains.asm4.ClassVisitor;
+import org.jetbrains.asm4.Opcodes;
+import org.jetbrains.jet.lang.resolve.java.DescriptorResolverUtils;
+import org.jetbrains.jet.lang.resolve.java.JvmStdlibNames;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the JetMembers annotation right from the class file, so that Kotlin annotations of compiled methods
+ * are available without building PSI for the annotations of every method and parameter.
+ */
+public final class JetMembersReader {
+    private static final Key<JetMembersData> JET_MEMBERS_DATA = Key.create("JET_MEMBERS_DATA");
+    private static final JetMembersData NO_DATA = new JetMembersData(new ArrayList<JetMembersData.Method>(0));
+
+    private JetMembersReader() {
+    }
+
+    /**
+     * @return null if the annotations of the method should be read from PSI
+     */
+    @Nullable
+    public static JetMembersData.Method findMethod(@NotNull PsiMethod psiMethod) {
+        if (!(psiMethod instanceof PsiCompiledElement) || psiMethod.isConstructor()) return null;
+
+        PsiClass psiClass = psiMethod.getContainingClass();
+        if (psiClass == null) return null;
+
+        JetMembersData data = getData(psiClass);
+        if (data == NO_DATA) return null;
+        return data.findMethod(psiMethod.getName(), psiMethod.getParameterList().getParametersCount());
+    }
+
+    @NotNull
+    private static JetMembersData getData(@NotNull PsiClass psiClass) {
+        JetMembersData data = psiClass.getUserData(JET_MEMBERS_DATA);
+        if (data == null) {
+            data = readData(psiClass);
+            psiClass.putUserData(JET_MEMBERS_DATA, data);
+        }
+        return data;
+    }
+
+    /**
+     * Only classes compiled by Kotlin can have the JetMembers annotation, the class files of Java classes are not read
+     */
+    @NotNull
+    private static JetMembersData readData(@NotNull PsiClass psiClass) {
+        if (!DescriptorResolverUtils.isKotlinClass(psiClass)) return NO_DATA;
+
+        VirtualFile classFile = findClassFile(psiClass);
+        if (classFile == null) return NO_DATA;
+
+        byte[] bytes;
+        try {
+            bytes = classFile.contentsToByteArray();
+        }
+        catch (IOException e) {
+            return NO_DATA;
+        }
+
+        JetMembersVisitor visitor = new JetMembersVisitor();
+        new ClassReader(bytes).accept(visitor, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        if (visitor.data == null) return NO_DATA;
+
+        JetMembersData data = JetMembersData.decode(visitor.strings.toArray(new String[visitor.strings.size()]), visitor.data);
+        return data != null ? data : NO_DATA;
+    }
+
+    /*
+     * Nested classes are a part of the PSI of the outer class file, their own class files are next to it
+     */
+    @Nullable
+    private static VirtualFile findClassFile(@NotNull PsiClass psiClass) {
+        PsiFile psiFile = psiClass.getContainingFile();
+        VirtualFile outerClassFile = psiFile != null ? psiFile.getVirtualFile() : null;
+        if (outerClassFile == null) return null;
+
+        StringBuilder nestedName = new StringBuilder();
+        for (PsiClass current = psiClass; current.getContainingClass() != null; current = current.getContainingClass()) {
+            nestedName.insert(0, "$" + current.getName());
+        }
+        if (nestedName.length() == 0) return outerClassFile;
+
+        VirtualFile parent = outerClassFile.getParent();
+        return parent != null ? parent.findChild(outerClassFile.getNameWithoutExtension() + nestedName + ".class") : null;
+    }
+
+    private static class JetMembersVisitor extends ClassVisitor {
+        private final List<String> strings = new ArrayList<String>();
+        @Nullable
+        private String data;
+
+        public JetMembersVisitor() {
+            super(Opcodes.ASM4);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            if (!JvmStdlibNames.JET_MEMBERS.getDescriptor().equals(desc)) return null;
+
+            return new AnnotationVisitor(Opcodes.ASM4) {
+                @Override
+                public void visit(String name, Object value) {
+                    if (JvmStdlibNames.JET_MEMBERS_DATA_FIELD.equals(name) && value instanceof String) {
+                        data = (String) value;
+                    }
+                }
+
+                @Override
+                public AnnotationVisitor visitArray(String name) {
+                    if (!JvmStdlibNames.JET_MEMBERS_STRINGS_FIELD.equals(name)) return null;
+
+                    return new AnnotationVisitor(Opcodes.ASM4) {
+                        @Override
+                        public void visit(String name, Object value) {
+                            strings.add((String) value);
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -37,6 +37,13 @@ public class JetMethodAnnotation extends PsiAnnotationWithFlags {
         super(psiAnnotation);
     }
 
+    private JetMethodAnnotation(@NotNull JetMembersData.MethodAnnotation data) {
+        super(data.flags);
+        typeParameters = data.typeParameters;
+        returnType = data.returnType;
+        propertyType = data.propertyType;
+    }
+
     @Override
     protected void initialize() {
         super.initialize();
@@ -68,6 +75,12 @@ public class JetMethodAnnotation extends PsiAnnotationWithFlags {
     }
 
     public static JetMethodAnnotation get(PsiMethod psiMethod) {
+        JetMembersData.Method method = JetMembersReader.findMethod(psiMethod);
+        if (method != null) {
+            JetMembersData.MethodAnnotation data = method.getAnnotation();
+            return data != null ? new JetMethodAnnotation(data) : NULL_ANNOTATION;
+        }
+
         final PsiAnnotation annotation =
                 JavaAnnotationResolver.findOwnAnnotation(psiMethod, JvmStdlibNames.JET_METHOD.getFqName().getFqName());
         return annotation != null ? new JetMethodAnnotation(annotation) : NULL_ANNOTATION;
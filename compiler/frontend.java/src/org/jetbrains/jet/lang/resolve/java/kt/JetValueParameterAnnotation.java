@@ -17,6 +17,8 @@
 package org.jetbrains.jet.lang.resolve.java.kt;
 
 import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiParameter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -38,6 +40,13 @@ public class JetValueParameterAnnotation extends PsiAnnotationWrapper {
         super(psiAnnotation);
     }
 
+    private JetValueParameterAnnotation(@NotNull JetMembersData.ValueParameterAnnotation data) {
+        name = data.name;
+        type = data.type;
+        receiver = data.receiver;
+        hasDefaultValue = data.hasDefaultValue;
+    }
+
     @Override
     protected void initialize() {
         name = getStringAttribute(JvmStdlibNames.JET_VALUE_PARAMETER_NAME_FIELD, "");
@@ -69,6 +78,17 @@ public class JetValueParameterAnnotation extends PsiAnnotationWrapper {
     }
     
     public static JetValueParameterAnnotation get(PsiParameter psiParameter) {
+        PsiElement scope = psiParameter.getDeclarationScope();
+        if (scope instanceof PsiMethod) {
+            PsiMethod psiMethod = (PsiMethod) scope;
+            JetMembersData.Method method = JetMembersReader.findMethod(psiMethod);
+            int index = psiMethod.getParameterList().getParameterIndex(psiParameter);
+            if (method != null && index >= 0) {
+                JetMembersData.ValueParameterAnnotation data = method.getParameterAnnotation(index);
+                return data != null ? new JetValueParameterAnnotation(data) : NULL_ANNOTATION;
+            }
+        }
+
         final PsiAnnotation annotation =
                 JavaAnnotationResolver.findOwnAnnotation(psiParameter, JvmStdlibNames.JET_VALUE_PARAMETER.getFqName().getFqName());
         return annotation != null ? new JetValueParameterAnnotation(annotation) : NULL_ANNOTATION;
@@ -27,6 +27,10 @@ public abstract class PsiAnnotationWithFlags extends PsiAnnotationWrapper {
         super(psiAnnotation);
     }
 
+    protected PsiAnnotationWithFlags(int flags) {
+        this.flags = flags;
+    }
+
     @Override
     protected void initialize() {
         flags = getIntAttribute(JvmStdlibNames.JET_FLAGS_FIELD, JvmStdlibNames.FLAGS_DEFAULT_VALUE);
@@ -25,14 +25,26 @@ public abstract class PsiAnnotationWrapper {
     @Nullable
     private final PsiAnnotation psiAnnotation;
 
+    private final boolean defined;
+
     private boolean initialized = false;
 
     protected PsiAnnotationWrapper(@Nullable PsiAnnotation psiAnnotation) {
         this.psiAnnotation = psiAnnotation;
+        this.defined = psiAnnotation != null;
+    }
+
+    /**
+     * For annotations whose values were read without PSI and are set by the subclass constructor
+     */
+    protected PsiAnnotationWrapper() {
+        this.psiAnnotation = null;
+        this.defined = true;
+        this.initialized = true;
     }
 
     public boolean isDefined() {
-        return psiAnnotation != null;
+        return defined;
     }
 
     protected abstract void initialize();
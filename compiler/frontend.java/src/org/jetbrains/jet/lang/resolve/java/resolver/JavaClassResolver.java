@@ -246,6 +246,7 @@ public final class JavaClassResolver {
         // TODO: ugly hack: tests crash if initializeTypeParameters called with class containing proper supertypes
         List<TypeParameterDescriptor> classTypeParameters = classDescriptor.getTypeConstructor().getParameters();
         supertypes.addAll(supertypesResolver.getSupertypes(classDescriptor, new PsiClassWrapper(psiClass), classData, classTypeParameters));
+        classDescriptor.lockSupertypes();
 
         ClassDescriptorFromJvmBytecode classObjectDescriptor = classObjectResolver.createClassObjectDescriptor(classDescriptor, psiClass);
         cache(DescriptorResolverUtils.getFqNameForClassObject(psiClass), classObjectDescriptor);
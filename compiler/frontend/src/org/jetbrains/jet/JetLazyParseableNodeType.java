@@ -0,0 +1,125 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.Language;
+import com.intellij.lang.LanguageParserDefinitions;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.impl.source.tree.LazyParseableElement;
+import com.intellij.psi.tree.ICompositeElementType;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IErrorCounterReparseableElementType;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.lang.parsing.JetParser;
+import org.jetbrains.jet.lang.psi.JetElement;
+import org.jetbrains.jet.lexer.JetLexer;
+import org.jetbrains.jet.lexer.JetTokens;
+import org.jetbrains.jet.plugin.JetLanguage;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Element type for "{...}" groups which the parser may collapse into chameleons and parse only when their
+ * contents are first requested. The same type is used for eagerly built nodes, so that the IDE can reparse
+ * such a node in isolation when its braces stay balanced and a full parse would give it the same type.
+ */
+public abstract class JetLazyParseableNodeType extends IErrorCounterReparseableElementType implements ICompositeElementType {
+    private final Constructor<? extends JetElement> myPsiFactory;
+
+    public JetLazyParseableNodeType(@NotNull @NonNls String debugName, @NotNull Class<? extends JetElement> psiClass) {
+        super(debugName, JetLanguage.INSTANCE);
+        try {
+            myPsiFactory = psiClass.getConstructor(ASTNode.class);
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException("Must have a constructor with ASTNode");
+        }
+    }
+
+    /**
+     * Parses the whole text of the builder as a single node of this type, including nested groups, and returns that node
+     */
+    @NotNull
+    protected abstract ASTNode parse(@NotNull PsiBuilder builder);
+
+    public JetElement createPsi(ASTNode node) {
+        assert node.getElementType() == this;
+
+        try {
+            return myPsiFactory.newInstance(node);
+        } catch (Exception e) {
+            throw new RuntimeException("Error creating psi element for node", e);
+        }
+    }
+
+    @Override
+    protected ASTNode doParseContents(@NotNull ASTNode chameleon, @NotNull PsiElement psi) {
+        PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(
+                psi.getProject(), chameleon, null, JetLanguage.INSTANCE, chameleon.getChars());
+        return parse(builder).getFirstChildNode();
+    }
+
+    @Override
+    public ASTNode createNode(CharSequence text) {
+        return new LazyParseableElement(this, text);
+    }
+
+    @NotNull
+    @Override
+    public ASTNode createCompositeNode() {
+        return new LazyParseableElement(this, null);
+    }
+
+    /*
+     * The text can be reparsed alone only if it starts with '{' and that brace is closed by the very last token,
+     * and if the text gets this type wherever a node of this type may occur: the reparsed node keeps its type,
+     * while a group in a control structure body becomes a function literal only if it declares parameters
+     */
+    @Override
+    public int getErrorsCount(CharSequence seq, Language fileLanguage, Project project) {
+        Lexer lexer = new JetLexer();
+
+        lexer.start(seq);
+        if (lexer.getTokenType() != JetTokens.LBRACE) return FATAL_ERROR;
+        lexer.advance();
+
+        int balance = 1;
+        while (true) {
+            IElementType type = lexer.getTokenType();
+            if (type == null) break;
+            if (balance == 0) return FATAL_ERROR;
+
+            if (type == JetTokens.LBRACE) {
+                balance++;
+            }
+            else if (type == JetTokens.RBRACE) {
+                balance--;
+            }
+            lexer.advance();
+        }
+        if (balance != NO_ERRORS) return balance;
+
+        PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(
+                LanguageParserDefinitions.INSTANCE.forLanguage(JetLanguage.INSTANCE), new JetLexer(), seq);
+        return JetParser.parseBlockOrFunctionLiteral(builder) == this ? NO_ERRORS : FATAL_ERROR;
+    }
+}
@@ -16,8 +16,12 @@
 
 package org.jetbrains.jet;
 
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.PsiBuilder;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.tree.IFileElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.lang.parsing.JetParser;
 import org.jetbrains.jet.lang.psi.*;
 import org.jetbrains.jet.lang.psi.stubs.elements.JetStubElementTypes;
 import org.jetbrains.jet.plugin.JetLanguage;
@@ -118,8 +122,22 @@ public interface JetNodeTypes {
     JetNodeType LOOP_PARAMETER            = new JetNodeType("LOOP_PARAMETER", JetParameter.class); // TODO: Do we need separate type?
     JetNodeType LOOP_RANGE                = new JetNodeType("LOOP_RANGE", JetContainerNode.class);
     JetNodeType BODY                      = new JetNodeType("BODY", JetContainerNode.class);
-    JetNodeType BLOCK                     = new JetNodeType("BLOCK", JetBlockExpression.class);
-    JetNodeType FUNCTION_LITERAL_EXPRESSION = new JetNodeType("FUNCTION_LITERAL_EXPRESSION", JetFunctionLiteralExpression.class);
+    JetLazyParseableNodeType BLOCK = new JetLazyParseableNodeType("BLOCK", JetBlockExpression.class) {
+        @NotNull
+        @Override
+        protected ASTNode parse(@NotNull PsiBuilder builder) {
+            return JetParser.parseBlockExpression(builder);
+        }
+    };
+    // Bodies of function literals and scripts: blocks without braces of their own, which are never reparsed alone
+    JetNodeType BRACELESS_BLOCK           = new JetNodeType("BLOCK", JetBlockExpression.class);
+    JetLazyParseableNodeType FUNCTION_LITERAL_EXPRESSION = new JetLazyParseableNodeType("FUNCTION_LITERAL_EXPRESSION", JetFunctionLiteralExpression.class) {
+        @NotNull
+        @Override
+        protected ASTNode parse(@NotNull PsiBuilder builder) {
+            return JetParser.parseFunctionLiteralExpression(builder);
+        }
+    };
     JetNodeType FUNCTION_LITERAL          = new JetNodeType("FUNCTION_LITERAL", JetFunctionLiteral.class);
     JetNodeType ANNOTATED_EXPRESSION      = new JetNodeType("ANNOTATED_EXPRESSION", JetAnnotatedExpression.class);
 
@@ -37,6 +37,12 @@ import org.jetbrains.jet.lang.resolve.BindingContext;
 import org.jetbrains.jet.lang.resolve.BindingContextUtils;
 import org.jetbrains.jet.lang.resolve.BindingTrace;
 import org.jetbrains.jet.lang.resolve.DescriptorUtils;
+import org.jetbrains.jet.lang.resolve.calls.model.DefaultValueArgument;
+import org.jetbrains.jet.lang.resolve.calls.model.ResolvedCall;
+import org.jetbrains.jet.lang.resolve.calls.model.ResolvedValueArgument;
+import org.jetbrains.jet.lang.resolve.scopes.receivers.ExpressionReceiver;
+import org.jetbrains.jet.lang.resolve.scopes.receivers.ReceiverValue;
+import org.jetbrains.jet.lang.resolve.scopes.receivers.ThisReceiver;
 import org.jetbrains.jet.lang.types.JetType;
 import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns;
 import org.jetbrains.jet.lexer.JetTokens;
@@ -558,6 +564,123 @@ public class JetFlowInformationProvider {
         });
     }
 
+////////////////////////////////////////////////////////////////////////////////
+//  Tail recursion
+
+    /**
+     * Records the recursive calls of a tailRecursive function which can be compiled into a jump
+     * and reports the others
+     */
+    public void markTailRecursiveCalls() {
+        final SimpleFunctionDescriptor function = trace.get(BindingContext.FUNCTION, subroutine);
+        if (function == null || !KotlinBuiltIns.getInstance().isTailRecursive(function)) return;
+
+        List<JetElement> returnedExpressions = Lists.newArrayList();
+        collectReturnExpressions(returnedExpressions);
+        final Set<JetCallExpression> tailCalls = Sets.newHashSet();
+        for (JetElement returnedExpression : returnedExpressions) {
+            collectTailCalls(returnedExpression, tailCalls);
+        }
+
+        subroutine.acceptChildren(new JetTreeVisitorVoid() {
+            @Override
+            public void visitCallExpression(JetCallExpression expression) {
+                super.visitCallExpression(expression);
+
+                ResolvedCall<? extends CallableDescriptor> resolvedCall =
+                        trace.get(BindingContext.RESOLVED_CALL, expression.getCalleeExpression());
+                if (resolvedCall == null || resolvedCall.getResultingDescriptor().getOriginal() != function.getOriginal()) return;
+
+                String reason = getNonTailCallReason(expression, resolvedCall, function, tailCalls);
+                if (reason == null) {
+                    trace.record(BindingContext.TAIL_RECURSIVE_CALL, expression);
+                }
+                else {
+                    trace.report(NON_TAIL_RECURSIVE_CALL.on(expression, reason));
+                }
+            }
+        });
+    }
+
+    /*
+     * Values of returned expressions are returned as they are, so are the values of their last subexpressions
+     */
+    private static void collectTailCalls(@Nullable JetElement expression, @NotNull Set<JetCallExpression> tailCalls) {
+        if (expression instanceof JetCallExpression) {
+            tailCalls.add((JetCallExpression) expression);
+        }
+        else if (expression instanceof JetReturnExpression) {
+            collectTailCalls(((JetReturnExpression) expression).getReturnedExpression(), tailCalls);
+        }
+        else if (expression instanceof JetParenthesizedExpression) {
+            collectTailCalls(((JetParenthesizedExpression) expression).getExpression(), tailCalls);
+        }
+        else if (expression instanceof JetDotQualifiedExpression) {
+            collectTailCalls(((JetDotQualifiedExpression) expression).getSelectorExpression(), tailCalls);
+        }
+        else if (expression instanceof JetIfExpression) {
+            collectTailCalls(((JetIfExpression) expression).getThen(), tailCalls);
+            collectTailCalls(((JetIfExpression) expression).getElse(), tailCalls);
+        }
+        else if (expression instanceof JetWhenExpression) {
+            for (JetWhenEntry entry : ((JetWhenExpression) expression).getEntries()) {
+                collectTailCalls(entry.getExpression(), tailCalls);
+            }
+        }
+        else if (expression instanceof JetBlockExpression) {
+            List<JetElement> statements = ((JetBlockExpression) expression).getStatements();
+            if (!statements.isEmpty()) {
+                collectTailCalls(statements.get(statements.size() - 1), tailCalls);
+            }
+        }
+    }
+
+    @Nullable
+    private String getNonTailCallReason(
+            @NotNull JetCallExpression expression,
+            @NotNull ResolvedCall<? extends CallableDescriptor> resolvedCall,
+            @NotNull SimpleFunctionDescriptor function,
+            @NotNull Set<JetCallExpression> tailCalls
+    ) {
+        if (!tailCalls.contains(expression)) {
+            return "it is not a tail call";
+        }
+        // A jump out of a try block would skip finally blocks and leave the range of catch blocks
+        if (PsiTreeUtil.getParentOfType(expression, JetTryExpression.class, true, JetDeclaration.class) != null) {
+            return "it is inside a try block";
+        }
+        for (ResolvedValueArgument argument : resolvedCall.getValueArgumentsByIndex()) {
+            if (argument instanceof DefaultValueArgument) {
+                return "default values of parameters are used";
+            }
+        }
+
+        DeclarationDescriptor containingDeclaration = function.getContainingDeclaration();
+        if (function.getExpectedThisObject() != null) {
+            if (function.getModality().isOverridable()) {
+                return "the function can be overridden";
+            }
+            if (!isThisReceiver(resolvedCall.getThisObject(), containingDeclaration)) {
+                return "it is called on a different object";
+            }
+        }
+        return null;
+    }
+
+    private boolean isThisReceiver(@NotNull ReceiverValue receiver, @NotNull DeclarationDescriptor classDescriptor) {
+        if (receiver instanceof ThisReceiver) {
+            return ((ThisReceiver) receiver).getDeclarationDescriptor() == classDescriptor;
+        }
+        if (receiver instanceof ExpressionReceiver) {
+            JetExpression expression = JetPsiUtil.deparenthesizeWithNoTypeResolution(((ExpressionReceiver) receiver).getExpression());
+            if (expression instanceof JetThisExpression) {
+                JetReferenceExpression reference = ((JetThisExpression) expression).getInstanceReference();
+                return trace.get(BindingContext.REFERENCE_TARGET, reference) == classDescriptor;
+            }
+        }
+        return false;
+    }
+
 ////////////////////////////////////////////////////////////////////////////////
 // Utility classes and methods
 
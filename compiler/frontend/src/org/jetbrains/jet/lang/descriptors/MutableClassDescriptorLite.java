@@ -193,6 +193,13 @@ public abstract class MutableClassDescriptorLite extends ClassDescriptorBase {
     }
 
 
+    /**
+     * Called when no supertypes will be added or removed any more, see {@link TypeConstructorImpl#lockSupertypes()}
+     */
+    public void lockSupertypes() {
+        ((TypeConstructorImpl) typeConstructor).lockSupertypes();
+    }
+
     public void addSupertype(@NotNull JetType supertype) {
         assert !ErrorUtils.isErrorType(supertype) : "Error types must be filtered out in DescriptorResolver";
         if (TypeUtils.getClassDescriptor(supertype) != null) {
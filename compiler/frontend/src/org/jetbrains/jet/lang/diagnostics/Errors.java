@@ -408,6 +408,8 @@ public interface Errors {
 
     SimpleDiagnosticFactory<JetElement> UNREACHABLE_CODE = SimpleDiagnosticFactory.create(ERROR);
 
+    DiagnosticFactory1<JetCallExpression, String> NON_TAIL_RECURSIVE_CALL = DiagnosticFactory1.create(ERROR);
+
     SimpleDiagnosticFactory<JetVariableDeclaration> VARIABLE_WITH_NO_TYPE_NO_INITIALIZER = SimpleDiagnosticFactory.create(ERROR, NAME_IDENTIFIER);
 
     DiagnosticFactory1<JetSimpleNameExpression, VariableDescriptor> UNINITIALIZED_VARIABLE = DiagnosticFactory1.create(ERROR);
@@ -185,6 +185,7 @@ public class DefaultErrorMessages {
                 "Setter of this property can be overridden, so initialization using backing field required", NAME);
 
         MAP.put(UNREACHABLE_CODE, "Unreachable code");
+        MAP.put(NON_TAIL_RECURSIVE_CALL, "Recursive call of a tailRecursive function can''t be eliminated: {0}", TO_STRING);
 
         MAP.put(MANY_CLASS_OBJECTS, "Only one class object is allowed per class");
         MAP.put(CLASS_OBJECT_NOT_ALLOWED, "A class object is not allowed here");
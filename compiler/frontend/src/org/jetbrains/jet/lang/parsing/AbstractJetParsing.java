@@ -17,6 +17,7 @@
 package org.jetbrains.jet.lang.parsing;
 
 import com.intellij.lang.PsiBuilder;
+import com.intellij.openapi.util.Key;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.tree.TokenSet;
 import org.jetbrains.jet.lexer.JetKeywordToken;
@@ -47,6 +48,12 @@ import static org.jetbrains.jet.lexer.JetTokens.*;
         }
     }
 
+    /*
+     * Set on builders which parse the contents of a collapsed group: the contents are needed as a whole,
+     * and collapsing nested groups again would make them re-lexed once per nesting level
+     */
+    static final Key<Boolean> PARSE_NESTED_GROUPS_EAGERLY = Key.create("PARSE_NESTED_GROUPS_EAGERLY");
+
     protected final SemanticWhitespaceAwarePsiBuilder myBuilder;
 
     public AbstractJetParsing(SemanticWhitespaceAwarePsiBuilder builder) {
@@ -258,6 +265,48 @@ import static org.jetbrains.jet.lexer.JetTokens.*;
         error.error(mesage);
     }
 
+    protected void errorUntilEof() {
+        if (!eof()) {
+            errorUntil("Unexpected tokens", TokenSet.EMPTY);
+        }
+    }
+
+    /*
+     * Skips a "{...}" group without building its contents and collapses it into a single chameleon node
+     * which is parsed when first accessed.
+     *
+     * Returns false without moving if the braces don't balance, so that the caller can parse eagerly and recover
+     */
+    protected boolean collapseBalancedBraces(IElementType chameleonType) {
+        assert _at(LBRACE);
+        if (myBuilder.getUserData(PARSE_NESTED_GROUPS_EAGERLY) != null) return false;
+
+        PsiBuilder.Marker chameleon = mark();
+        myBuilder.disableJoiningComplexTokens();
+
+        int openBraces = 0;
+        while (!eof()) {
+            IElementType token = tt();
+            if (token == LBRACE) {
+                openBraces++;
+            }
+            else if (token == RBRACE) {
+                openBraces--;
+            }
+            advance(); // skip token
+
+            if (openBraces == 0) {
+                myBuilder.restoreJoiningComplexTokensState();
+                chameleon.collapse(chameleonType);
+                return true;
+            }
+        }
+
+        myBuilder.restoreJoiningComplexTokensState();
+        chameleon.rollbackTo();
+        return false;
+    }
+
     protected static void errorIf(PsiBuilder.Marker marker, boolean condition, String message) {
         if (condition) {
             marker.error(message);
@@ -274,15 +323,21 @@ import static org.jetbrains.jet.lexer.JetTokens.*;
         int openBraces = 0;
         int openParentheses = 0;
         int openBrackets = 0;
+
+        // Groups which can't be at top level are jumped over, so that the scan is linear in the number of top level tokens
+        BracketMatchingTable brackets = pattern.canSkipNestedGroups() ? myBuilder.getBracketMatchingTable() : null;
+
         while (!eof()) {
             if (pattern.processToken(
                     myBuilder.getCurrentOffset(),
                     pattern.isTopLevel(openAngleBrackets, openBrackets, openBraces, openParentheses))) {
                 break;
             }
+            boolean nestedGroupOpened = false;
             if (at(LPAR)) {
                 openParentheses++;
                 opens.push(LPAR);
+                nestedGroupOpened = openParentheses > 0;
             }
             else if (at(LT)) {
                 openAngleBrackets++;
@@ -291,10 +346,12 @@ import static org.jetbrains.jet.lexer.JetTokens.*;
             else if (at(LBRACE)) {
                 openBraces++;
                 opens.push(LBRACE);
+                nestedGroupOpened = openBraces > 0;
             }
             else if (at(LBRACKET)) {
                 openBrackets++;
                 opens.push(LBRACKET);
+                nestedGroupOpened = openBrackets > 0;
             }
             else if (at(RPAR)) {
                 openParentheses--;
@@ -313,6 +370,17 @@ import static org.jetbrains.jet.lexer.JetTokens.*;
             else if (at(RBRACKET)) {
                 openBrackets--;
             }
+
+            if (brackets != null && nestedGroupOpened) {
+                int opening = myBuilder.rawTokenIndex();
+                int closing = brackets.getMatchingClosing(opening);
+                if (closing >= 0) {
+                    // Move to the closing bracket: it is processed as usual on the next iteration
+                    openAngleBrackets += brackets.getAngleBracketsBalance(opening + 1, closing);
+                    myBuilder.rawAdvanceLexer(closing - opening);
+                    continue;
+                }
+            }
             advance(); // skip token
         }
         currentPosition.rollbackTo();
@@ -378,6 +446,11 @@ import static org.jetbrains.jet.lexer.JetTokens.*;
             return (topLevel || !topLevelOnly) && at(lookFor);
         }
 
+        @Override
+        public boolean matchesOnlyAtTopLevel() {
+            return topLevelOnly;
+        }
+
     }
 
     protected class AtSet extends AbstractTokenStreamPredicate {
@@ -401,6 +474,11 @@ import static org.jetbrains.jet.lexer.JetTokens.*;
         public boolean matching(boolean topLevel) {
             return (topLevel || !atSet(topLevelOnly)) && atSet(lookFor);
         }
+
+        @Override
+        public boolean matchesOnlyAtTopLevel() {
+            return TokenSet.andNot(lookFor, topLevelOnly).getTypes().length == 0;
+        }
     }
 
     protected class AtFirstTokenOfTokens extends AbstractTokenStreamPredicate {
@@ -40,5 +40,10 @@ public abstract class AbstractTokenStreamPattern implements TokenStreamPattern {
     public boolean handleUnmatchedClosing(IElementType token) {
         return false;
     }
+
+    @Override
+    public boolean canSkipNestedGroups() {
+        return false;
+    }
 }
 
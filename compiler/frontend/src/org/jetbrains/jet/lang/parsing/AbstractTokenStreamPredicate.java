@@ -18,6 +18,11 @@ package org.jetbrains.jet.lang.parsing;
 
 public abstract class AbstractTokenStreamPredicate implements TokenStreamPredicate {
 
+    @Override
+    public boolean matchesOnlyAtTopLevel() {
+        return false;
+    }
+
     @Override
     public TokenStreamPredicate or(final TokenStreamPredicate other) {
         return new AbstractTokenStreamPredicate() {
@@ -26,6 +31,11 @@ public abstract class AbstractTokenStreamPredicate implements TokenStreamPredica
                 if (AbstractTokenStreamPredicate.this.matching(topLevel)) return true;
                 return other.matching(topLevel);
             }
+
+            @Override
+            public boolean matchesOnlyAtTopLevel() {
+                return AbstractTokenStreamPredicate.this.matchesOnlyAtTopLevel() && other.matchesOnlyAtTopLevel();
+            }
         };
     }
 }
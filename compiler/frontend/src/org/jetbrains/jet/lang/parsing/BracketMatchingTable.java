@@ -0,0 +1,106 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.lang.parsing;
+
+import com.intellij.lang.PsiBuilder;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+import static org.jetbrains.jet.lexer.JetTokens.*;
+
+/**
+ * Matching brackets for the whole token stream of a builder, computed in one pass.
+ *
+ * Only (), [] and {} groups that are well nested (contain no unmatched brackets of these kinds) are matched.
+ * Angle brackets can't be matched on the token level (they may be comparisons), so for them only
+ * the running balance of '<' and '>' is kept.
+ */
+public final class BracketMatchingTable {
+    private final int[] matchingClosing;
+
+    // angleBalance[i] is the number of '<' minus the number of '>' among tokens [0, i)
+    private final int[] angleBalance;
+
+    private BracketMatchingTable(int[] matchingClosing, int[] angleBalance) {
+        this.matchingClosing = matchingClosing;
+        this.angleBalance = angleBalance;
+    }
+
+    @NotNull
+    public static BracketMatchingTable build(@NotNull PsiBuilder builder) {
+        int start = -builder.rawTokenIndex();
+        int count = 0;
+        while (builder.rawLookup(start + count) != null) {
+            count++;
+        }
+
+        int[] matchingClosing = new int[count];
+        Arrays.fill(matchingClosing, -1);
+        int[] angleBalance = new int[count + 1];
+
+        int[] openStack = new int[count];
+        int stackSize = 0;
+        for (int i = 0; i < count; i++) {
+            IElementType token = builder.rawLookup(start + i);
+
+            angleBalance[i + 1] = angleBalance[i];
+            if (token == LT) {
+                angleBalance[i + 1]++;
+            }
+            else if (token == GT) {
+                angleBalance[i + 1]--;
+            }
+            else if (token == LPAR || token == LBRACKET || token == LBRACE) {
+                openStack[stackSize++] = i;
+            }
+            else if (token == RPAR || token == RBRACKET || token == RBRACE) {
+                if (stackSize > 0 && closes(token, builder.rawLookup(start + openStack[stackSize - 1]))) {
+                    matchingClosing[openStack[--stackSize]] = i;
+                }
+                else {
+                    // No group enclosing a mismatched bracket is well nested
+                    stackSize = 0;
+                }
+            }
+        }
+
+        return new BracketMatchingTable(matchingClosing, angleBalance);
+    }
+
+    private static boolean closes(IElementType closing, IElementType opening) {
+        return closing == RPAR && opening == LPAR
+               || closing == RBRACKET && opening == LBRACKET
+               || closing == RBRACE && opening == LBRACE;
+    }
+
+    /**
+     * @return raw index of the token closing the well nested group opened at <code>rawIndex</code>, -1 if there's no such group
+     */
+    public int getMatchingClosing(int rawIndex) {
+        if (rawIndex < 0 || rawIndex >= matchingClosing.length) return -1;
+        return matchingClosing[rawIndex];
+    }
+
+    /**
+     * @return the number of '<' minus the number of '>' among raw tokens [from, to)
+     */
+    public int getAngleBracketsBalance(int from, int to) {
+        return angleBalance[to] - angleBalance[from];
+    }
+}
@@ -36,4 +36,9 @@ public class FirstBefore extends AbstractTokenStreamPattern {
         }
         return false;
     }
+
+    @Override
+    public boolean canSkipNestedGroups() {
+        return lookFor.matchesOnlyAtTopLevel() && stopAt.matchesOnlyAtTopLevel();
+    }
 }
@@ -943,8 +943,49 @@ public class JetExpressionParsing extends AbstractJetParsing {
     private void parseFunctionLiteral(boolean preferBlock) {
         assert _at(LBRACE);
 
+        // Unless it may turn out to be a block, the literal is only parsed when its contents are accessed
+        if (!preferBlock && collapseBalancedBraces(FUNCTION_LITERAL_EXPRESSION)) return;
+
+        PsiBuilder.Marker literalExpression = mark();
+        IElementType literalType = parseFunctionLiteralContents(preferBlock);
+        literalExpression.done(literalType);
+    }
+
+    /*
+     * Contents of a lazily parsed FUNCTION_LITERAL_EXPRESSION
+     */
+    /*package*/ void parseFunctionLiteralExpression() {
+        assert _at(LBRACE);
+
+        PsiBuilder.Marker literalExpression = mark();
+
+        parseFunctionLiteralContents(false);
+        errorUntilEof();
+
+        literalExpression.done(FUNCTION_LITERAL_EXPRESSION);
+    }
+
+    /*
+     * A "{...}" group in the position of a control structure body, see parseExpressionPreferringBlocks()
+     *
+     * Returns the type the group gets there: BLOCK unless it declares parameters
+     */
+    /*package*/ IElementType parseBlockOrFunctionLiteral() {
+        assert _at(LBRACE);
+
         PsiBuilder.Marker literalExpression = mark();
 
+        IElementType literalType = parseFunctionLiteralContents(true);
+        errorUntilEof();
+
+        literalExpression.done(literalType);
+        return literalType;
+    }
+
+    /*
+     * Returns the type the enclosing literal expression should be done with: BLOCK if the literal turned out to be a block
+     */
+    private IElementType parseFunctionLiteralContents(boolean preferBlock) {
         PsiBuilder.Marker literal = mark();
 
         myBuilder.enableNewlines();
@@ -1005,22 +1046,21 @@ public class JetExpressionParsing extends AbstractJetParsing {
                 literal.drop();
                 parseStatements();
                 expect(RBRACE, "Expecting '}'");
-                literalExpression.done(BLOCK);
                 myBuilder.restoreNewlinesState();
 
-                return;
+                return BLOCK;
             }
         }
 
         PsiBuilder.Marker body = mark();
         parseStatements();
-        body.done(BLOCK);
+        body.done(BRACELESS_BLOCK);
 
         expect(RBRACE, "Expecting '}'");
         myBuilder.restoreNewlinesState();
 
         literal.done(FUNCTION_LITERAL);
-        literalExpression.done(FUNCTION_LITERAL_EXPRESSION);
+        return FUNCTION_LITERAL_EXPRESSION;
     }
 
     private boolean rollbackOrDropAt(PsiBuilder.Marker rollbackMarker, IElementType dropAt) {
@@ -53,4 +53,30 @@ public class JetParser implements PsiParser {
         }
         return psiBuilder.getTreeBuilt();
     }
+
+    @NotNull
+    public static ASTNode parseBlockExpression(PsiBuilder psiBuilder) {
+        psiBuilder.putUserData(AbstractJetParsing.PARSE_NESTED_GROUPS_EAGERLY, true);
+        JetParsing jetParsing = JetParsing.createForTopLevel(new SemanticWhitespaceAwarePsiBuilderImpl(psiBuilder));
+        jetParsing.parseBlockExpression();
+        return psiBuilder.getTreeBuilt();
+    }
+
+    @NotNull
+    public static ASTNode parseFunctionLiteralExpression(PsiBuilder psiBuilder) {
+        psiBuilder.putUserData(AbstractJetParsing.PARSE_NESTED_GROUPS_EAGERLY, true);
+        JetParsing jetParsing = JetParsing.createForTopLevel(new SemanticWhitespaceAwarePsiBuilderImpl(psiBuilder));
+        jetParsing.parseFunctionLiteralExpression();
+        return psiBuilder.getTreeBuilt();
+    }
+
+    /*
+     * Returns the type a "{...}" group gets where it is a block unless it declares parameters, e.g. in an if branch.
+     * The tree isn't built
+     */
+    @NotNull
+    public static IElementType parseBlockOrFunctionLiteral(PsiBuilder psiBuilder) {
+        JetParsing jetParsing = JetParsing.createForTopLevel(new SemanticWhitespaceAwarePsiBuilderImpl(psiBuilder));
+        return jetParsing.parseBlockOrFunctionLiteral();
+    }
 }
@@ -28,6 +28,7 @@ import com.intellij.psi.PsiFile;
 import com.intellij.psi.tree.IFileElementType;
 import com.intellij.psi.tree.TokenSet;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.JetLazyParseableNodeType;
 import org.jetbrains.jet.JetNodeType;
 import org.jetbrains.jet.lang.psi.JetFile;
 import org.jetbrains.jet.lang.psi.stubs.elements.JetStubElementType;
@@ -100,6 +101,10 @@ public class JetParserDefinition implements ParserDefinition {
             return ((JetStubElementType) astNode.getElementType()).createPsiFromAst(astNode);
         }
 
+        if (astNode.getElementType() instanceof JetLazyParseableNodeType) {
+            return ((JetLazyParseableNodeType) astNode.getElementType()).createPsi(astNode);
+        }
+
         return ((JetNodeType) astNode.getElementType()).createPsi(astNode);
     }
 
@@ -110,11 +110,37 @@ public class JetParsing extends AbstractJetParsing {
 
         myExpressionParsing.parseStatements();
 
-        blockMarker.done(BLOCK);
+        blockMarker.done(BRACELESS_BLOCK);
         scriptMarker.done(SCRIPT);
         fileMarker.done(JET_FILE);
     }
 
+    /*
+     * Contents of a lazily parsed BLOCK, see parseFunctionBody()
+     */
+    void parseBlockExpression() {
+        PsiBuilder.Marker block = mark();
+
+        parseBlockContents();
+        errorUntilEof();
+
+        block.done(BLOCK);
+    }
+
+    /*
+     * Contents of a lazily parsed FUNCTION_LITERAL_EXPRESSION, see JetExpressionParsing.parseFunctionLiteral()
+     */
+    void parseFunctionLiteralExpression() {
+        myExpressionParsing.parseFunctionLiteralExpression();
+    }
+
+    /*
+     * A "{...}" group in the position of a control structure body, see JetExpressionParsing.parseBlockOrFunctionLiteral()
+     */
+    IElementType parseBlockOrFunctionLiteral() {
+        return myExpressionParsing.parseBlockOrFunctionLiteral();
+    }
+
     /*
      * toplevelObject[| import]*
      */
@@ -830,6 +856,11 @@ public class JetParsing extends AbstractJetParsing {
                         }
                         return false;
                     }
+
+                    @Override
+                    public boolean matchesOnlyAtTopLevel() {
+                        return true;
+                    }
                 }));
 
         PsiBuilder.Marker receiver = mark();
@@ -1113,7 +1144,10 @@ public class JetParsing extends AbstractJetParsing {
      */
     private void parseFunctionBody() {
         if (at(LBRACE)) {
-            parseBlock();
+            // Function bodies are not needed to resolve declarations, so they are only parsed on demand
+            if (!collapseBalancedBraces(BLOCK)) {
+                parseBlock();
+            }
         }
         else if (at(EQ)) {
             advance(); // EQ
@@ -1133,6 +1167,12 @@ public class JetParsing extends AbstractJetParsing {
     void parseBlock() {
         PsiBuilder.Marker block = mark();
 
+        parseBlockContents();
+
+        block.done(BLOCK);
+    }
+
+    private void parseBlockContents() {
         myBuilder.enableNewlines();
         expect(LBRACE, "Expecting '{' to open a block");
 
@@ -1140,8 +1180,6 @@ public class JetParsing extends AbstractJetParsing {
 
         expect(RBRACE, "Expecting '}");
         myBuilder.restoreNewlinesState();
-
-        block.done(BLOCK);
     }
 
     /*
@@ -47,4 +47,10 @@ public class LastBefore extends AbstractTokenStreamPattern {
         previousLookForResult = lookForResult;
         return false;
     }
+
+    @Override
+    public boolean canSkipNestedGroups() {
+        // stopAt is only taken into account at top level anyway
+        return lookFor.matchesOnlyAtTopLevel();
+    }
 }
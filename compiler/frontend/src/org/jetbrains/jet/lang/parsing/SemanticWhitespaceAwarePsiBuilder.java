@@ -29,4 +29,9 @@ public interface SemanticWhitespaceAwarePsiBuilder extends PsiBuilder {
     void restoreJoiningComplexTokensState();
     void enableJoiningComplexTokens();
     void disableJoiningComplexTokens();
+
+    /**
+     * Computed once for the whole token stream
+     */
+    BracketMatchingTable getBracketMatchingTable();
 }
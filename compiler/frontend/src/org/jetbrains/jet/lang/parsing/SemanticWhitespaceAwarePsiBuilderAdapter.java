@@ -62,4 +62,9 @@ public class SemanticWhitespaceAwarePsiBuilderAdapter extends PsiBuilderAdapter
     public void disableJoiningComplexTokens() {
         myBuilder.disableJoiningComplexTokens();
     }
+
+    @Override
+    public BracketMatchingTable getBracketMatchingTable() {
+        return myBuilder.getBracketMatchingTable();
+    }
 }
@@ -35,6 +35,8 @@ public class SemanticWhitespaceAwarePsiBuilderImpl extends PsiBuilderAdapter imp
 
     private final Stack<Boolean> newlinesEnabled = new Stack<Boolean>();
 
+    private BracketMatchingTable bracketMatchingTable = null;
+
     public SemanticWhitespaceAwarePsiBuilderImpl(final PsiBuilder delegate) {
         super(delegate);
         newlinesEnabled.push(true);
@@ -113,6 +115,14 @@ public class SemanticWhitespaceAwarePsiBuilderImpl extends PsiBuilderAdapter imp
         joinComplexTokens.push(false);
     }
 
+    @Override
+    public BracketMatchingTable getBracketMatchingTable() {
+        if (bracketMatchingTable == null) {
+            bracketMatchingTable = BracketMatchingTable.build(this);
+        }
+        return bracketMatchingTable;
+    }
+
     @Override
     public IElementType getTokenType() {
         if (!joinComplexTokens()) return super.getTokenType();
@@ -45,4 +45,10 @@ public interface TokenStreamPattern {
      * @return true to stop matching, false to proceed
      */
     boolean handleUnmatchedClosing(IElementType token);
+
+    /**
+     * @return true if the result depends only on tokens at top level (as defined by default {@link #isTopLevel(int, int, int, int)})
+     * and unmatched closing brackets are not handled, so that well nested bracket groups can be jumped over
+     */
+    boolean canSkipNestedGroups();
 }
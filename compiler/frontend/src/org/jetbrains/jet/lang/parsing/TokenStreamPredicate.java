@@ -19,5 +19,10 @@ package org.jetbrains.jet.lang.parsing;
 public interface TokenStreamPredicate {
     boolean matching(boolean topLevel);
 
+    /**
+     * @return true if this predicate never matches when <code>topLevel</code> is false
+     */
+    boolean matchesOnlyAtTopLevel();
+
     TokenStreamPredicate or(TokenStreamPredicate other);
 }
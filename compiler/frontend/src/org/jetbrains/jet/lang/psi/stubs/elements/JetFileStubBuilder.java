@@ -16,10 +16,13 @@
 
 package org.jetbrains.jet.lang.psi.stubs.elements;
 
+import com.intellij.lang.ASTNode;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.stubs.DefaultStubBuilder;
 import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.tree.IElementType;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.JetNodeTypes;
 import org.jetbrains.jet.lang.psi.JetFile;
 import org.jetbrains.jet.lang.psi.stubs.impl.PsiJetFileStubImpl;
 
@@ -33,4 +36,12 @@ public class JetFileStubBuilder extends DefaultStubBuilder {
         JetFile jetFile = (JetFile) file;
         return new PsiJetFileStubImpl(jetFile, jetFile.getPackageName(), jetFile.isScript());
     }
+
+    @Override
+    public boolean skipChildProcessingWhenBuildingStubs(@NotNull ASTNode parent, @NotNull ASTNode node) {
+        // There are no stubs inside blocks and function literals (see JetStubElementType.shouldCreateStub()),
+        // so lazily parsed bodies shouldn't be expanded just to build stubs
+        IElementType type = node.getElementType();
+        return type == JetNodeTypes.BLOCK || type == JetNodeTypes.FUNCTION_LITERAL_EXPRESSION;
+    }
 }
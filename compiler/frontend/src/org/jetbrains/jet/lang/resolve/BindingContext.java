@@ -129,6 +129,11 @@ public interface BindingContext {
 
     WritableSlice<VariableDescriptor, Boolean> CAPTURED_IN_CLOSURE = Slices.createSimpleSetSlice();
 
+    /**
+     * Recursive calls of a tailRecursive function which are compiled into a jump to the beginning of the function
+     */
+    WritableSlice<JetCallExpression, Boolean> TAIL_RECURSIVE_CALL = Slices.createSimpleSetSlice();
+
     //    enum DeferredTypeKey {DEFERRED_TYPE_KEY}
     //    WritableSlice<DeferredTypeKey, Collection<DeferredType>> DEFERRED_TYPES = Slices.createSimpleSlice();
 
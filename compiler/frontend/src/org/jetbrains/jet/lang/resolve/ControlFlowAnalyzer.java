@@ -118,5 +118,7 @@ public class ControlFlowAnalyzer {
         flowInformationProvider.markUnusedVariables();
 
         flowInformationProvider.markUnusedLiteralsInBlock();
+
+        flowInformationProvider.markTailRecursiveCalls();
     }
 }
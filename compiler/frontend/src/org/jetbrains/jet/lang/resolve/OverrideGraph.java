@@ -0,0 +1,138 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.lang.resolve;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.intellij.util.Function;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.lang.descriptors.CallableDescriptor;
+import org.jetbrains.jet.lang.descriptors.PropertyDescriptor;
+
+import java.util.*;
+
+import static org.jetbrains.jet.lang.resolve.OverridingUtil.OverrideCompatibilityInfo.Result.OVERRIDABLE;
+
+/**
+ * Memoized view of the "overrides" relation between callable descriptors.
+ *
+ * The transitive closure of overridden descriptors is computed once per descriptor, so a graph must only be used
+ * while no new overrides are bound, e.g. for one call resolution, or in the checks made after all overrides are generated.
+ */
+public class OverrideGraph {
+    // original descriptor -> originals of all descriptors it overrides, directly or not
+    private final Map<CallableDescriptor, Set<CallableDescriptor>> overriddenClosure = Maps.newHashMap();
+
+    @NotNull
+    public Set<CallableDescriptor> getAllOverriddenOriginals(@NotNull CallableDescriptor descriptor) {
+        CallableDescriptor original = descriptor.getOriginal();
+        Set<CallableDescriptor> result = overriddenClosure.get(original);
+        if (result != null) return result;
+
+        result = Sets.newHashSet();
+        // Registered before the recursion, so that a cycle in a broken hierarchy can't loop forever
+        overriddenClosure.put(original, result);
+        for (CallableDescriptor overridden : original.getOverriddenDescriptors()) {
+            CallableDescriptor overriddenOriginal = overridden.getOriginal();
+            if (result.add(overriddenOriginal)) {
+                result.addAll(getAllOverriddenOriginals(overriddenOriginal));
+            }
+        }
+        return result;
+    }
+
+    public boolean overrides(@NotNull CallableDescriptor f, @NotNull CallableDescriptor g) {
+        return getAllOverriddenOriginals(f).contains(g.getOriginal());
+    }
+
+    /**
+     * Same as {@link OverridingUtil#filterOverrides(Set, Function)}, but each candidate's closure is looked up once
+     * instead of being compared with every other candidate, and only candidates with the same original are checked for overridability.
+     */
+    @NotNull
+    public <D> Set<D> filterOverrides(@NotNull Set<D> candidateSet, @NotNull Function<? super D, ? extends CallableDescriptor> transform) {
+        if (candidateSet.size() <= 1) return Sets.newLinkedHashSet(candidateSet);
+
+        // original -> candidates overriding it
+        Map<CallableDescriptor, Set<CallableDescriptor>> overriders = Maps.newHashMap();
+        for (D candidateD : candidateSet) {
+            CallableDescriptor candidate = transform.fun(candidateD);
+            for (CallableDescriptor overridden : getAllOverriddenOriginals(candidate)) {
+                Set<CallableDescriptor> set = overriders.get(overridden);
+                if (set == null) {
+                    set = Sets.newHashSet();
+                    overriders.put(overridden, set);
+                }
+                set.add(candidate);
+            }
+        }
+
+        Set<D> candidates = Sets.newLinkedHashSet();
+        Map<CallableDescriptor, List<CallableDescriptor>> acceptedByOriginal = Maps.newHashMap();
+        outerLoop:
+        for (D meD : candidateSet) {
+            CallableDescriptor me = transform.fun(meD);
+
+            Set<CallableDescriptor> overridersOfMe = overriders.get(me.getOriginal());
+            if (overridersOfMe != null && (overridersOfMe.size() > 1 || !overridersOfMe.contains(me))) {
+                continue;
+            }
+
+            List<CallableDescriptor> sameOriginal = acceptedByOriginal.get(me.getOriginal());
+            if (sameOriginal == null) {
+                sameOriginal = Lists.newArrayList();
+                acceptedByOriginal.put(me.getOriginal(), sameOriginal);
+            }
+            for (CallableDescriptor other : sameOriginal) {
+                if (OverridingUtil.isOverridableBy(other, me).getResult() == OVERRIDABLE
+                    && OverridingUtil.isOverridableBy(me, other).getResult() == OVERRIDABLE) {
+                    continue outerLoop;
+                }
+            }
+
+            sameOriginal.add(me);
+            candidates.add(meD);
+        }
+        return candidates;
+    }
+
+    /**
+     * Descriptors with different keys are never overridable by one another (see {@link OverridingUtil#isOverridableBy}),
+     * so only members with equal keys need to be compared.
+     */
+    @NotNull
+    public static Object getSignatureKey(@NotNull CallableDescriptor descriptor) {
+        int parameterCount = descriptor.getValueParameters().size() + (descriptor.getReceiverParameter() != null ? 1 : 0);
+        return Arrays.asList(descriptor.getName(), descriptor instanceof PropertyDescriptor, parameterCount);
+    }
+
+    @NotNull
+    public static <D extends CallableDescriptor> Map<Object, List<D>> groupBySignatureKey(@NotNull Collection<? extends D> descriptors) {
+        Map<Object, List<D>> result = Maps.newLinkedHashMap();
+        for (D descriptor : descriptors) {
+            Object key = getSignatureKey(descriptor);
+            List<D> bucket = result.get(key);
+            if (bucket == null) {
+                bucket = Lists.newArrayList();
+                result.put(key, bucket);
+            }
+            bucket.add(descriptor);
+        }
+        return result;
+    }
+}
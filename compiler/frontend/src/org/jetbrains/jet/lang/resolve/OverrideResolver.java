@@ -20,6 +20,7 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.*;
 import com.intellij.lang.ASTNode;
 import com.intellij.psi.PsiElement;
+import com.intellij.util.Function;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.containers.LinkedMultiMap;
 import com.intellij.util.containers.MultiMap;
@@ -191,9 +192,14 @@ public class OverrideResolver {
     ) {
         Collection<CallableMemberDescriptor> notOverridden = Sets.newLinkedHashSet(membersFromSupertypes);
 
+        Map<Object, List<CallableMemberDescriptor>> fromSupertypesBySignature =
+                OverrideGraph.<CallableMemberDescriptor>groupBySignatureKey(membersFromSupertypes);
         for (CallableMemberDescriptor fromCurrent : membersFromCurrent) {
+            List<CallableMemberDescriptor> sameSignature = fromSupertypesBySignature.get(OverrideGraph.getSignatureKey(fromCurrent));
+            if (sameSignature == null) continue;
+
             Collection<CallableMemberDescriptor> bound =
-                    extractAndBindOverridesForMember(fromCurrent, membersFromSupertypes, current, sink);
+                    extractAndBindOverridesForMember(fromCurrent, sameSignature, current, sink);
             notOverridden.removeAll(bound);
         }
 
@@ -237,10 +243,16 @@ public class OverrideResolver {
             @NotNull Collection<CallableMemberDescriptor> notOverridden,
             @NotNull DescriptorSink sink
     ) {
+        Map<CallableMemberDescriptor, Object> signatureKeys = Maps.newHashMap();
+        for (CallableMemberDescriptor descriptor : notOverridden) {
+            signatureKeys.put(descriptor, OverrideGraph.getSignatureKey(descriptor));
+        }
+
         Queue<CallableMemberDescriptor> fromSuperQueue = new LinkedList<CallableMemberDescriptor>(notOverridden);
         while (!fromSuperQueue.isEmpty()) {
             CallableMemberDescriptor notOverriddenFromSuper = findMemberWithMaxVisibility(fromSuperQueue);
-            Collection<CallableMemberDescriptor> overridables = extractMembersOverridableBy(notOverriddenFromSuper, fromSuperQueue, sink);
+            Collection<CallableMemberDescriptor> overridables =
+                    extractMembersOverridableBy(notOverriddenFromSuper, fromSuperQueue, signatureKeys, sink);
             createAndBindFakeOverride(notOverriddenFromSuper, overridables, current, sink);
         }
     }
@@ -304,16 +316,19 @@ public class OverrideResolver {
     private static Collection<CallableMemberDescriptor> extractMembersOverridableBy(
             @NotNull CallableMemberDescriptor overrider,
             @NotNull Queue<CallableMemberDescriptor> extractFrom,
+            @NotNull Map<CallableMemberDescriptor, Object> signatureKeys,
             @NotNull DescriptorSink sink
     ) {
         Collection<CallableMemberDescriptor> overridable = Lists.newArrayList();
         overridable.add(overrider);
+        Object overriderKey = signatureKeys.get(overrider);
         for (Iterator<CallableMemberDescriptor> iterator = extractFrom.iterator(); iterator.hasNext(); ) {
             CallableMemberDescriptor candidate = iterator.next();
             if (overrider == candidate) {
                 iterator.remove();
                 continue;
             }
+            if (!overriderKey.equals(signatureKeys.get(candidate))) continue;
 
             OverridingUtil.OverrideCompatibilityInfo.Result result =
                     OverridingUtil.isOverridableBy(candidate, overrider).getResult();
@@ -361,15 +376,21 @@ public class OverrideResolver {
     }
 
     private void checkOverrides() {
+        // All overrides are bound by now, so the graph stays valid for the whole check
+        OverrideGraph overrideGraph = new OverrideGraph();
         for (Map.Entry<JetClass, MutableClassDescriptor> entry : context.getClasses().entrySet()) {
-            checkOverridesInAClass(entry.getValue(), entry.getKey());
+            checkOverridesInAClass(entry.getValue(), entry.getKey(), overrideGraph);
         }
         for (Map.Entry<JetObjectDeclaration, MutableClassDescriptor> entry : context.getObjects().entrySet()) {
-            checkOverridesInAClass(entry.getValue(), entry.getKey());
+            checkOverridesInAClass(entry.getValue(), entry.getKey(), overrideGraph);
         }
     }
 
-    protected void checkOverridesInAClass(@NotNull MutableClassDescriptor classDescriptor, @NotNull JetClassOrObject klass) {
+    protected void checkOverridesInAClass(
+            @NotNull MutableClassDescriptor classDescriptor,
+            @NotNull JetClassOrObject klass,
+            @NotNull OverrideGraph overrideGraph
+    ) {
         if (topDownAnalysisParameters.isAnalyzingBootstrapLibrary()) return;
 
         // Check overrides for internal consistency
@@ -381,7 +402,7 @@ public class OverrideResolver {
         // More than one implementation or no implementations at all
         Set<CallableMemberDescriptor> abstractNoImpl = Sets.newLinkedHashSet();
         Set<CallableMemberDescriptor> manyImpl = Sets.newLinkedHashSet();
-        collectMissingImplementations(classDescriptor, abstractNoImpl, manyImpl);
+        collectMissingImplementations(classDescriptor, abstractNoImpl, manyImpl, overrideGraph);
 
         PsiElement nameIdentifier = null;
         if (klass instanceof JetClass) {
@@ -412,15 +433,25 @@ public class OverrideResolver {
     }
 
     public static void collectMissingImplementations(MutableClassDescriptor classDescriptor, Set<CallableMemberDescriptor> abstractNoImpl, Set<CallableMemberDescriptor> manyImpl) {
+        collectMissingImplementations(classDescriptor, abstractNoImpl, manyImpl, new OverrideGraph());
+    }
+
+    private static void collectMissingImplementations(
+            @NotNull MutableClassDescriptor classDescriptor,
+            @NotNull Set<CallableMemberDescriptor> abstractNoImpl,
+            @NotNull Set<CallableMemberDescriptor> manyImpl,
+            @NotNull OverrideGraph overrideGraph
+    ) {
         for (CallableMemberDescriptor descriptor : classDescriptor.getAllCallableMembers()) {
-            collectMissingImplementations(descriptor, abstractNoImpl, manyImpl);
+            collectMissingImplementations(descriptor, abstractNoImpl, manyImpl, overrideGraph);
         }
     }
 
     private static void collectMissingImplementations(
             @NotNull CallableMemberDescriptor descriptor,
             @NotNull Set<CallableMemberDescriptor> abstractNoImpl,
-            @NotNull Set<CallableMemberDescriptor> manyImpl
+            @NotNull Set<CallableMemberDescriptor> manyImpl,
+            @NotNull OverrideGraph overrideGraph
     ) {
         if (descriptor.getKind().isReal()) return;
         if (descriptor.getVisibility() == Visibilities.INVISIBLE_FAKE) return;
@@ -433,10 +464,11 @@ public class OverrideResolver {
         // collects map from the directly overridden descriptor to the set of declarations:
         // -- if directly overridden is not fake, the set consists of one element: this directly overridden
         // -- if it's fake, overridden declarations (non-fake) of this descriptor are collected
-        Map<CallableMemberDescriptor, Set<CallableMemberDescriptor>> overriddenDeclarationsByDirectParent = collectOverriddenDeclarations(directOverridden);
+        Map<CallableMemberDescriptor, Set<CallableMemberDescriptor>> overriddenDeclarationsByDirectParent = collectOverriddenDeclarations(directOverridden, overrideGraph);
 
         List<CallableMemberDescriptor> allOverriddenDeclarations = ContainerUtil.flatten(overriddenDeclarationsByDirectParent.values());
-        Set<CallableMemberDescriptor> allFilteredOverriddenDeclarations = OverridingUtil.filterOverrides(Sets.newLinkedHashSet(allOverriddenDeclarations));
+        Set<CallableMemberDescriptor> allFilteredOverriddenDeclarations =
+                overrideGraph.filterOverrides(Sets.newLinkedHashSet(allOverriddenDeclarations), Function.ID);
 
         Set<CallableMemberDescriptor> relevantDirectlyOverridden =
                 getRelevantDirectlyOverridden(overriddenDeclarationsByDirectParent, allFilteredOverriddenDeclarations);
@@ -535,12 +567,14 @@ public class OverrideResolver {
 
     @NotNull
     private static Map<CallableMemberDescriptor, Set<CallableMemberDescriptor>> collectOverriddenDeclarations(
-            @NotNull Collection<? extends CallableMemberDescriptor> directOverriddenDescriptors
+            @NotNull Collection<? extends CallableMemberDescriptor> directOverriddenDescriptors,
+            @NotNull OverrideGraph overrideGraph
     ) {
         Map<CallableMemberDescriptor, Set<CallableMemberDescriptor>> overriddenDeclarationsByDirectParent = Maps.newLinkedHashMap();
         for (CallableMemberDescriptor descriptor : directOverriddenDescriptors) {
             Collection<CallableMemberDescriptor> overriddenDeclarations = OverridingUtil.getOverriddenDeclarations(descriptor);
-            Set<CallableMemberDescriptor> filteredOverrides = OverridingUtil.filterOverrides(Sets.newLinkedHashSet(overriddenDeclarations));
+            Set<CallableMemberDescriptor> filteredOverrides =
+                    overrideGraph.filterOverrides(Sets.newLinkedHashSet(overriddenDeclarations), Function.ID);
             Set<CallableMemberDescriptor> overridden = Sets.newLinkedHashSet();
             for (CallableMemberDescriptor memberDescriptor : filteredOverrides) {
                 overridden.add(memberDescriptor);
@@ -566,9 +600,10 @@ public class OverrideResolver {
 
         // Group members with "the same" signature
         Multimap<CallableMemberDescriptor, CallableMemberDescriptor> factoredMembers = CommonSuppliers.newLinkedHashSetHashSetMultimap();
+        Map<Object, List<CallableMemberDescriptor>> membersBySignature = OverrideGraph.groupBySignatureKey(filteredMembers);
         for (CallableMemberDescriptor one : filteredMembers) {
             if (factoredMembers.values().contains(one)) continue;
-            for (CallableMemberDescriptor another : filteredMembers) {
+            for (CallableMemberDescriptor another : membersBySignature.get(OverrideGraph.getSignatureKey(one))) {
 //                if (one == another) continue;
                 factoredMembers.put(one, one);
                 if (OverridingUtil.isOverridableBy(one, another).getResult() == OVERRIDABLE
@@ -19,7 +19,6 @@ package org.jetbrains.jet.lang.resolve;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.intellij.util.Function;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.jet.lang.descriptors.*;
@@ -38,53 +37,11 @@ public class OverridingUtil {
     }
 
     public static <D> Set<D> filterOverrides(Set<D> candidateSet, Function<? super D, ? extends CallableDescriptor> transform) {
-        Set<D> candidates = Sets.newLinkedHashSet();
-        outerLoop:
-        for (D meD : candidateSet) {
-            CallableDescriptor me = transform.fun(meD);
-            for (D otherD : candidateSet) {
-                CallableDescriptor other = transform.fun(otherD);
-                if (me == other) continue;
-                if (overrides(other, me)) {
-                    continue outerLoop;
-                }
-            }
-            for (D otherD : candidates) {
-                CallableDescriptor other = transform.fun(otherD);
-                if (me.getOriginal() == other.getOriginal()
-                    && isOverridableBy(other, me).getResult() == OverrideCompatibilityInfo.Result.OVERRIDABLE
-                    && isOverridableBy(me, other).getResult() == OverrideCompatibilityInfo.Result.OVERRIDABLE) {
-                    continue outerLoop;
-                }
-            }
-//            System.out.println(me);
-            candidates.add(meD);
-        }
-//        Set<D> candidates = Sets.newLinkedHashSet(candidateSet);
-//        for (D descriptor : candidateSet) {
-//            Set<CallableDescriptor> overriddenDescriptors = Sets.newHashSet();
-//            getAllOverriddenDescriptors(descriptor.getOriginal(), overriddenDescriptors);
-//            candidates.removeAll(overriddenDescriptors);
-//        }
-        return candidates;
+        return new OverrideGraph().filterOverrides(candidateSet, transform);
     }
 
     public static <Descriptor extends CallableDescriptor> boolean overrides(@NotNull Descriptor f, @NotNull Descriptor g) {
-        Set<CallableDescriptor> overriddenDescriptors = Sets.newHashSet();
-        getAllOverriddenDescriptors(f.getOriginal(), overriddenDescriptors);
-        CallableDescriptor originalG = g.getOriginal();
-        for (CallableDescriptor overriddenFunction : overriddenDescriptors) {
-            if (originalG.equals(overriddenFunction.getOriginal())) return true;
-        }
-        return false;
-    }
-
-    private static void getAllOverriddenDescriptors(@NotNull CallableDescriptor current, @NotNull Set<CallableDescriptor> overriddenDescriptors) {
-        if (overriddenDescriptors.contains(current)) return;
-        for (CallableDescriptor descriptor : current.getOriginal().getOverriddenDescriptors()) {
-            getAllOverriddenDescriptors(descriptor, overriddenDescriptors);
-            overriddenDescriptors.add(descriptor);
-        }
+        return new OverrideGraph().overrides(f, g);
     }
 
     @NotNull
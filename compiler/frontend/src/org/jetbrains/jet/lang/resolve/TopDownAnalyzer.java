@@ -32,6 +32,8 @@ import org.jetbrains.jet.lang.resolve.name.Name;
 import org.jetbrains.jet.lang.resolve.scopes.JetScope;
 import org.jetbrains.jet.lang.resolve.scopes.WritableScope;
 import org.jetbrains.jet.lang.resolve.scopes.WritableScopeImpl;
+import org.jetbrains.jet.lang.types.TypeInterner;
+import org.jetbrains.jet.lang.types.checker.SubtypingCache;
 import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns;
 
 import javax.inject.Inject;
@@ -119,16 +121,30 @@ public class TopDownAnalyzer {
 //        context.enableDebugOutput();
         context.debug("Enter");
 
-        typeHierarchyResolver.process(outerScope, owner, declarations);
-        declarationResolver.process(outerScope);
-        overrideResolver.process();
+        // Subtype checks are memoized and ground types are interned until the analysis is over,
+        // nested analyses of local classes share the memo and the interned types
+        boolean subtypingSessionStarted = SubtypingCache.startSession();
+        boolean interningSessionStarted = TypeInterner.startSession();
+        try {
+            typeHierarchyResolver.process(outerScope, owner, declarations);
+            declarationResolver.process(outerScope);
+            overrideResolver.process();
 
-        lockScopes();
+            lockScopes();
 
-        overloadResolver.process();
+            overloadResolver.process();
 
-        if (!topDownAnalysisParameters.isAnalyzingBootstrapLibrary()) {
-            bodyResolver.resolveBodies();
+            if (!topDownAnalysisParameters.isAnalyzingBootstrapLibrary()) {
+                bodyResolver.resolveBodies();
+            }
+        }
+        finally {
+            if (interningSessionStarted) {
+                TypeInterner.finishSession();
+            }
+            if (subtypingSessionStarted) {
+                SubtypingCache.finishSession();
+            }
         }
 
         context.debug("Exit");
@@ -140,7 +140,10 @@ public class TypeHierarchyResolver {
         // Detect and disconnect all loops in the hierarchy
         detectAndDisconnectLoops();
 
-        // At this point, there are no loops in the type hierarchy
+        // At this point, there are no loops in the type hierarchy, and no supertypes will change
+        for (MutableClassDescriptorLite klass : context.getClassesTopologicalOrder()) {
+            klass.lockSupertypes();
+        }
 
         checkSupertypesForConsistency();
         //        computeSuperclasses();
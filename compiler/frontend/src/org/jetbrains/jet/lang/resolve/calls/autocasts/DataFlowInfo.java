@@ -16,15 +16,15 @@
 
 package org.jetbrains.jet.lang.resolve.calls.autocasts;
 
-import com.google.common.collect.ImmutableMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.jet.lang.types.JetType;
+import org.jetbrains.jet.util.HashTrieMap;
 
 import java.util.Set;
 
 public interface DataFlowInfo {
-    DataFlowInfo EMPTY = new DelegatingDataFlowInfo(null, ImmutableMap.<DataFlowValue, Nullability>of(),
-                                                    DelegatingDataFlowInfo.newTypeInfo());
+    DataFlowInfo EMPTY = new PersistentDataFlowInfo(HashTrieMap.<DataFlowValue, Nullability>empty(),
+                                                    HashTrieMap.<DataFlowValue, Set<JetType>>empty());
 
     @NotNull
     Nullability getNullability(@NotNull DataFlowValue key);
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.lang.resolve.calls.autocasts;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.types.JetType;
+import org.jetbrains.jet.lang.types.TypeUtils;
+import org.jetbrains.jet.util.HashTrieMap;
+
+import java.util.Set;
+
+import static org.jetbrains.jet.lang.resolve.calls.autocasts.Nullability.NOT_NULL;
+
+/**
+ * Holds all the facts in persistent maps: a derived info shares everything it didn't change with the original one,
+ * and lookups never walk a chain of infos. Infos of branches are joined by merging the maps node by node,
+ * so the facts the branches inherited unchanged are not looked at.
+ */
+/* package */ class PersistentDataFlowInfo implements DataFlowInfo {
+    private static final HashTrieMap.Merger<DataFlowValue, Nullability> NULLABILITY_AND = new HashTrieMap.Merger<DataFlowValue, Nullability>() {
+        @NotNull
+        @Override
+        public Nullability merge(@NotNull DataFlowValue key, @NotNull Nullability value, @NotNull Nullability otherValue) {
+            return value.and(otherValue);
+        }
+    };
+
+    private static final HashTrieMap.Merger<DataFlowValue, Nullability> NULLABILITY_OR = new HashTrieMap.Merger<DataFlowValue, Nullability>() {
+        @NotNull
+        @Override
+        public Nullability merge(@NotNull DataFlowValue key, @NotNull Nullability value, @NotNull Nullability otherValue) {
+            return value.or(otherValue);
+        }
+    };
+
+    private static final HashTrieMap.Merger<DataFlowValue, Set<JetType>> TYPES_AND = new HashTrieMap.Merger<DataFlowValue, Set<JetType>>() {
+        @NotNull
+        @Override
+        public Set<JetType> merge(@NotNull DataFlowValue key, @NotNull Set<JetType> types, @NotNull Set<JetType> otherTypes) {
+            if (types.containsAll(otherTypes)) return types;
+            if (otherTypes.containsAll(types)) return otherTypes;
+            return ImmutableSet.copyOf(Sets.union(types, otherTypes));
+        }
+    };
+
+    private static final HashTrieMap.Merger<DataFlowValue, Set<JetType>> TYPES_OR = new HashTrieMap.Merger<DataFlowValue, Set<JetType>>() {
+        @Nullable
+        @Override
+        public Set<JetType> merge(@NotNull DataFlowValue key, @NotNull Set<JetType> types, @NotNull Set<JetType> otherTypes) {
+            if (otherTypes.containsAll(types)) return types;
+            if (types.containsAll(otherTypes)) return otherTypes;
+            Set<JetType> intersection = Sets.intersection(types, otherTypes);
+            return intersection.isEmpty() ? null : ImmutableSet.copyOf(intersection);
+        }
+    };
+
+    @NotNull
+    private final HashTrieMap<DataFlowValue, Nullability> nullabilityInfo;
+
+    /** Sets of types are immutable */
+    @NotNull
+    private final HashTrieMap<DataFlowValue, Set<JetType>> typeInfo;
+
+    /* package */ PersistentDataFlowInfo(
+            @NotNull HashTrieMap<DataFlowValue, Nullability> nullabilityInfo,
+            @NotNull HashTrieMap<DataFlowValue, Set<JetType>> typeInfo
+    ) {
+        this.nullabilityInfo = nullabilityInfo;
+        this.typeInfo = typeInfo;
+    }
+
+    @Override
+    @NotNull
+    public Nullability getNullability(@NotNull DataFlowValue key) {
+        if (!key.isStableIdentifier()) return key.getImmanentNullability();
+        Nullability nullability = nullabilityInfo.get(key);
+        return nullability != null ? nullability : key.getImmanentNullability();
+    }
+
+    @NotNull
+    private HashTrieMap<DataFlowValue, Nullability> putNullability(
+            @NotNull HashTrieMap<DataFlowValue, Nullability> map,
+            @NotNull DataFlowValue value,
+            @NotNull Nullability nullability
+    ) {
+        if (!value.isStableIdentifier() || nullability == getNullability(value)) return map;
+        return map.plus(value, nullability);
+    }
+
+    @NotNull
+    private Set<JetType> getTypes(@NotNull DataFlowValue key) {
+        Set<JetType> types = typeInfo.get(key);
+        return types != null ? types : ImmutableSet.<JetType>of();
+    }
+
+    @Override
+    @NotNull
+    public Set<JetType> getPossibleTypes(@NotNull DataFlowValue key) {
+        Set<JetType> types = getTypes(key);
+        if (getNullability(key).canBeNull()) {
+            return types;
+        }
+
+        Set<JetType> enrichedTypes = Sets.newLinkedHashSetWithExpectedSize(types.size() + 1);
+        JetType originalType = key.getType();
+        if (originalType.isNullable()) {
+            enrichedTypes.add(TypeUtils.makeNotNullable(originalType));
+        }
+        for (JetType type : types) {
+            enrichedTypes.add(TypeUtils.makeNotNullable(type));
+        }
+        return enrichedTypes;
+    }
+
+    @Override
+    @NotNull
+    public DataFlowInfo equate(@NotNull DataFlowValue a, @NotNull DataFlowValue b) {
+        Nullability nullabilityOfA = getNullability(a);
+        Nullability nullabilityOfB = getNullability(b);
+
+        HashTrieMap<DataFlowValue, Nullability> newNullabilityInfo = nullabilityInfo;
+        newNullabilityInfo = putNullability(newNullabilityInfo, a, nullabilityOfA.refine(nullabilityOfB));
+        newNullabilityInfo = putNullability(newNullabilityInfo, b, nullabilityOfB.refine(nullabilityOfA));
+        return create(newNullabilityInfo, typeInfo);
+    }
+
+    @Override
+    @NotNull
+    public DataFlowInfo disequate(@NotNull DataFlowValue a, @NotNull DataFlowValue b) {
+        Nullability nullabilityOfA = getNullability(a);
+        Nullability nullabilityOfB = getNullability(b);
+
+        HashTrieMap<DataFlowValue, Nullability> newNullabilityInfo = nullabilityInfo;
+        newNullabilityInfo = putNullability(newNullabilityInfo, a, nullabilityOfA.refine(nullabilityOfB.invert()));
+        newNullabilityInfo = putNullability(newNullabilityInfo, b, nullabilityOfB.refine(nullabilityOfA.invert()));
+        return create(newNullabilityInfo, typeInfo);
+    }
+
+    @Override
+    @NotNull
+    public DataFlowInfo establishSubtyping(@NotNull DataFlowValue value, @NotNull JetType type) {
+        if (value.getType().equals(type)) return this;
+        if (getPossibleTypes(value).contains(type)) return this;
+
+        HashTrieMap<DataFlowValue, Nullability> newNullabilityInfo =
+                type.isNullable() ? nullabilityInfo : putNullability(nullabilityInfo, value, NOT_NULL);
+        Set<JetType> newTypes = ImmutableSet.<JetType>builder().addAll(getTypes(value)).add(type).build();
+        return create(newNullabilityInfo, typeInfo.plus(value, newTypes));
+    }
+
+    @NotNull
+    @Override
+    public DataFlowInfo and(@NotNull DataFlowInfo otherInfo) {
+        if (otherInfo == EMPTY) return this;
+        if (this == EMPTY) return otherInfo;
+        if (this == otherInfo) return this;
+
+        assert otherInfo instanceof PersistentDataFlowInfo : "Unknown DataFlowInfo type: " + otherInfo;
+        PersistentDataFlowInfo other = (PersistentDataFlowInfo) otherInfo;
+
+        // A value known on one side only keeps its facts: a stored nullability refines the immanent one of the value
+        HashTrieMap<DataFlowValue, Nullability> newNullabilityInfo = nullabilityInfo.union(other.nullabilityInfo, NULLABILITY_AND);
+        HashTrieMap<DataFlowValue, Set<JetType>> newTypeInfo = typeInfo.union(other.typeInfo, TYPES_AND);
+        if (newNullabilityInfo == other.nullabilityInfo && newTypeInfo == other.typeInfo) return other;
+        return create(newNullabilityInfo, newTypeInfo);
+    }
+
+    @NotNull
+    @Override
+    public DataFlowInfo or(@NotNull DataFlowInfo otherInfo) {
+        if (otherInfo == EMPTY) return EMPTY;
+        if (this == EMPTY) return EMPTY;
+        if (this == otherInfo) return this;
+
+        assert otherInfo instanceof PersistentDataFlowInfo : "Unknown DataFlowInfo type: " + otherInfo;
+        PersistentDataFlowInfo other = (PersistentDataFlowInfo) otherInfo;
+
+        // A value known on one side only loses its facts: the immanent nullability of a stable value is UNKNOWN or NOT_NULL,
+        // and 'or' of it with a refinement of it is the immanent nullability itself
+        HashTrieMap<DataFlowValue, Nullability> newNullabilityInfo = nullabilityInfo.intersection(other.nullabilityInfo, NULLABILITY_OR);
+        HashTrieMap<DataFlowValue, Set<JetType>> newTypeInfo = typeInfo.intersection(other.typeInfo, TYPES_OR);
+
+        if (newNullabilityInfo.isEmpty() && newTypeInfo.isEmpty()) {
+            return EMPTY;
+        }
+        if (newNullabilityInfo == other.nullabilityInfo && newTypeInfo == other.typeInfo) return other;
+        return create(newNullabilityInfo, newTypeInfo);
+    }
+
+    @NotNull
+    private DataFlowInfo create(
+            @NotNull HashTrieMap<DataFlowValue, Nullability> newNullabilityInfo,
+            @NotNull HashTrieMap<DataFlowValue, Set<JetType>> newTypeInfo
+    ) {
+        if (newNullabilityInfo == nullabilityInfo && newTypeInfo == typeInfo) return this;
+        return new PersistentDataFlowInfo(newNullabilityInfo, newTypeInfo);
+    }
+
+    @Override
+    public boolean hasTypeInfoConstraints() {
+        return !typeInfo.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        if (typeInfo.isEmpty() && nullabilityInfo.isEmpty()) {
+            return "EMPTY";
+        }
+        return "Non-trivial DataFlowInfo";
+    }
+}
@@ -39,7 +39,6 @@ import static org.jetbrains.jet.lang.resolve.calls.inference.TypeConstraintsImpl
 import static org.jetbrains.jet.lang.types.Variance.*;
 
 public class ConstraintSystemImpl implements ConstraintSystem {
-
     private final Map<TypeParameterDescriptor, TypeConstraintsImpl> typeParameterConstraints = Maps.newLinkedHashMap();
     private final Set<ConstraintPosition> errorConstraintPositions = Sets.newHashSet();
     private final TypeSubstitutor resultingSubstitutor;
@@ -108,6 +107,9 @@ public class ConstraintSystemImpl implements ConstraintSystem {
         typeParameterConstraints.put(typeVariable, new TypeConstraintsImpl(positionVariance));
     }
 
+    /**
+     * Constraints are shared with the copy until either system adds a bound for the corresponding type variable
+     */
     @Override
     @NotNull
     public ConstraintSystem copy() {
@@ -115,7 +117,8 @@ public class ConstraintSystemImpl implements ConstraintSystem {
         for (Map.Entry<TypeParameterDescriptor, TypeConstraintsImpl> entry : typeParameterConstraints.entrySet()) {
             TypeParameterDescriptor typeParameter = entry.getKey();
             TypeConstraintsImpl typeConstraints = entry.getValue();
-            newConstraintSystem.typeParameterConstraints.put(typeParameter, typeConstraints.copy());
+            typeConstraints.markShared();
+            newConstraintSystem.typeParameterConstraints.put(typeParameter, typeConstraints);
         }
         newConstraintSystem.errorConstraintPositions.addAll(errorConstraintPositions);
         newConstraintSystem.hasErrorInConstrainingTypes = hasErrorInConstrainingTypes;
@@ -131,6 +134,7 @@ public class ConstraintSystemImpl implements ConstraintSystem {
 
             TypeParameterDescriptor newTypeParameter = typeVariablesMap.apply(typeParameter);
             assert newTypeParameter != null;
+            typeConstraints.markShared();
             newConstraintSystem.typeParameterConstraints.put(newTypeParameter, typeConstraints);
         }
         newConstraintSystem.errorConstraintPositions.addAll(errorConstraintPositions);
@@ -209,6 +213,10 @@ public class ConstraintSystemImpl implements ConstraintSystem {
                 if (subjectType.isNullable() && constrainingType.isNullable()) {
                     constrainingType = TypeUtils.makeNotNullable(constrainingType);
                 }
+                if (typeConstraints.isShared()) {
+                    typeConstraints = typeConstraints.copy();
+                    typeParameterConstraints.put(typeParameter, typeConstraints);
+                }
                 typeConstraints.addBound(constraintKind, constrainingType);
                 return;
             }
@@ -31,6 +31,14 @@ public class ConstraintsUtil {
 
     @NotNull
     public static Set<JetType> getValues(@Nullable TypeConstraints typeConstraints) {
+        if (typeConstraints instanceof TypeConstraintsImpl) {
+            return ((TypeConstraintsImpl) typeConstraints).getValues();
+        }
+        return computeValues(typeConstraints);
+    }
+
+    @NotNull
+    /*package*/ static Set<JetType> computeValues(@Nullable TypeConstraints typeConstraints) {
         Set<JetType> values = Sets.newLinkedHashSet();
         if (typeConstraints != null && !typeConstraints.isEmpty()) {
             if (typeConstraints.getExactBounds().size() == 1) {
@@ -21,14 +21,23 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.jet.lang.types.JetType;
 import org.jetbrains.jet.lang.types.Variance;
 
+import java.util.Collections;
 import java.util.Set;
 
+/**
+ * Once {@link #markShared shared} between several constraint systems, constraints must not be changed anymore:
+ * a system that needs to add a bound to shared constraints works with a {@link #copy} instead.
+ */
 public class TypeConstraintsImpl implements TypeConstraints {
     private final Variance varianceOfPosition;
     private final Set<JetType> upperBounds = Sets.newLinkedHashSet();
     private final Set<JetType> lowerBounds = Sets.newLinkedHashSet();
     private final Set<JetType> exactBounds = Sets.newLinkedHashSet();
 
+    private boolean shared = false;
+    // ConstraintsUtil.computeValues() result, reset when a bound is added
+    private Set<JetType> values = null;
+
     public TypeConstraintsImpl(Variance varianceOfPosition) {
         this.varianceOfPosition = varianceOfPosition;
     }
@@ -40,6 +49,8 @@ public class TypeConstraintsImpl implements TypeConstraints {
     }
 
     public void addBound(@NotNull ConstraintKind constraintKind, @NotNull JetType type) {
+        assert !shared : "Shared constraints can't be changed";
+        values = null;
         switch (constraintKind) {
             case SUB_TYPE:
                 lowerBounds.add(type);
@@ -60,19 +71,35 @@ public class TypeConstraintsImpl implements TypeConstraints {
     @NotNull
     @Override
     public Set<JetType> getLowerBounds() {
-        return lowerBounds;
+        return Collections.unmodifiableSet(lowerBounds);
     }
 
     @NotNull
     @Override
     public Set<JetType> getUpperBounds() {
-        return upperBounds;
+        return Collections.unmodifiableSet(upperBounds);
     }
 
     @NotNull
     @Override
     public Set<JetType> getExactBounds() {
-        return exactBounds;
+        return Collections.unmodifiableSet(exactBounds);
+    }
+
+    @NotNull
+    /*package*/ Set<JetType> getValues() {
+        if (values == null) {
+            values = Collections.unmodifiableSet(ConstraintsUtil.computeValues(this));
+        }
+        return values;
+    }
+
+    /*package*/ boolean isShared() {
+        return shared;
+    }
+
+    /*package*/ void markShared() {
+        shared = true;
     }
 
     /*package*/ TypeConstraintsImpl copy() {
@@ -86,6 +113,7 @@ public class TypeConstraintsImpl implements TypeConstraints {
         for (JetType exactBound : exactBounds) {
             typeConstraints.exactBounds.add(exactBound);
         }
+        typeConstraints.values = values;
         return typeConstraints;
     }
 
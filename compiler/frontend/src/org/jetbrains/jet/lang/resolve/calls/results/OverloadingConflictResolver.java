@@ -25,7 +25,7 @@ import org.jetbrains.jet.lang.descriptors.ReceiverParameterDescriptor;
 import org.jetbrains.jet.lang.descriptors.ScriptDescriptor;
 import org.jetbrains.jet.lang.descriptors.ValueParameterDescriptor;
 import org.jetbrains.jet.lang.resolve.DescriptorUtils;
-import org.jetbrains.jet.lang.resolve.OverridingUtil;
+import org.jetbrains.jet.lang.resolve.OverrideGraph;
 import org.jetbrains.jet.lang.resolve.calls.model.ResolvedCallWithTrace;
 import org.jetbrains.jet.lang.types.JetType;
 import org.jetbrains.jet.lang.types.TypeUtils;
@@ -58,13 +58,14 @@ public class OverloadingConflictResolver {
                         return object == null ? 0 : object.getResultingDescriptor().hashCode();
                     }
                 });
+        OverrideGraph overrideGraph = new OverrideGraph();
         meLoop:
         for (ResolvedCallWithTrace<D> candidateCall : candidates) {
             D me = candidateCall.getResultingDescriptor();
             for (ResolvedCallWithTrace<D> otherCall : candidates) {
                 D other = otherCall.getResultingDescriptor();
                 if (other == me) continue;
-                if (!moreSpecific(me, other, discriminateGenericDescriptors) || moreSpecific(other, me, discriminateGenericDescriptors)) {
+                if (!moreSpecific(me, other, discriminateGenericDescriptors, overrideGraph) || moreSpecific(other, me, discriminateGenericDescriptors, overrideGraph)) {
                     continue meLoop;
                 }
             }
@@ -83,7 +84,8 @@ public class OverloadingConflictResolver {
     private <Descriptor extends CallableDescriptor> boolean moreSpecific(
             Descriptor f,
             Descriptor g,
-            boolean discriminateGenericDescriptors
+            boolean discriminateGenericDescriptors,
+            @NotNull OverrideGraph overrideGraph
     ) {
         if (f.getContainingDeclaration() instanceof ScriptDescriptor && g.getContainingDeclaration() instanceof ScriptDescriptor) {
             ScriptDescriptor fs = (ScriptDescriptor) f.getContainingDeclaration();
@@ -101,13 +103,13 @@ public class OverloadingConflictResolver {
             if (isGenericF && !isGenericG) return false;
 
             if (isGenericF && isGenericG) {
-                return moreSpecific(DescriptorUtils.substituteBounds(f), DescriptorUtils.substituteBounds(g), false);
+                return moreSpecific(DescriptorUtils.substituteBounds(f), DescriptorUtils.substituteBounds(g), false, overrideGraph);
             }
         }
 
 
-        if (OverridingUtil.overrides(f, g)) return true;
-        if (OverridingUtil.overrides(g, f)) return false;
+        if (overrideGraph.overrides(f, g)) return true;
+        if (overrideGraph.overrides(g, f)) return false;
 
         ReceiverParameterDescriptor receiverOfF = f.getReceiverParameter();
         ReceiverParameterDescriptor receiverOfG = g.getReceiverParameter();
@@ -34,6 +34,10 @@ public final class JetTypeImpl extends AnnotatedImpl implements JetType {
     private final boolean nullable;
     private final JetScope memberScope;
 
+    private int hashCode = 0;
+    // The session of TypeInterner which made this instance canonical, 0 if none
+    private int internedInSession = 0;
+
     public JetTypeImpl(List<AnnotationDescriptor> annotations, TypeConstructor constructor, boolean nullable, @NotNull List<TypeProjection> arguments, JetScope memberScope) {
         super(annotations);
 
@@ -105,15 +109,23 @@ public final class JetTypeImpl extends AnnotatedImpl implements JetType {
         if (o == null || getClass() != o.getClass()) return false;
 
         JetTypeImpl type = (JetTypeImpl) o;
+        if (internedInSession != 0 && internedInSession == type.internedInSession) return false;
 
         return nullable == type.nullable && JetTypeChecker.INSTANCE.equalTypes(this, type);
     }
 
     @Override
     public int hashCode() {
+        if (hashCode != 0) return hashCode;
+
         int result = constructor != null ? constructor.hashCode() : 0;
         result = 31 * result + arguments.hashCode();
         result = 31 * result + (nullable ? 1 : 0);
+        hashCode = result;
         return result;
     }
+
+    /*package*/ void markInterned(int session) {
+        internedInSession = session;
+    }
 }
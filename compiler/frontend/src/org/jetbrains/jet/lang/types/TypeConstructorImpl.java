@@ -18,10 +18,12 @@ package org.jetbrains.jet.lang.types;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.descriptors.ClassDescriptor;
 import org.jetbrains.jet.lang.descriptors.ClassifierDescriptor;
 import org.jetbrains.jet.lang.descriptors.TypeParameterDescriptor;
 import org.jetbrains.jet.lang.descriptors.annotations.AnnotatedImpl;
 import org.jetbrains.jet.lang.descriptors.annotations.AnnotationDescriptor;
+import org.jetbrains.jet.lang.types.checker.SupertypeTable;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -37,6 +39,15 @@ public class TypeConstructorImpl extends AnnotatedImpl implements TypeConstructo
     @Nullable
     private final ClassifierDescriptor classifierDescriptor;
 
+    // Supertypes may be added to the collection after the constructor is created, until it is locked
+    private volatile boolean supertypesLocked = false;
+
+    // Built on first use once the whole hierarchy is locked
+    private volatile SupertypeTable supertypeTable;
+
+    // Set when the table couldn't be built because of an ancestor which wasn't locked yet, so that it's not tried again
+    private volatile boolean supertypeTableFailed = false;
+
     public TypeConstructorImpl(
             @Nullable ClassifierDescriptor classifierDescriptor,
             @NotNull List<AnnotationDescriptor> annotations,
@@ -64,6 +75,39 @@ public class TypeConstructorImpl extends AnnotatedImpl implements TypeConstructo
         return supertypes;
     }
 
+    /**
+     * Called when no supertypes are going to be added to or removed from the collection passed to the constructor
+     */
+    public void lockSupertypes() {
+        supertypesLocked = true;
+    }
+
+    public boolean areSupertypesLocked() {
+        return supertypesLocked;
+    }
+
+    /**
+     * @return all supertypes by their constructors, or null if this is not a constructor of a class
+     * or if supertypes may still be added anywhere in its hierarchy
+     */
+    @Nullable
+    public SupertypeTable getSupertypeTable() {
+        // Error types share one class, so their constructors are not the class' own one
+        if (!(classifierDescriptor instanceof ClassDescriptor) || classifierDescriptor.getTypeConstructor() != this) return null;
+
+        SupertypeTable table = supertypeTable;
+        if (table == null && supertypesLocked && !supertypeTableFailed) {
+            table = SupertypeTable.build((ClassDescriptor) classifierDescriptor);
+            if (table != null) {
+                supertypeTable = table;
+            }
+            else {
+                supertypeTableFailed = true;
+            }
+        }
+        return table;
+    }
+
     @Override
     public String toString() {
         return debugName;
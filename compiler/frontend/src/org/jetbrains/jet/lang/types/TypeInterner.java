@@ -0,0 +1,87 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.lang.types;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.lang.descriptors.ClassDescriptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Canonical instances of ground types, i.e. types of classes whose arguments are ground invariant projections,
+ * with no annotations, error or deferred types anywhere inside.
+ *
+ * For such types equality is structural and agrees with the hash code, so equal types share one instance, and two
+ * distinct instances interned in the same session are never equal. Instances are only weakly referenced.
+ *
+ * An interner belongs to one analysis session: it is only used by the thread running the session, and is dropped
+ * with it, so the canonical instances (and the scopes they hold) don't outlive the analysis. Types are not interned
+ * outside of a session.
+ */
+public final class TypeInterner {
+    private static final ThreadLocal<TypeInterner> CURRENT = new ThreadLocal<TypeInterner>();
+    private static final AtomicInteger SESSION_COUNTER = new AtomicInteger();
+
+    private final Interner<JetTypeImpl> interner = Interners.newWeakInterner();
+    private final int session = SESSION_COUNTER.incrementAndGet();
+
+    private TypeInterner() {
+    }
+
+    /**
+     * Starts interning the types built on the current thread, unless an outer session interns them already
+     *
+     * @return true if a session was started, and then {@link #finishSession()} must be called when it is over
+     */
+    public static boolean startSession() {
+        if (CURRENT.get() != null) return false;
+        CURRENT.set(new TypeInterner());
+        return true;
+    }
+
+    public static void finishSession() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the canonical instance equal to the type, or the type itself if it is not ground or there's no session
+     */
+    @NotNull
+    public static JetType intern(@NotNull JetType type) {
+        TypeInterner current = CURRENT.get();
+        if (current == null || !isInternable(type)) return type;
+
+        JetTypeImpl canonical = current.interner.intern((JetTypeImpl) type);
+        canonical.markInterned(current.session);
+        return canonical;
+    }
+
+    private static boolean isInternable(@NotNull JetType type) {
+        if (!(type instanceof JetTypeImpl)) return false;
+        if (!type.getAnnotations().isEmpty() || ErrorUtils.isErrorType(type)) return false;
+        if (!(type.getConstructor().getDeclarationDescriptor() instanceof ClassDescriptor)) return false;
+
+        for (TypeProjection projection : type.getArguments()) {
+            // Projections like 'out T' may be equal to 'T', while their hash codes differ
+            if (projection.getProjectionKind() != Variance.INVARIANT) return false;
+            if (!isInternable(projection.getType())) return false;
+        }
+        return true;
+    }
+}
@@ -91,7 +91,8 @@ public class TypeUtils {
         if (ErrorUtils.isErrorType(type)) {
             return type;
         }
-        return new JetTypeImpl(type.getAnnotations(), type.getConstructor(), nullable, type.getArguments(), type.getMemberScope());
+        return TypeInterner.intern(
+                new JetTypeImpl(type.getAnnotations(), type.getConstructor(), nullable, type.getArguments(), type.getMemberScope()));
     }
 
     public static boolean isIntersectionEmpty(@NotNull JetType typeA, @NotNull JetType typeB) {
@@ -32,7 +32,22 @@ public class JetTypeChecker {
 
     public boolean isSubtypeOf(@NotNull JetType subtype, @NotNull JetType supertype) {
 //        return new TypeCheckingProcedure().run(subtype, supertype);
-        return TYPE_CHECKER.isSubtypeOf(subtype, supertype);
+        return isSubtypeOf(subtype, supertype, TYPE_CHECKER);
+    }
+
+    private static boolean isSubtypeOf(@NotNull JetType subtype, @NotNull JetType supertype, @NotNull TypeCheckingProcedure procedure) {
+        // Results of procedures with equality axioms depend on the axioms, not only on the types
+        SubtypingCache cache = procedure == TYPE_CHECKER ? SubtypingCache.getCurrent() : null;
+        if (cache == null || !SubtypingCache.isCacheable(subtype) || !SubtypingCache.isCacheable(supertype)) {
+            return procedure.isSubtypeOf(subtype, supertype);
+        }
+
+        Boolean cached = cache.get(subtype, supertype);
+        if (cached != null) return cached;
+
+        boolean result = procedure.isSubtypeOf(subtype, supertype);
+        cache.put(subtype, supertype, result);
+        return result;
     }
 
     public boolean equalTypes(@NotNull JetType a, @NotNull JetType b) {
@@ -72,7 +87,7 @@ public class JetTypeChecker {
 
         @Override
         public boolean assertSubtype(@NotNull JetType subtype, @NotNull JetType supertype, @NotNull TypeCheckingProcedure typeCheckingProcedure) {
-            return typeCheckingProcedure.isSubtypeOf(subtype, supertype);
+            return isSubtypeOf(subtype, supertype, typeCheckingProcedure);
         }
 
         @Override
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.lang.types.checker;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.descriptors.ClassDescriptor;
+import org.jetbrains.jet.lang.types.*;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Fixed size memo of subtyping results, keyed on the identity of both types.
+ *
+ * Every pair is mapped to one slot, and a newer pair simply replaces an older one, so the cache never grows and
+ * needs no locking: slots hold immutable entries, and a stale read is just a miss. Types are only weakly referenced.
+ *
+ * Only ground types built of classes with completely resolved hierarchies are cached: error types may be replaced
+ * by something meaningful in a later check, deferred types may still be computing, supertypes may still be added
+ * to classes being resolved, and type variables of constraint systems are fresh on every resolution anyway.
+ *
+ * A cache belongs to one analysis session: it is only used by the thread running the session, and is dropped with it.
+ */
+public class SubtypingCache {
+    private static final int SIZE = 4096; // must be a power of two
+
+    private static final ThreadLocal<SubtypingCache> CURRENT = new ThreadLocal<SubtypingCache>();
+
+    private final Entry[] entries = new Entry[SIZE];
+
+    private SubtypingCache() {
+    }
+
+    /**
+     * Starts memoizing the subtype checks made on the current thread, unless an outer session memoizes them already
+     *
+     * @return true if a session was started, and then {@link #finishSession()} must be called when it is over
+     */
+    public static boolean startSession() {
+        if (CURRENT.get() != null) return false;
+        CURRENT.set(new SubtypingCache());
+        return true;
+    }
+
+    public static void finishSession() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the cache of the session running on the current thread, null if there's none
+     */
+    @Nullable
+    /*package*/ static SubtypingCache getCurrent() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return the memoized result, or null if the pair was not checked yet (or was evicted)
+     */
+    @Nullable
+    /*package*/ Boolean get(@NotNull JetType subtype, @NotNull JetType supertype) {
+        Entry entry = entries[index(subtype, supertype)];
+        if (entry != null && entry.subtype.get() == subtype && entry.supertype.get() == supertype) {
+            return entry.result;
+        }
+        return null;
+    }
+
+    /*package*/ void put(@NotNull JetType subtype, @NotNull JetType supertype, boolean result) {
+        entries[index(subtype, supertype)] = new Entry(subtype, supertype, result);
+    }
+
+    /*package*/ static boolean isCacheable(@NotNull JetType type) {
+        if (type instanceof DeferredType || ErrorUtils.isErrorType(type)) return false;
+        TypeConstructor constructor = type.getConstructor();
+        if (!(constructor.getDeclarationDescriptor() instanceof ClassDescriptor)) return false;
+        // A table is only built when the hierarchy is final, other constructors compute their supertypes once
+        if (constructor instanceof TypeConstructorImpl && ((TypeConstructorImpl) constructor).getSupertypeTable() == null) return false;
+
+        for (TypeProjection projection : type.getArguments()) {
+            if (!isCacheable(projection.getType())) return false;
+        }
+        return true;
+    }
+
+    private static int index(@NotNull JetType subtype, @NotNull JetType supertype) {
+        int hash = 31 * System.identityHashCode(subtype) + System.identityHashCode(supertype);
+        return (hash ^ (hash >>> 16)) & (SIZE - 1);
+    }
+
+    private static class Entry {
+        private final WeakReference<JetType> subtype;
+        private final WeakReference<JetType> supertype;
+        private final boolean result;
+
+        private Entry(@NotNull JetType subtype, @NotNull JetType supertype, boolean result) {
+            this.subtype = new WeakReference<JetType>(subtype);
+            this.supertype = new WeakReference<JetType>(supertype);
+            this.result = result;
+        }
+    }
+}
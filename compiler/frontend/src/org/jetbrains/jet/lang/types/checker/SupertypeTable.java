@@ -0,0 +1,73 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.lang.types.checker;
+
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.descriptors.ClassDescriptor;
+import org.jetbrains.jet.lang.types.*;
+
+import java.util.Map;
+
+/**
+ * All supertypes of a class by their constructors, expressed in terms of the class' own type parameters.
+ *
+ * The table is filled in the same depth-first order in which {@link TypeCheckingProcedure#findCorrespondingSupertype}
+ * walks the hierarchy, so for every constructor it holds the same supertype that the walk would find first.
+ * It is only built when the class hierarchy is resolved completely, i.e. all the constructors in it are locked.
+ */
+public final class SupertypeTable {
+    private final Map<TypeConstructor, JetType> supertypes = Maps.newHashMap();
+
+    /**
+     * @return null if supertypes may still be added somewhere in the hierarchy
+     */
+    @Nullable
+    public static SupertypeTable build(@NotNull ClassDescriptor classDescriptor) {
+        SupertypeTable table = new SupertypeTable();
+        return table.collect(classDescriptor.getDefaultType()) ? table : null;
+    }
+
+    private SupertypeTable() {
+    }
+
+    private boolean collect(@NotNull JetType type) {
+        TypeConstructor constructor = type.getConstructor();
+        if (supertypes.containsKey(constructor)) {
+            // The whole subtree was visited when the constructor was met for the first time
+            return true;
+        }
+        if (constructor instanceof TypeConstructorImpl && !((TypeConstructorImpl) constructor).areSupertypesLocked()) {
+            return false;
+        }
+        supertypes.put(constructor, type);
+
+        for (JetType immediateSupertype : constructor.getSupertypes()) {
+            if (!collect(TypeSubstitutor.create(type).safeSubstitute(immediateSupertype, Variance.INVARIANT))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the supertype with the given constructor of the class' default type, null if there's none
+     */
+    @Nullable
+    public JetType getSupertype(@NotNull TypeConstructor constructor) {
+        return supertypes.get(constructor);
+    }
+}
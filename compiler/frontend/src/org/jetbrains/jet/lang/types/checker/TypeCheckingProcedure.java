@@ -36,6 +36,14 @@ public class TypeCheckingProcedure {
         if (constructor.equals(supertype.getConstructor())) {
             return subtype;
         }
+
+        SupertypeTable table = constructor instanceof TypeConstructorImpl ? ((TypeConstructorImpl) constructor).getSupertypeTable() : null;
+        if (table != null) {
+            JetType correspondingSupertype = table.getSupertype(supertype.getConstructor());
+            if (correspondingSupertype == null) return null;
+            return TypeSubstitutor.create(subtype).safeSubstitute(correspondingSupertype, Variance.INVARIANT);
+        }
+
         for (JetType immediateSupertype : constructor.getSupertypes()) {
             JetType correspondingSupertype = findCorrespondingSupertype(immediateSupertype, supertype);
             if (correspondingSupertype != null) {
@@ -464,6 +464,11 @@ public class KotlinBuiltIns {
         return getBuiltInClassByName("deprecated");
     }
 
+    @NotNull
+    public ClassDescriptor getTailRecursiveAnnotation() {
+        return getBuiltInClassByName("tailRecursive");
+    }
+
     @NotNull
     public ClassDescriptor getString() {
         return getBuiltInClassByName("String");
@@ -616,6 +621,7 @@ public class KotlinBuiltIns {
 
                 getVolatileAnnotationClass(),
                 getDataClassAnnotation(),
+                getTailRecursiveAnnotation(),
                 getAnnotation(),
                 getComparable(),
                 getEnum(),
@@ -812,7 +818,7 @@ public class KotlinBuiltIns {
         int size = parameterTypes.size();
         ClassDescriptor classDescriptor = receiverType == null ? getFunction(size) : getExtensionFunction(size);
         TypeConstructor constructor = classDescriptor.getTypeConstructor();
-        return new JetTypeImpl(annotations, constructor, false, arguments, classDescriptor.getMemberScope(arguments));
+        return TypeInterner.intern(new JetTypeImpl(annotations, constructor, false, arguments, classDescriptor.getMemberScope(arguments)));
     }
 
     private static TypeProjection defaultProjection(JetType returnType) {
@@ -955,6 +961,10 @@ public class KotlinBuiltIns {
         return containsAnnotation(descriptor, getVolatileAnnotationClass());
     }
 
+    public boolean isTailRecursive(@NotNull FunctionDescriptor descriptor) {
+        return containsAnnotation(descriptor, getTailRecursiveAnnotation());
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     @NotNull
@@ -0,0 +1,491 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.util;
+
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable hash map (a hash array mapped trie): {@link #plus} returns a new map sharing everything but the path
+ * to the changed entry with the old one, so both lookups and updates take O(log32 n).
+ *
+ * {@link #union} and {@link #intersection} merge two tries node by node. Subtrees shared by both maps are taken
+ * as they are, so merging two maps derived from a common one costs about as much as the changes made since.
+ */
+public final class HashTrieMap<K, V> implements Iterable<Map.Entry<K, V>> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    // Bitmap nodes at shifts 0, 5, .., 30, and a collision node below them
+    private static final int MAX_DEPTH = 8;
+
+    private static final HashTrieMap<?, ?> EMPTY = new HashTrieMap<Object, Object>(null);
+
+    /**
+     * Combines the values of a key present in both maps. Must return the value itself when both values are equal,
+     * as equal subtrees are not looked into.
+     */
+    public interface Merger<K, V> {
+        /**
+         * @return the value for the merged map, or null to leave the key out (only allowed in an intersection)
+         */
+        @Nullable
+        V merge(@NotNull K key, @NotNull V value, @NotNull V otherValue);
+    }
+
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public static <K, V> HashTrieMap<K, V> empty() {
+        return (HashTrieMap<K, V>) EMPTY;
+    }
+
+    @Nullable
+    private final Node root;
+
+    private HashTrieMap(@Nullable Node root) {
+        this.root = root;
+    }
+
+    @NotNull
+    private HashTrieMap<K, V> create(@Nullable Node newRoot) {
+        if (newRoot == root) return this;
+        return newRoot == null ? HashTrieMap.<K, V>empty() : new HashTrieMap<K, V>(newRoot);
+    }
+
+    public int size() {
+        return root == null ? 0 : root.size;
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(@NotNull K key) {
+        return root == null ? null : (V) root.get(key, hash(key), 0);
+    }
+
+    /**
+     * @return this map if it already maps the key to an equal value
+     */
+    @NotNull
+    public HashTrieMap<K, V> plus(@NotNull K key, @NotNull V value) {
+        return create((root == null ? BitmapNode.EMPTY : root).plus(key, value, hash(key), 0));
+    }
+
+    /**
+     * @return a map of all the keys of both maps, where the keys present in both are mapped to the merged values.
+     * The merger must not return null. If nothing changes, one of the maps itself is returned
+     */
+    @NotNull
+    public HashTrieMap<K, V> union(@NotNull HashTrieMap<K, V> other, @NotNull Merger<K, V> merger) {
+        if (root == null) return other;
+        if (other.root == null) return this;
+        Node newRoot = merge(root, other.root, 0, true, merger);
+        return newRoot == other.root ? other : create(newRoot);
+    }
+
+    /**
+     * @return a map of the keys present in both maps, mapped to the merged values unless the merger returns null.
+     * If nothing changes, one of the maps itself is returned
+     */
+    @NotNull
+    public HashTrieMap<K, V> intersection(@NotNull HashTrieMap<K, V> other, @NotNull Merger<K, V> merger) {
+        if (root == null || other.root == null) return empty();
+        Node newRoot = merge(root, other.root, 0, false, merger);
+        return newRoot == other.root ? other : create(newRoot);
+    }
+
+    @NotNull
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator<K, V>(root);
+    }
+
+    private static int hash(@NotNull Object key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * @return the merged node, which is one of the arguments if it's equal to the result, or null if nothing is left
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static Node merge(@NotNull Node node, @NotNull Node other, int shift, boolean union, @NotNull Merger merger) {
+        if (node == other) return node;
+        if (!(node instanceof BitmapNode) || !(other instanceof BitmapNode)) {
+            return mergeEntryByEntry(node, other, shift, union, merger);
+        }
+
+        BitmapNode a = (BitmapNode) node;
+        BitmapNode b = (BitmapNode) other;
+        int bits = union ? a.bitmap | b.bitmap : a.bitmap & b.bitmap;
+
+        Object[] newArray = new Object[2 * Integer.bitCount(bits)];
+        int newBitmap = 0;
+        int length = 0;
+        for (int remaining = bits; remaining != 0; remaining &= remaining - 1) {
+            int bit = remaining & -remaining;
+            boolean inA = (a.bitmap & bit) != 0;
+            boolean inB = (b.bitmap & bit) != 0;
+            Object key;
+            Object valueOrNode;
+            if (!inB) {
+                int i = a.index(bit);
+                key = a.array[2 * i];
+                valueOrNode = a.array[2 * i + 1];
+            }
+            else if (!inA) {
+                int i = b.index(bit);
+                key = b.array[2 * i];
+                valueOrNode = b.array[2 * i + 1];
+            }
+            else {
+                int i = a.index(bit);
+                int j = b.index(bit);
+                Object keyA = a.array[2 * i];
+                Object keyB = b.array[2 * j];
+                Object valueA = a.array[2 * i + 1];
+                Object valueB = b.array[2 * j + 1];
+
+                if (keyA != null && keyB != null) {
+                    if (keyA.equals(keyB)) {
+                        key = keyA;
+                        valueOrNode = merger.merge(keyA, valueA, valueB);
+                    }
+                    else if (union) {
+                        key = null;
+                        valueOrNode = BitmapNode.createNode(keyA, valueA, keyB, valueB, hash(keyB), shift + BITS);
+                    }
+                    else {
+                        valueOrNode = key = null;
+                    }
+                }
+                else if (keyA != null || keyB != null) {
+                    // An entry on one side, a subtree on the other
+                    boolean entryInA = keyA != null;
+                    Object entryKey = entryInA ? keyA : keyB;
+                    Object entryValue = entryInA ? valueA : valueB;
+                    Node subtree = (Node) (entryInA ? valueB : valueA);
+                    int hash = hash(entryKey);
+
+                    Object existing = subtree.get(entryKey, hash, shift + BITS);
+                    Object merged = existing == null ? entryValue
+                                                     : entryInA ? merger.merge(entryKey, entryValue, existing)
+                                                                : merger.merge(entryKey, existing, entryValue);
+                    if (union) {
+                        key = null;
+                        valueOrNode = subtree.plus(entryKey, merged, hash, shift + BITS);
+                    }
+                    else {
+                        key = entryKey;
+                        valueOrNode = existing == null ? null : merged;
+                    }
+                }
+                else {
+                    Node merged = merge((Node) valueA, (Node) valueB, shift + BITS, union, merger);
+                    if (merged instanceof BitmapNode && merged.size == 1 && merged.array[0] != null) {
+                        // A single entry doesn't need a node of its own
+                        key = merged.array[0];
+                        valueOrNode = merged.array[1];
+                    }
+                    else {
+                        key = null;
+                        valueOrNode = merged;
+                    }
+                }
+            }
+
+            if (valueOrNode == null) continue;
+            newBitmap |= bit;
+            newArray[length++] = key;
+            newArray[length++] = valueOrNode;
+        }
+
+        if (newBitmap == a.bitmap && a.hasSlots(newArray)) return a;
+        if (newBitmap == b.bitmap && b.hasSlots(newArray)) return b;
+        if (newBitmap == 0) return null;
+        if (length < newArray.length) {
+            Object[] trimmed = new Object[length];
+            System.arraycopy(newArray, 0, trimmed, 0, length);
+            newArray = trimmed;
+        }
+        return new BitmapNode(newBitmap, newArray);
+    }
+
+    /*
+     * Collision nodes only appear for keys with equal hashes, so they are merged without much care
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static Node mergeEntryByEntry(@NotNull Node node, @NotNull Node other, int shift, boolean union, @NotNull Merger merger) {
+        Node result = union ? other : BitmapNode.EMPTY;
+        for (Iterator<Map.Entry<Object, Object>> iterator = new EntryIterator<Object, Object>(node); iterator.hasNext(); ) {
+            Map.Entry<Object, Object> entry = iterator.next();
+            Object key = entry.getKey();
+            int hash = hash(key);
+            Object otherValue = other.get(key, hash, shift);
+            if (otherValue == null) {
+                if (union) {
+                    result = result.plus(key, entry.getValue(), hash, shift);
+                }
+                continue;
+            }
+            Object merged = merger.merge(key, entry.getValue(), otherValue);
+            if (merged != null) {
+                result = result.plus(key, merged, hash, shift);
+            }
+        }
+        return result.size == 0 ? null : result;
+    }
+
+    /*
+     * Slot i of the array pair is either (key, value) or (null, child node)
+     */
+    private static abstract class Node {
+        @NotNull
+        final Object[] array;
+
+        final int size;
+
+        Node(@NotNull Object[] array, int size) {
+            this.array = array;
+            this.size = size;
+        }
+
+        @Nullable
+        abstract Object get(@NotNull Object key, int hash, int shift);
+
+        @NotNull
+        abstract Node plus(@NotNull Object key, @NotNull Object value, int hash, int shift);
+    }
+
+    private static class BitmapNode extends Node {
+        private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+
+        private BitmapNode(int bitmap, @NotNull Object[] array) {
+            super(array, countEntries(array));
+            this.bitmap = bitmap;
+        }
+
+        private static int countEntries(@NotNull Object[] array) {
+            int size = 0;
+            for (int i = 0; i < array.length; i += 2) {
+                size += array[i] == null ? ((Node) array[i + 1]).size : 1;
+            }
+            return size;
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private boolean hasSlots(@NotNull Object[] slots) {
+            for (int i = 0; i < array.length; i++) {
+                if (array[i] != slots[i]) return false;
+            }
+            return true;
+        }
+
+        @Override
+        Object get(@NotNull Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) return null;
+
+            int i = index(bit);
+            Object keyOrNull = array[2 * i];
+            Object valueOrNode = array[2 * i + 1];
+            if (keyOrNull == null) {
+                return ((Node) valueOrNode).get(key, hash, shift + BITS);
+            }
+            return key.equals(keyOrNull) ? valueOrNode : null;
+        }
+
+        @NotNull
+        @Override
+        Node plus(@NotNull Object key, @NotNull Object value, int hash, int shift) {
+            int bit = bit(hash, shift);
+            int i = index(bit);
+
+            if ((bitmap & bit) == 0) {
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, 2 * i);
+                newArray[2 * i] = key;
+                newArray[2 * i + 1] = value;
+                System.arraycopy(array, 2 * i, newArray, 2 * i + 2, array.length - 2 * i);
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+
+            Object keyOrNull = array[2 * i];
+            Object valueOrNode = array[2 * i + 1];
+            if (keyOrNull == null) {
+                Node node = ((Node) valueOrNode).plus(key, value, hash, shift + BITS);
+                return node == valueOrNode ? this : with(2 * i + 1, node);
+            }
+            if (key.equals(keyOrNull)) {
+                return value.equals(valueOrNode) ? this : with(2 * i + 1, value);
+            }
+
+            Object[] newArray = array.clone();
+            newArray[2 * i] = null;
+            newArray[2 * i + 1] = createNode(keyOrNull, valueOrNode, key, value, hash, shift + BITS);
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        @NotNull
+        private BitmapNode with(int index, @Nullable Object element) {
+            Object[] newArray = array.clone();
+            newArray[index] = element;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        @NotNull
+        private static Node createNode(
+                @NotNull Object key1, @NotNull Object value1,
+                @NotNull Object key2, @NotNull Object value2, int hash2,
+                int shift
+        ) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+            }
+            return EMPTY.plus(key1, value1, hash1, shift).plus(key2, value2, hash2, shift);
+        }
+    }
+
+    /*
+     * Keys with equal hashes, stored as (key, value) pairs
+     */
+    private static class CollisionNode extends Node {
+        private final int hash;
+
+        private CollisionNode(int hash, @NotNull Object[] array) {
+            super(array, array.length / 2);
+            this.hash = hash;
+        }
+
+        @Override
+        Object get(@NotNull Object key, int hash, int shift) {
+            if (hash != this.hash) return null;
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) return array[i + 1];
+            }
+            return null;
+        }
+
+        @NotNull
+        @Override
+        Node plus(@NotNull Object key, @NotNull Object value, int hash, int shift) {
+            if (hash != this.hash) {
+                BitmapNode parent = new BitmapNode(BitmapNode.bit(this.hash, shift), new Object[] {null, this});
+                return parent.plus(key, value, hash, shift);
+            }
+
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    if (value.equals(array[i + 1])) return this;
+                    Object[] newArray = array.clone();
+                    newArray[i + 1] = value;
+                    return new CollisionNode(hash, newArray);
+                }
+            }
+
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            return new CollisionNode(hash, newArray);
+        }
+    }
+
+    /*
+     * Walks the trie depth first, keeping the arrays of the nodes on the current path
+     */
+    private static class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+        private final int[] indices = new int[MAX_DEPTH];
+        private int depth = -1;
+
+        @Nullable
+        private Map.Entry<K, V> next;
+
+        private EntryIterator(@Nullable Node root) {
+            if (root != null) {
+                push(root);
+            }
+            advance();
+        }
+
+        private void push(@NotNull Node node) {
+            depth++;
+            arrays[depth] = node.array;
+            indices[depth] = 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int i = indices[depth];
+                if (i >= array.length) {
+                    arrays[depth--] = null;
+                    continue;
+                }
+                indices[depth] = i + 2;
+                if (array[i] == null) {
+                    push((Node) array[i + 1]);
+                }
+                else {
+                    next = Maps.immutableEntry((K) array[i], (V) array[i + 1]);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            Map.Entry<K, V> result = next;
+            if (result == null) throw new NoSuchElementException();
+            advance();
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
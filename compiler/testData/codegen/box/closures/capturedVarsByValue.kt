@@ -0,0 +1,26 @@
+fun call(f: () -> Int) = f()
+
+fun box(): String {
+    var notReassigned = 1
+    if (call { notReassigned + 1 } != 2) return "fail 1"
+
+    var assignedAfterCapture = 1
+    val f = { assignedAfterCapture }
+    assignedAfterCapture = 2
+    if (f() != 2) return "fail 2"
+
+    var incremented = 1
+    val g = { incremented }
+    incremented++
+    if (g() != 2) return "fail 3"
+
+    var assignedInClosure = 1
+    call { assignedInClosure += 2; assignedInClosure }
+    if (assignedInClosure != 3) return "fail 4"
+
+    var notInitialized: Int
+    notInitialized = 5
+    if (call { notInitialized } != 5) return "fail 5"
+
+    return "OK"
+}
@@ -0,0 +1,25 @@
+tailRecursive fun sum(n: Int, acc: Long): Long = if (n == 0) acc else sum(n - 1, acc + n)
+
+tailRecursive fun String.countChar(c: Char, from: Int, count: Int): Int {
+    if (from == length) return count
+    return countChar(c, from + 1, if (get(from) == c) count + 1 else count)
+}
+
+class Counter(val step: Int) {
+    tailRecursive fun countDown(n: Int, steps: Int): Int =
+        when {
+            n <= 0 -> steps
+            else -> this.countDown(n - step, steps + 1)
+        }
+}
+
+tailRecursive fun captured(n: Int, result: () -> Int): Int =
+    if (n == 0) result() else captured(n - 1, { n })
+
+fun box(): String {
+    if (sum(1000000, 0) != 500000500000) return "Fail sum"
+    if ("abacaba".countChar('a', 0, 0) != 4) return "Fail countChar"
+    if (Counter(3).countDown(3000000, 0) != 1000000) return "Fail countDown"
+    if (captured(1000000, { 0 }) != 1) return "Fail captured"
+    return "OK"
+}
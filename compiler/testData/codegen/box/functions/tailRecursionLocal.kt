@@ -0,0 +1,16 @@
+fun sumTo(n: Int): Long {
+    tailRecursive fun sum(i: Int, acc: Long): Long = if (i == 0) acc else sum(i - 1, acc + i)
+    return sum(n, 0)
+}
+
+fun countChar(s: String, c: Char): Int {
+    tailRecursive fun Int.count(found: Int): Int =
+        if (this == s.length) found else (this + 1).count(if (s.get(this) == c) found + 1 else found)
+    return 0.count(0)
+}
+
+fun box(): String {
+    if (sumTo(1000000) != 500000500000) return "Fail sumTo"
+    if (countChar("abacaba", 'a') != 4) return "Fail countChar"
+    return "OK"
+}
@@ -0,0 +1,38 @@
+val SIZE = 4 * 1024
+val NAME = "buffer"
+val DESCRIPTION = "$NAME of ${SIZE / 1024}K"
+val DEBUG = false
+
+fun box(): String {
+    val mask = SIZE - 1
+    if (mask != 4095) return "fail mask: $mask"
+    if (DESCRIPTION != "buffer of 4K") return "fail description: $DESCRIPTION"
+    if (SIZE.toLong() * 2 != 8192.toLong()) return "fail long"
+    if (-(7 / 2) != -3 || 7 % -2 != 1) return "fail division"
+    if (1.0 / 2 != 0.5) return "fail double"
+
+    var sideEffect = 0
+    if (DEBUG) {
+        sideEffect = 1
+    }
+    if (!DEBUG && SIZE > 1000) {
+        sideEffect += 2
+    }
+    if (sideEffect != 2) return "fail if: $sideEffect"
+
+    val kind = when (SIZE) {
+        1024 -> "small"
+        4 * 1024 -> "medium"
+        else -> "large"
+    }
+    if (kind != "medium") return "fail when: $kind"
+
+    val flag = when {
+        DEBUG -> "debug"
+        NAME == "buffer" -> "release"
+        else -> "unknown"
+    }
+    if (flag != "release") return "fail when without subject: $flag"
+
+    return if (DEBUG) "fail" else "OK"
+}
@@ -0,0 +1,10 @@
+// B is not initialized yet when A is, so A must not be folded to 7
+val A = B + 1
+val B = 2 * 3
+val C = B + 1
+
+fun box(): String {
+    if (A != 1) return "fail A: $A"
+    if (C != 7) return "fail C: $C"
+    return "OK"
+}
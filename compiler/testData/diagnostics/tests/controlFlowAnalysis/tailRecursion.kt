@@ -0,0 +1,36 @@
+tailRecursive fun sum(n: Int, acc: Int): Int = if (n == 0) acc else sum(n - 1, acc + n)
+
+tailRecursive fun returns(n: Int): Int {
+    if (n == 0) return 0
+    return when (n) {
+        1 -> returns(0)
+        else -> (returns(n - 1))
+    }
+}
+
+tailRecursive fun notTail(n: Int): Int = if (n == 0) 0 else 1 + <!NON_TAIL_RECURSIVE_CALL!>notTail(n - 1)<!>
+
+tailRecursive fun defaultValue(n: Int, acc: Int = 0): Int = if (n == 0) acc else <!NON_TAIL_RECURSIVE_CALL!>defaultValue(n - 1)<!>
+
+tailRecursive fun inTry(n: Int): Int {
+    try {
+        return if (n == 0) 0 else <!NON_TAIL_RECURSIVE_CALL!>inTry(n - 1)<!>
+    }
+    finally {
+    }
+}
+
+tailRecursive fun inLambda(n: Int): () -> Int = { <!NON_TAIL_RECURSIVE_CALL!>inLambda(n - 1)<!>() }
+
+open class A {
+    tailRecursive open fun overridable(n: Int): Int = if (n == 0) 0 else <!NON_TAIL_RECURSIVE_CALL!>overridable(n - 1)<!>
+
+    tailRecursive fun other(a: A, n: Int): Int = if (n == 0) 0 else a.<!NON_TAIL_RECURSIVE_CALL!>other(a, n - 1)<!>
+
+    tailRecursive fun same(n: Int): Int = if (n == 0) 0 else this.same(n - 1)
+}
+
+fun local(n: Int): Int {
+    tailRecursive fun loop(i: Int, acc: Int): Int = if (i == 0) acc else loop(i - 1, acc + i)
+    return loop(n, 0)
+}
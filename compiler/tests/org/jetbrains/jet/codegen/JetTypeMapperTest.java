@@ -0,0 +1,93 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.codegen;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.codegen.signature.JvmMethodSignature;
+import org.jetbrains.jet.codegen.state.GenerationState;
+import org.jetbrains.jet.codegen.state.JetTypeMapper;
+import org.jetbrains.jet.lang.descriptors.FunctionDescriptor;
+import org.jetbrains.jet.lang.psi.JetClass;
+import org.jetbrains.jet.lang.psi.JetDeclaration;
+import org.jetbrains.jet.lang.psi.JetNamedFunction;
+import org.jetbrains.jet.lang.resolve.BindingContext;
+import org.jetbrains.jet.lang.resolve.name.Name;
+
+import java.util.List;
+
+import static org.jetbrains.asm4.Opcodes.INVOKESPECIAL;
+import static org.jetbrains.asm4.Opcodes.INVOKEVIRTUAL;
+
+public class JetTypeMapperTest extends CodegenTestCase {
+    private GenerationState state;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        createEnvironmentWithMockJdkAndIdeaAnnotations(ConfigurationKind.JDK_ONLY);
+        loadText("open class A { open fun foo(x: Int): Int = x }\nfun bar(s: String) = s");
+        state = GenerationUtils.compileFileGetGenerationStateForTest(myFiles.getPsiFile());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        state = null;
+        super.tearDown();
+    }
+
+    public void testCallableMethodIsMappedOncePerMode() {
+        JetTypeMapper typeMapper = state.getTypeMapper();
+        FunctionDescriptor foo = findFunction(((JetClass) myFiles.getPsiFile().getDeclarations().get(0)).getDeclarations(), "foo");
+
+        CallableMethod virtualCall = typeMapper.mapToCallableMethod(foo, false, false, OwnerKind.IMPLEMENTATION);
+        assertSame(virtualCall, typeMapper.mapToCallableMethod(foo, false, false, OwnerKind.IMPLEMENTATION));
+        assertEquals(INVOKEVIRTUAL, virtualCall.getInvokeOpcode());
+        assertEquals("(I)I", virtualCall.getSignature().getAsmMethod().getDescriptor());
+
+        CallableMethod superCall = typeMapper.mapToCallableMethod(foo, true, false, OwnerKind.IMPLEMENTATION);
+        assertNotSame(virtualCall, superCall);
+        assertSame(superCall, typeMapper.mapToCallableMethod(foo, true, false, OwnerKind.IMPLEMENTATION));
+        assertEquals(INVOKESPECIAL, superCall.getInvokeOpcode());
+    }
+
+    public void testSignatureIsMappedOncePerName() {
+        JetTypeMapper typeMapper = state.getTypeMapper();
+        FunctionDescriptor bar = findFunction(myFiles.getPsiFile().getDeclarations(), "bar");
+
+        JvmMethodSignature baz = typeMapper.mapSignature(Name.identifier("baz"), bar);
+        assertSame(baz, typeMapper.mapSignature(Name.identifier("baz"), bar));
+        assertEquals("baz", baz.getAsmMethod().getName());
+        assertEquals("(Ljava/lang/String;)Ljava/lang/String;", baz.getAsmMethod().getDescriptor());
+
+        JvmMethodSignature qux = typeMapper.mapSignature(Name.identifier("qux"), bar);
+        assertEquals("qux", qux.getAsmMethod().getName());
+        assertEquals(baz.getAsmMethod().getDescriptor(), qux.getAsmMethod().getDescriptor());
+    }
+
+    @NotNull
+    private FunctionDescriptor findFunction(@NotNull List<JetDeclaration> declarations, @NotNull String name) {
+        for (JetDeclaration declaration : declarations) {
+            if (declaration instanceof JetNamedFunction && name.equals(declaration.getName())) {
+                FunctionDescriptor descriptor = state.getBindingContext().get(BindingContext.FUNCTION, declaration);
+                assertNotNull(descriptor);
+                return descriptor;
+            }
+        }
+        throw new AssertionError("No function " + name);
+    }
+}
@@ -895,6 +895,11 @@ public class BlackBoxCodegenTestGenerated extends AbstractBlackBoxCodegenTest {
             JetTestUtils.assertAllTestsPresentByMetadata(this.getClass(), "org.jetbrains.jet.generators.tests.GenerateTests", new File("compiler/testData/codegen/box/closures"), "kt", true);
         }
         
+        @TestMetadata("capturedVarsByValue.kt")
+        public void testCapturedVarsByValue() throws Exception {
+            blackBoxFileByFullPath("compiler/testData/codegen/box/closures/capturedVarsByValue.kt");
+        }
+        
         @TestMetadata("closureWithParameter.kt")
         public void testClosureWithParameter() throws Exception {
             blackBoxFileByFullPath("compiler/testData/codegen/box/closures/closureWithParameter.kt");
@@ -1741,6 +1746,16 @@ public class BlackBoxCodegenTestGenerated extends AbstractBlackBoxCodegenTest {
             blackBoxFileByFullPath("compiler/testData/codegen/box/functions/nothisnoclosure.kt");
         }
         
+        @TestMetadata("tailRecursion.kt")
+        public void testTailRecursion() throws Exception {
+            blackBoxFileByFullPath("compiler/testData/codegen/box/functions/tailRecursion.kt");
+        }
+        
+        @TestMetadata("tailRecursionLocal.kt")
+        public void testTailRecursionLocal() throws Exception {
+            blackBoxFileByFullPath("compiler/testData/codegen/box/functions/tailRecursionLocal.kt");
+        }
+        
     }
     
     @TestMetadata("compiler/testData/codegen/box/innerNested")
@@ -2703,6 +2718,16 @@ public class BlackBoxCodegenTestGenerated extends AbstractBlackBoxCodegenTest {
             JetTestUtils.assertAllTestsPresentByMetadata(this.getClass(), "org.jetbrains.jet.generators.tests.GenerateTests", new File("compiler/testData/codegen/box/primitiveTypes"), "kt", true);
         }
         
+        @TestMetadata("constantFolding.kt")
+        public void testConstantFolding() throws Exception {
+            blackBoxFileByFullPath("compiler/testData/codegen/box/primitiveTypes/constantFolding.kt");
+        }
+        
+        @TestMetadata("constantFoldingForwardReference.kt")
+        public void testConstantFoldingForwardReference() throws Exception {
+            blackBoxFileByFullPath("compiler/testData/codegen/box/primitiveTypes/constantFoldingForwardReference.kt");
+        }
+        
         @TestMetadata("ea35963.kt")
         public void testEa35963() throws Exception {
             blackBoxFileByFullPath("compiler/testData/codegen/box/primitiveTypes/ea35963.kt");
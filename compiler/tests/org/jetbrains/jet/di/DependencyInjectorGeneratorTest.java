@@ -0,0 +1,100 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.di;
+
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.JetTestUtils;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+
+public class DependencyInjectorGeneratorTest extends TestCase {
+    public static class Cache {
+    }
+
+    public static class Helper {
+    }
+
+    public static class Storage {
+        @Inject
+        public void setCache(@NotNull Cache cache) {
+        }
+    }
+
+    public static class Resolver {
+        public Resolver(@NotNull Storage storage) {
+        }
+
+        @Inject
+        public void setCache(@NotNull Cache cache) {
+        }
+
+        @Inject
+        public void setHelper(@NotNull Helper helper) {
+        }
+    }
+
+    public void testPerThreadFieldsAddedLast() throws IOException {
+        DependencyInjectorGenerator generator = new DependencyInjectorGenerator(false);
+        generator.addPublicField(Storage.class);
+        generator.addPublicPerThreadField(Resolver.class);
+        checkPerThreadClass(generate(generator));
+    }
+
+    public void testPerThreadFieldsAddedFirst() throws IOException {
+        DependencyInjectorGenerator generator = new DependencyInjectorGenerator(false);
+        generator.addPublicPerThreadField(Resolver.class);
+        generator.addPublicField(Storage.class);
+        checkPerThreadClass(generate(generator));
+    }
+
+    public void testSharedFieldDependsOnPerThreadField() throws IOException {
+        DependencyInjectorGenerator generator = new DependencyInjectorGenerator(false);
+        generator.addPerThreadField(Cache.class);
+        generator.addPublicField(Storage.class);
+        try {
+            generate(generator);
+            fail("Shared field depending on a per-thread field is generated");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static void checkPerThreadClass(@NotNull String text) {
+        // Cache is needed by the shared Storage, Helper only by the per-thread Resolver
+        assertTrue(text, text.contains("\n    private Cache cache;\n"));
+        assertTrue(text, text.contains("\n        private Helper helper;\n"));
+
+        assertTrue(text, text.contains("return new PerThread(storage, cache);"));
+        assertTrue(text, text.contains("private static class PerThread {"));
+        assertTrue(text, text.contains("PerThread(Storage storage, Cache cache) {"));
+        assertTrue(text, text.contains("this.resolver = new Resolver(storage);"));
+        assertTrue(text, text.contains("return perThread.get().resolver;"));
+        assertTrue(text, text.contains("perThread.remove();"));
+    }
+
+    @NotNull
+    private String generate(@NotNull DependencyInjectorGenerator generator) throws IOException {
+        File dir = JetTestUtils.tmpDirForTest(this);
+        generator.generate(dir.getPath(), "org.jetbrains.jet.di", "InjectorForPerThreadTest", getClass());
+        return FileUtil.loadFile(new File(dir, "org/jetbrains/jet/di/InjectorForPerThreadTest.java"));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.jvm.compiler;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.JetTestUtils;
+import org.jetbrains.jet.cli.jvm.compiler.CoreExternalAnnotationsManager;
+import org.jetbrains.jet.cli.jvm.compiler.ExternalAnnotationsIndex;
+import org.jetbrains.jet.cli.jvm.compiler.ExternalAnnotationsIndexBuilder;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.lang.resolve.lazy.KotlinTestWithEnvironment;
+
+import java.io.File;
+import java.util.List;
+
+public class ExternalAnnotationsIndexTest extends KotlinTestWithEnvironment {
+    @Override
+    protected JetCoreEnvironment createEnvironment() {
+        return JetTestUtils.createEnvironmentWithMockJdkAndIdeaAnnotations(getTestRootDisposable(), ConfigurationKind.JDK_ONLY);
+    }
+
+    public void testFind() throws Exception {
+        ExternalAnnotationsIndex index = ExternalAnnotationsIndex.load(buildIndex());
+
+        List<ExternalAnnotationsIndex.Annotation> annotations = index.find("java.lang.Class T[] getEnumConstants()");
+        assertEquals(1, annotations.size());
+        assertEquals("jet.runtime.typeinfo.KotlinSignature", annotations.get(0).getFqName());
+        assertEquals("@jet.runtime.typeinfo.KotlinSignature(value=\"fun getEnumConstants() : Array<T>?\")", annotations.get(0).getText());
+
+        assertTrue(index.find("java.lang.Class void noSuchMethod()").isEmpty());
+    }
+
+    public void testSameAnnotationsAsFromXml() throws Exception {
+        VirtualFile annotationsRoot = VirtualFileManager.getInstance().findFileByUrl("file://jdk-annotations");
+        assertNotNull(annotationsRoot);
+
+        CoreExternalAnnotationsManager xmlManager = new CoreExternalAnnotationsManager(PsiManager.getInstance(getProject()));
+        xmlManager.addExternalAnnotationsRoot(annotationsRoot);
+        CoreExternalAnnotationsManager indexManager = new CoreExternalAnnotationsManager(PsiManager.getInstance(getProject()));
+        indexManager.addExternalAnnotationsIndex(ExternalAnnotationsIndex.load(buildIndex()));
+
+        JavaPsiFacade javaPsiFacade = JavaPsiFacade.getInstance(getProject());
+        for (String className : new String[] {"java.lang.Class", "java.lang.String", "java.util.Collections"}) {
+            PsiClass psiClass = javaPsiFacade.findClass(className, GlobalSearchScope.allScope(getProject()));
+            assertNotNull(className, psiClass);
+            for (PsiMethod method : psiClass.getMethods()) {
+                assertEquals(method.toString(), getTexts(xmlManager.findExternalAnnotations(method)),
+                             getTexts(indexManager.findExternalAnnotations(method)));
+                for (PsiParameter parameter : method.getParameterList().getParameters()) {
+                    assertEquals(parameter.toString(), getTexts(xmlManager.findExternalAnnotations(parameter)),
+                                 getTexts(indexManager.findExternalAnnotations(parameter)));
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private File buildIndex() throws Exception {
+        File indexFile = FileUtil.createTempFile("jdk-annotations", ExternalAnnotationsIndex.INDEX_FILE_EXTENSION, true);
+        ExternalAnnotationsIndexBuilder.build(new File("jdk-annotations"), indexFile);
+        return indexFile;
+    }
+
+    @NotNull
+    private static String getTexts(PsiAnnotation[] annotations) {
+        StringBuilder builder = new StringBuilder();
+        if (annotations != null) {
+            for (PsiAnnotation annotation : annotations) {
+                builder.append(annotation.getText()).append("\n");
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.jvm.compiler;
+
+import junit.framework.TestCase;
+import org.jetbrains.jet.lang.resolve.java.kt.JetMembersData;
+
+import java.util.Arrays;
+
+public class JetMembersDataTest extends TestCase {
+    public void testEncodeDecode() {
+        JetMembersData.Method foo = new JetMembersData.Method("foo", 2);
+        foo.setAnnotation(new JetMembersData.MethodAnnotation(1 << 20, "<T:?Ljava/lang/Object;>", "TT;", ""));
+        foo.setParameterAnnotation(0, new JetMembersData.ValueParameterAnnotation("$receiver", "TT;", true, false));
+        foo.setParameterAnnotation(1, new JetMembersData.ValueParameterAnnotation("x", "I", false, true));
+        JetMembersData.Method bar = new JetMembersData.Method("bar", 1);
+
+        JetMembersData.Encoded encoded = new JetMembersData(Arrays.asList(foo, bar)).encode();
+        JetMembersData decoded = JetMembersData.decode(encoded.strings, encoded.data);
+        assertNotNull(decoded);
+        assertEquals(2, decoded.getMethods().size());
+
+        JetMembersData.Method decodedFoo = decoded.findMethod("foo", 2);
+        assertNotNull(decodedFoo);
+        JetMembersData.MethodAnnotation annotation = decodedFoo.getAnnotation();
+        assertNotNull(annotation);
+        assertEquals(1 << 20, annotation.flags);
+        assertEquals("<T:?Ljava/lang/Object;>", annotation.typeParameters);
+        assertEquals("TT;", annotation.returnType);
+        assertEquals("", annotation.propertyType);
+
+        JetMembersData.ValueParameterAnnotation receiver = decodedFoo.getParameterAnnotation(0);
+        assertNotNull(receiver);
+        assertEquals("$receiver", receiver.name);
+        assertTrue(receiver.receiver);
+        assertFalse(receiver.hasDefaultValue);
+        JetMembersData.ValueParameterAnnotation x = decodedFoo.getParameterAnnotation(1);
+        assertNotNull(x);
+        assertEquals("I", x.type);
+        assertTrue(x.hasDefaultValue);
+
+        JetMembersData.Method decodedBar = decoded.findMethod("bar", 1);
+        assertNotNull(decodedBar);
+        assertNull(decodedBar.getAnnotation());
+        assertNull(decodedBar.getParameterAnnotation(0));
+
+        assertNull(decoded.findMethod("foo", 1));
+    }
+
+    public void testStringsAreShared() {
+        JetMembersData.Method a = new JetMembersData.Method("a", 0);
+        a.setAnnotation(new JetMembersData.MethodAnnotation(0, "", "Ljava/lang/String;", ""));
+        JetMembersData.Method b = new JetMembersData.Method("b", 0);
+        b.setAnnotation(new JetMembersData.MethodAnnotation(0, "", "Ljava/lang/String;", ""));
+
+        String[] strings = new JetMembersData(Arrays.asList(a, b)).encode().strings;
+        assertEquals(Arrays.asList("a", "", "Ljava/lang/String;", "b"), Arrays.asList(strings));
+    }
+
+    public void testOverloadsAreNotFound() {
+        JetMembersData data = new JetMembersData(Arrays.asList(new JetMembersData.Method("f", 1), new JetMembersData.Method("f", 1)));
+        assertNull(data.findMethod("f", 1));
+    }
+
+    public void testOverloadsWithDifferentParameterCounts() {
+        JetMembersData.Method f1 = new JetMembersData.Method("f", 1);
+        JetMembersData.Method f2 = new JetMembersData.Method("f", 2);
+        JetMembersData data = new JetMembersData(Arrays.asList(f1, f2, new JetMembersData.Method("g", 1)));
+        assertSame(f1, data.findMethod("f", 1));
+        assertSame(f2, data.findMethod("f", 2));
+        assertNull(data.findMethod("f", 0));
+        assertNull(data.findMethod("h", 1));
+    }
+
+    public void testMalformedData() {
+        assertNull(JetMembersData.decode(new String[0], ""));
+        assertNull(JetMembersData.decode(new String[] {"f"}, "\u0002\u0001"));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.jvm.compiler;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.JetTestUtils;
+import org.jetbrains.jet.TestJdkKind;
+import org.jetbrains.jet.cli.jvm.compiler.CompileEnvironmentUtil;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.codegen.ClassFileFactory;
+import org.jetbrains.jet.codegen.GenerationUtils;
+import org.jetbrains.jet.di.InjectorForJavaSemanticServices;
+import org.jetbrains.jet.lang.psi.JetFile;
+import org.jetbrains.jet.lang.resolve.java.JvmStdlibNames;
+import org.jetbrains.jet.lang.resolve.java.PsiClassFinder;
+import org.jetbrains.jet.lang.resolve.java.kt.JetMembersData;
+import org.jetbrains.jet.lang.resolve.java.kt.JetMembersReader;
+import org.jetbrains.jet.lang.resolve.java.kt.JetMethodAnnotation;
+import org.jetbrains.jet.lang.resolve.name.FqName;
+import org.jetbrains.jet.test.TestCaseWithTmpdir;
+
+public class JetMembersReaderTest extends TestCaseWithTmpdir {
+    private static final String SOURCE = "package test\n" +
+                                         "\n" +
+                                         "class A {\n" +
+                                         "    fun foo(s: String): String = s\n" +
+                                         "    fun Int.bar(x: Int = 1): Int = this + x\n" +
+                                         "}\n";
+
+    private ClassFileFactory classFileFactory;
+    private JetCoreEnvironment environment;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        JetCoreEnvironment compileEnvironment =
+                JetTestUtils.createEnvironmentWithMockJdkAndIdeaAnnotations(getTestRootDisposable(), ConfigurationKind.JDK_ONLY);
+        JetFile file = JetTestUtils.createFile("A.kt", SOURCE, compileEnvironment.getProject());
+        classFileFactory = GenerationUtils.compileFileGetClassFileFactoryForTest(file);
+        CompileEnvironmentUtil.writeToOutputDirectory(classFileFactory, tmpdir);
+
+        environment = new JetCoreEnvironment(getTestRootDisposable(), JetTestUtils.compilerConfigurationForTests(
+                ConfigurationKind.JDK_ONLY, TestJdkKind.MOCK_JDK, JetTestUtils.getAnnotationsJar(), tmpdir));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        classFileFactory = null;
+        environment = null;
+        super.tearDown();
+    }
+
+    public void testJetMembersIsVisitedBeforeMembers() throws Exception {
+        String text = classFileFactory.asText("test/A.class");
+        int jetMembers = text.indexOf("@" + JvmStdlibNames.JET_MEMBERS.getDescriptor());
+        assertTrue(text, jetMembers >= 0);
+        assertTrue(text, jetMembers < text.indexOf("\n  // access flags"));
+    }
+
+    public void testKotlinMethods() throws Exception {
+        PsiClass psiClass = findClass("test.A");
+
+        JetMembersData.Method foo = JetMembersReader.findMethod(findMethod(psiClass, "foo"));
+        assertNotNull(foo);
+        assertNotNull(foo.getAnnotation());
+        JetMembersData.ValueParameterAnnotation s = foo.getParameterAnnotation(0);
+        assertNotNull(s);
+        assertEquals("s", s.name);
+        assertFalse(s.receiver);
+
+        JetMembersData.Method bar = JetMembersReader.findMethod(findMethod(psiClass, "bar"));
+        assertNotNull(bar);
+        JetMembersData.ValueParameterAnnotation receiver = bar.getParameterAnnotation(0);
+        assertNotNull(receiver);
+        assertTrue(receiver.receiver);
+        JetMembersData.ValueParameterAnnotation x = bar.getParameterAnnotation(1);
+        assertNotNull(x);
+        assertTrue(x.hasDefaultValue);
+    }
+
+    public void testDataIsCachedInClass() throws Exception {
+        PsiMethod foo = findMethod(findClass("test.A"), "foo");
+        JetMembersData.Method method = JetMembersReader.findMethod(foo);
+        assertNotNull(method);
+        assertSame(method, JetMembersReader.findMethod(foo));
+    }
+
+    public void testJavaMethods() throws Exception {
+        PsiClass psiClass = findClass("java.lang.String");
+        assertTrue(psiClass.getMethods().length > 0);
+
+        for (PsiMethod method : psiClass.getMethods()) {
+            assertNull(JetMembersReader.findMethod(method));
+            assertFalse(JetMethodAnnotation.get(method).isDefined());
+        }
+    }
+
+    @NotNull
+    private static PsiMethod findMethod(@NotNull PsiClass psiClass, @NotNull String name) {
+        PsiMethod[] methods = psiClass.findMethodsByName(name, false);
+        assertEquals(name, 1, methods.length);
+        return methods[0];
+    }
+
+    @NotNull
+    private PsiClass findClass(@NotNull String qualifiedName) {
+        InjectorForJavaSemanticServices injector = new InjectorForJavaSemanticServices(environment.getProject());
+        PsiClass psiClass = injector.getPsiClassFinder().findPsiClass(new FqName(qualifiedName), PsiClassFinder.RuntimeClassesHandleMode.THROW);
+        assertNotNull(qualifiedName, psiClass);
+        return psiClass;
+    }
+}
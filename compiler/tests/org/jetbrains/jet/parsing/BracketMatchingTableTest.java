@@ -0,0 +1,85 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.parsing;
+
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.JetLiteFixture;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.lang.parsing.BracketMatchingTable;
+import org.jetbrains.jet.lang.parsing.JetParserDefinition;
+import org.jetbrains.jet.lexer.JetLexer;
+
+public class BracketMatchingTableTest extends JetLiteFixture {
+    @Override
+    protected JetCoreEnvironment createEnvironment() {
+        return createEnvironmentWithMockJdk(ConfigurationKind.JDK_ONLY);
+    }
+
+    public void testNestedGroups() {
+        // Raw tokens: f ( a [ 1 ] , { x } )
+        BracketMatchingTable table = build("f(a[1],{x})");
+        assertEquals(10, table.getMatchingClosing(1));
+        assertEquals(5, table.getMatchingClosing(3));
+        assertEquals(9, table.getMatchingClosing(7));
+        assertEquals(-1, table.getMatchingClosing(0));
+        assertEquals(-1, table.getMatchingClosing(10));
+    }
+
+    public void testWhitespaceIsCounted() {
+        // Raw tokens: ( <space> a <space> )
+        BracketMatchingTable table = build("( a )");
+        assertEquals(4, table.getMatchingClosing(0));
+    }
+
+    public void testIndicesOutOfRange() {
+        BracketMatchingTable table = build("(a)");
+        assertEquals(-1, table.getMatchingClosing(-1));
+        assertEquals(-1, table.getMatchingClosing(3));
+    }
+
+    public void testMismatchedBrackets() {
+        // Raw tokens: ( ( a ) ] b )
+        BracketMatchingTable table = build("((a)]b)");
+        assertEquals(3, table.getMatchingClosing(1));
+        assertEquals(-1, table.getMatchingClosing(0));
+    }
+
+    public void testUnclosedGroup() {
+        // Raw tokens: { ( a )
+        BracketMatchingTable table = build("{(a)");
+        assertEquals(3, table.getMatchingClosing(1));
+        assertEquals(-1, table.getMatchingClosing(0));
+    }
+
+    public void testAngleBracketsBalance() {
+        // Raw tokens: a < b < c > > d
+        BracketMatchingTable table = build("a<b<c>>d");
+        assertEquals(2, table.getAngleBracketsBalance(0, 4));
+        assertEquals(0, table.getAngleBracketsBalance(3, 6));
+        assertEquals(-2, table.getAngleBracketsBalance(5, 8));
+        assertEquals(0, table.getAngleBracketsBalance(0, 8));
+    }
+
+    @NotNull
+    private static BracketMatchingTable build(@NotNull String text) {
+        PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(new JetParserDefinition(), new JetLexer(), text);
+        return BracketMatchingTable.build(builder);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.parsing;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.impl.DebugUtil;
+import com.intellij.psi.impl.source.DummyHolder;
+import com.intellij.psi.impl.source.DummyHolderFactory;
+import com.intellij.psi.impl.source.tree.LazyParseableElement;
+import com.intellij.psi.impl.source.tree.TreeElement;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IReparseableElementType;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.JetLiteFixture;
+import org.jetbrains.jet.JetNodeTypes;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.lang.psi.*;
+import org.jetbrains.jet.plugin.JetLanguage;
+
+import java.util.List;
+
+public class JetLazyParsingTest extends JetLiteFixture {
+    @Override
+    protected JetCoreEnvironment createEnvironment() {
+        return createEnvironmentWithMockJdk(ConfigurationKind.JDK_ONLY);
+    }
+
+    public void testFunctionBodyIsParsedOnDemand() {
+        JetFile file = JetPsiFactory.createFile(getProject(), "fun foo(a: Int): Int {\n val b = a + 1\n return b\n}\nfun bar() = 1");
+        List<JetDeclaration> declarations = file.getDeclarations();
+        assertEquals(2, declarations.size());
+
+        JetNamedFunction foo = (JetNamedFunction) declarations.get(0);
+        assertEquals("foo", foo.getName());
+        assertTrue(foo.hasBlockBody());
+
+        JetBlockExpression body = (JetBlockExpression) foo.getBodyExpression();
+        assertNotNull(body);
+        assertNotParsed(body.getNode());
+
+        assertEquals(2, body.getStatements().size());
+        assertTrue(((LazyParseableElement) body.getNode()).isParsed());
+    }
+
+    public void testFunctionLiteralIsParsedOnDemand() {
+        JetFile file = JetPsiFactory.createFile(getProject(), "val f = { (a: Int) -> a + 1 }");
+        JetProperty property = (JetProperty) file.getDeclarations().get(0);
+
+        JetFunctionLiteralExpression literal = (JetFunctionLiteralExpression) property.getInitializer();
+        assertNotNull(literal);
+        assertNotParsed(literal.getNode());
+
+        assertEquals(1, literal.getValueParameters().size());
+        assertEquals(1, literal.getBodyExpression().getStatements().size());
+    }
+
+    public void testBlockInWhenEntryIsNotCollapsedIntoLiteral() {
+        JetFile file = JetPsiFactory.createFile(getProject(), "fun foo(a: Int) { when (a) { 1 -> { a } else -> { b -> b } } }");
+        JetNamedFunction foo = (JetNamedFunction) file.getDeclarations().get(0);
+        JetWhenExpression when = (JetWhenExpression) ((JetBlockExpression) foo.getBodyExpression()).getStatements().get(0);
+
+        List<JetWhenEntry> entries = when.getEntries();
+        assertInstanceOf(entries.get(0).getExpression(), JetBlockExpression.class);
+        assertInstanceOf(entries.get(1).getExpression(), JetFunctionLiteralExpression.class);
+    }
+
+    public void testUnbalancedBodyIsParsedEagerly() {
+        JetFile file = JetPsiFactory.createFile(getProject(), "fun foo() {\n val a = 1\n");
+        JetNamedFunction foo = (JetNamedFunction) file.getDeclarations().get(0);
+
+        ASTNode body = foo.getBodyExpression().getNode();
+        assertTrue(((LazyParseableElement) body).isParsed());
+    }
+
+    public void testReparseableText() {
+        assertParsable("{}", true, false);
+        assertParsable("{ a -> { b } }", false, true);
+        assertParsable("{ \"${ x }\" }", true, false);
+        assertParsable("{ (a: Int) -> a }", false, true);
+        assertParsable("a + b", false, false);
+        assertParsable("{ a } + { b }", false, false);
+        assertParsable("{ a ", false, false);
+        assertParsable("{ a }}", false, false);
+    }
+
+    public void testReparseOfFunctionBody() {
+        assertReparsedAs(JetNodeTypes.BLOCK, "fun foo() { a + b }", "fun foo() { a + c }");
+    }
+
+    public void testReparseOfFunctionLiteral() {
+        assertReparsedAs(JetNodeTypes.FUNCTION_LITERAL_EXPRESSION, "val f = { (a: Int) -> a }", "val f = { (a: Int) -> a + 1 }");
+    }
+
+    public void testArrowTypedIntoIfBranch() {
+        // The branch becomes a function literal, so it is reparsed together with the function body
+        assertReparsedAs(JetNodeTypes.BLOCK, "fun foo() { if (a) { x } }", "fun foo() { if (a) { x -> x } }");
+    }
+
+    public void testArrowDeletedFromWhenEntry() {
+        // The entry becomes a block, so it is reparsed together with the function body
+        assertReparsedAs(JetNodeTypes.BLOCK, "fun foo() { when (a) { 1 -> { b -> b } } }", "fun foo() { when (a) { 1 -> { b b } } }");
+    }
+
+    public void testFunctionLiteralBodyBecomingGroup() {
+        // The body of the literal becomes a nested literal, so the whole literal is reparsed
+        assertReparsedAs(JetNodeTypes.FUNCTION_LITERAL_EXPRESSION, "val f = foo { a -> b }", "val f = foo { a -> {b} }");
+    }
+
+    public void testFunctionLiteralWithoutParametersIsNotReparsedAlone() {
+        // Outside of a function body there's nothing to reparse but the file
+        assertReparsedAs(null, "val f = { a }", "val f = { b }");
+    }
+
+    private static void assertNotParsed(ASTNode node) {
+        assertInstanceOf(node, LazyParseableElement.class);
+        assertFalse(((LazyParseableElement) node).isParsed());
+    }
+
+    private void assertParsable(String text, boolean asBlock, boolean asLiteral) {
+        assertEquals(text, asBlock, JetNodeTypes.BLOCK.isParsable(text, JetLanguage.INSTANCE, getProject()));
+        assertEquals(text, asLiteral, JetNodeTypes.FUNCTION_LITERAL_EXPRESSION.isParsable(text, JetLanguage.INSTANCE, getProject()));
+    }
+
+    /*
+     * Reparses the edited text the way the IDE does: the innermost reparseable node around the change which accepts its new text
+     * is replaced with a node of the same type. The result must be the same as the node a full parse of the edited text gives
+     */
+    private void assertReparsedAs(@Nullable IElementType expectedType, String before, String after) {
+        int start = 0;
+        while (before.charAt(start) == after.charAt(start)) start++;
+        int suffix = 0;
+        int maxSuffix = Math.min(before.length(), after.length()) - start;
+        while (suffix < maxSuffix && before.charAt(before.length() - suffix - 1) == after.charAt(after.length() - suffix - 1)) suffix++;
+        int lengthShift = after.length() - before.length();
+
+        JetFile file = JetPsiFactory.createFile(getProject(), before);
+        ASTNode node = file.getNode().findLeafElementAt(start);
+        while (node.getTextRange().getEndOffset() < before.length() - suffix) {
+            node = node.getTreeParent();
+        }
+
+        for (; node != file.getNode(); node = node.getTreeParent()) {
+            IElementType type = node.getElementType();
+            if (!(type instanceof IReparseableElementType)) continue;
+
+            TextRange range = node.getTextRange();
+            String newText = after.substring(range.getStartOffset(), range.getEndOffset() + lengthShift);
+            IReparseableElementType reparseable = (IReparseableElementType) type;
+            if (!reparseable.isParsable(newText, JetLanguage.INSTANCE, getProject())) continue;
+
+            ASTNode reparsed = reparseable.createNode(newText);
+            DummyHolder holder = DummyHolderFactory.createHolder(PsiManager.getInstance(getProject()), null);
+            holder.getTreeElement().rawAddChildren((TreeElement) reparsed);
+
+            ASTNode parsed = findNode(JetPsiFactory.createFile(getProject(), after), range.getStartOffset(), newText.length(), type);
+            assertNotNull("Full parse gives another node for " + newText, parsed);
+            assertEquals(DebugUtil.treeToString(parsed, false), DebugUtil.treeToString(reparsed, false));
+
+            assertEquals(expectedType, type);
+            return;
+        }
+        assertNull("The file is reparsed as a whole", expectedType);
+    }
+
+    @Nullable
+    private static ASTNode findNode(JetFile file, int offset, int length, IElementType type) {
+        for (ASTNode node = file.getNode().findLeafElementAt(offset); node != null; node = node.getTreeParent()) {
+            if (node.getStartOffset() != offset) break;
+            if (node.getTextLength() == length && node.getElementType() == type) return node;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.parsing.longTest;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.JetTestUtils;
+import org.jetbrains.jet.TimeUtils;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.lang.psi.JetFile;
+
+/*
+ * Parses generated files where speculative lookahead (when subjects, parenthesized function literal parameters)
+ * has to look past deeply nested calls, doubling the nesting depth each time. The baseline is a file with the same
+ * nesting where no lookahead is needed, its parse time is linear in the depth.
+ *
+ * Lookahead which rescans every nested group makes the time per doubling grow about four times, i.e. quadratically,
+ * and the ratio to the baseline doubles as well. Lookahead which jumps over the groups using the bracket matching table
+ * keeps both growing about two times, and the ratio stays the same.
+ */
+public class ParserLookaheadBenchmark {
+    private static final int WARM_UP_DEPTH = 200;
+    private static final int MIN_DEPTH = 250;
+    private static final int MAX_DEPTH = 4000;
+    private static final int REPEAT = 5;
+
+    // Both the parser and the PSI visitor recurse once per nesting level
+    private static final long STACK_SIZE = 512L * 1024 * 1024;
+
+    public static void main(String[] args) throws InterruptedException {
+        Thread thread = new Thread(null, new Runnable() {
+            @Override
+            public void run() {
+                runBenchmark();
+            }
+        }, "parser lookahead benchmark", STACK_SIZE);
+        thread.start();
+        thread.join();
+    }
+
+    private static void runBenchmark() {
+        Disposable disposable = new Disposable() {
+            @Override
+            public void dispose() { }
+        };
+        try {
+            JetCoreEnvironment environment = JetTestUtils.createEnvironmentWithMockJdkAndIdeaAnnotations(disposable, ConfigurationKind.JDK_ONLY);
+
+            parse(environment, generate(WARM_UP_DEPTH, true));
+            parse(environment, generate(WARM_UP_DEPTH, false));
+
+            long previousLookahead = -1;
+            long previousBaseline = -1;
+            for (int depth = MIN_DEPTH; depth <= MAX_DEPTH; depth *= 2) {
+                String text = generate(depth, true);
+                long timeLookahead = measure(environment, text);
+                long timeBaseline = measure(environment, generate(depth, false));
+
+                System.out.println("depth " + depth + ", " + text.length() / 1024 + "K chars: " +
+                                   "lookahead " + formatTime(timeLookahead, previousLookahead) + ", " +
+                                   "baseline " + formatTime(timeBaseline, previousBaseline) +
+                                   String.format(", %.1f times the baseline", (double) timeLookahead / Math.max(timeBaseline, 1)));
+                previousLookahead = Math.max(timeLookahead, 1);
+                previousBaseline = Math.max(timeBaseline, 1);
+            }
+        }
+        finally {
+            Disposer.dispose(disposable);
+        }
+    }
+
+    private static long measure(JetCoreEnvironment environment, String text) {
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < REPEAT; i++) {
+            parse(environment, text);
+        }
+        return (System.currentTimeMillis() - start) / REPEAT;
+    }
+
+    private static String formatTime(long time, long previous) {
+        return TimeUtils.millisecondsToSecondsString(time) + "s" +
+               (previous > 0 ? String.format(" (x%.1f)", (double) time / previous) : "");
+    }
+
+    private static String generate(int depth, boolean lookahead) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("fun f(a: Any?, b: Any?): Any? = a\n\n");
+
+        // Calls in parentheses and in braces, without and with the constructs which need lookahead
+        sb.append("fun whenSubjects(): Any? = ");
+        for (int i = 0; i < depth; i++) {
+            sb.append(lookahead ? "when (f(" : "(f(").append(i).append(", ");
+        }
+        sb.append("0");
+        for (int i = 0; i < depth; i++) {
+            sb.append(lookahead ? ")) { else -> f(" : ")).let { f(").append(i).append(", null) }");
+        }
+        sb.append("\n\n");
+
+        sb.append("val literals = ");
+        for (int i = 0; i < depth; i++) {
+            sb.append(lookahead ? "{ (f(" : "{ f((").append(i).append(", ");
+        }
+        sb.append("0");
+        for (int i = 0; i < depth; i++) {
+            sb.append(")) }");
+        }
+        sb.append("\n");
+
+        return sb.toString();
+    }
+
+    private static JetFile parse(JetCoreEnvironment environment, String text) {
+        JetFile file = JetTestUtils.createFile("benchmark.kt", text, environment.getProject());
+        // Expand lazily parsed bodies as well
+        file.accept(new PsiElementVisitor() {
+            @Override
+            public void visitElement(PsiElement element) {
+                element.acceptChildren(this);
+            }
+        });
+        return file;
+    }
+}
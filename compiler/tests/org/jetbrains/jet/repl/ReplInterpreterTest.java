@@ -105,6 +105,11 @@ public class ReplInterpreterTest {
         testFile("functionReferencesPrev.repl");
     }
 
+    @Test
+    public void earlierLines() {
+        testFile("earlierLines.repl");
+    }
+
     @Test
     public void twoClosures() {
         testFile("twoClosures.repl");
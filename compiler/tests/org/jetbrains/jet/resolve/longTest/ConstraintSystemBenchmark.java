@@ -0,0 +1,115 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.resolve.longTest;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.Disposer;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.JetTestUtils;
+import org.jetbrains.jet.TimeUtils;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.lang.psi.JetFile;
+import org.jetbrains.jet.lang.resolve.AnalyzerScriptParameter;
+import org.jetbrains.jet.lang.resolve.java.AnalyzerFacadeForJVM;
+
+import java.util.Collections;
+
+/*
+ * Analyzes generated calls of overloaded generic functions with nested generic calls as arguments, doubling the number
+ * of calls each time.
+ *
+ * Every candidate and every attempt to type an argument works with a copy of a constraint system, and the substitutors
+ * ask for the values of the type variables on every substitution. Copies share the constraints until one of them adds
+ * a bound, so the time per doubling must grow about two times and the time per call must stay the same.
+ */
+public class ConstraintSystemBenchmark {
+    private static final int WARM_UP_CALLS = 100;
+    private static final int MIN_CALLS = 250;
+    private static final int MAX_CALLS = 4000;
+    private static final int NESTING_DEPTH = 3;
+    private static final int REPEAT = 3;
+
+    public static void main(String[] args) {
+        Disposable disposable = new Disposable() {
+            @Override
+            public void dispose() { }
+        };
+        try {
+            JetCoreEnvironment environment = JetTestUtils.createEnvironmentWithMockJdkAndIdeaAnnotations(disposable, ConfigurationKind.JDK_ONLY);
+
+            analyze(environment, generate(WARM_UP_CALLS));
+
+            long previous = -1;
+            for (int calls = MIN_CALLS; calls <= MAX_CALLS; calls *= 2) {
+                long time = measure(environment, generate(calls));
+
+                System.out.println(calls + " calls: " + TimeUtils.millisecondsToSecondsString(time) + "s" +
+                                   (previous > 0 ? String.format(" (x%.1f)", (double) time / previous) : "") +
+                                   String.format(", %.3f ms per call", (double) time / calls));
+                previous = Math.max(time, 1);
+            }
+        }
+        finally {
+            Disposer.dispose(disposable);
+        }
+    }
+
+    private static long measure(JetCoreEnvironment environment, String text) {
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < REPEAT; i++) {
+            analyze(environment, text);
+        }
+        return (System.currentTimeMillis() - start) / REPEAT;
+    }
+
+    private static String generate(int calls) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("fun <T> id(t: T): T = t\n");
+        sb.append("class Box<T>(val value: T)\n");
+        sb.append("fun <T> box(t: T): Box<T> = Box(t)\n");
+        sb.append("fun <T> choose(a: T, b: T): T = a\n");
+        sb.append("fun <T> choose(a: T, b: T, c: T): T = a\n");
+        sb.append("fun <T> choose(a: List<T>, b: T): T = b\n\n");
+
+        sb.append("fun f() {\n");
+        for (int i = 0; i < calls; i++) {
+            sb.append("    val v").append(i).append(" = ").append(nestedCall(i, NESTING_DEPTH)).append("\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static String nestedCall(int i, int depth) {
+        if (depth == 0) {
+            return i % 2 == 0 ? "id(" + i + ")" : "id(\"" + i + "\")";
+        }
+        String argument = nestedCall(i, depth - 1);
+        switch (depth % 3) {
+            case 0:
+                return "choose(" + argument + ", id(" + argument + "))";
+            case 1:
+                return "choose(" + argument + ", " + argument + ", id(" + argument + "))";
+            default:
+                return "box(choose(" + argument + ", " + argument + ")).value";
+        }
+    }
+
+    private static void analyze(JetCoreEnvironment environment, String text) {
+        JetFile file = JetTestUtils.createFile("benchmark.kt", text, environment.getProject());
+        AnalyzerFacadeForJVM.analyzeOneFileWithJavaIntegration(file, Collections.<AnalyzerScriptParameter>emptyList());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.resolve.longTest;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.Disposer;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.JetTestUtils;
+import org.jetbrains.jet.TimeUtils;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.lang.psi.JetFile;
+import org.jetbrains.jet.lang.resolve.AnalyzerScriptParameter;
+import org.jetbrains.jet.lang.resolve.java.AnalyzerFacadeForJVM;
+
+import java.util.Collections;
+
+/*
+ * Analyzes generated functions with many nullable parameters, each of them checked for null and then autocast,
+ * doubling the number of checks each time.
+ *
+ * Every check used to derive a data flow info from the previous one, and merges rebuilt complete maps by walking
+ * the whole chain, so the time per doubling grew about four times; with persistent maps it grows about two times.
+ */
+public class DataFlowInfoBenchmark {
+    private static final int WARM_UP_CHECKS = 100;
+    private static final int MIN_CHECKS = 250;
+    private static final int MAX_CHECKS = 4000;
+    private static final int REPEAT = 3;
+
+    public static void main(String[] args) {
+        Disposable disposable = new Disposable() {
+            @Override
+            public void dispose() { }
+        };
+        try {
+            JetCoreEnvironment environment = JetTestUtils.createEnvironmentWithMockJdkAndIdeaAnnotations(disposable, ConfigurationKind.JDK_ONLY);
+
+            analyze(environment, generate(WARM_UP_CHECKS));
+
+            long previous = -1;
+            for (int checks = MIN_CHECKS; checks <= MAX_CHECKS; checks *= 2) {
+                String text = generate(checks);
+
+                long start = System.currentTimeMillis();
+                for (int i = 0; i < REPEAT; i++) {
+                    analyze(environment, text);
+                }
+                long time = (System.currentTimeMillis() - start) / REPEAT;
+
+                System.out.println(checks + " null checks: " + TimeUtils.millisecondsToSecondsString(time) + "s" +
+                                   (previous > 0 ? String.format(" (x%.1f)", (double) time / previous) : ""));
+                previous = Math.max(time, 1);
+            }
+        }
+        finally {
+            Disposer.dispose(disposable);
+        }
+    }
+
+    private static String generate(int checks) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("fun f(");
+        for (int i = 0; i < checks; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("p").append(i).append(": Any?");
+        }
+        sb.append("): Int {\n");
+        sb.append("    var result = 0\n");
+        for (int i = 0; i < checks; i++) {
+            sb.append("    if (p").append(i).append(" == null) return result\n");
+            sb.append("    if (p").append(i).append(" is String && p").append(i).append(".length > 0) result += p")
+                    .append(i).append(".length\n");
+        }
+        sb.append("    return result\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static void analyze(JetCoreEnvironment environment, String text) {
+        JetFile file = JetTestUtils.createFile("benchmark.kt", text, environment.getProject());
+        AnalyzerFacadeForJVM.analyzeOneFileWithJavaIntegration(file, Collections.<AnalyzerScriptParameter>emptyList());
+    }
+}
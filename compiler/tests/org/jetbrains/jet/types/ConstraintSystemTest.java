@@ -0,0 +1,157 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.types;
+
+import com.google.common.base.Functions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.lang.descriptors.FunctionDescriptor;
+import org.jetbrains.jet.lang.descriptors.ModuleDescriptor;
+import org.jetbrains.jet.lang.descriptors.TypeParameterDescriptor;
+import org.jetbrains.jet.lang.psi.JetFile;
+import org.jetbrains.jet.lang.psi.JetPsiFactory;
+import org.jetbrains.jet.lang.resolve.calls.inference.ConstraintPosition;
+import org.jetbrains.jet.lang.resolve.calls.inference.ConstraintSystem;
+import org.jetbrains.jet.lang.resolve.calls.inference.ConstraintSystemImpl;
+import org.jetbrains.jet.lang.resolve.calls.inference.ConstraintsUtil;
+import org.jetbrains.jet.lang.resolve.calls.inference.TypeConstraints;
+import org.jetbrains.jet.lang.resolve.lazy.KotlinTestWithEnvironment;
+import org.jetbrains.jet.lang.resolve.lazy.LazyResolveTestUtil;
+import org.jetbrains.jet.lang.resolve.name.Name;
+import org.jetbrains.jet.lang.types.CommonSupertypes;
+import org.jetbrains.jet.lang.types.JetType;
+import org.jetbrains.jet.lang.types.Variance;
+import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns;
+
+import java.util.Collections;
+import java.util.Set;
+
+public class ConstraintSystemTest extends KotlinTestWithEnvironment {
+    private TypeParameterDescriptor typeVariable;
+    private JetType intType;
+    private JetType stringType;
+    private JetType booleanType;
+
+    @Override
+    protected JetCoreEnvironment createEnvironment() {
+        return createEnvironmentWithMockJdk(ConfigurationKind.JDK_ONLY);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        JetFile jetFile = JetPsiFactory.createFile(getProject(), "fun.kt", "fun <T> f(t: T): T = t");
+        ModuleDescriptor module = LazyResolveTestUtil.resolveLazily(Collections.singletonList(jetFile), getEnvironment());
+        FunctionDescriptor function = ContainerUtil.getFirstItem(module.getRootNamespace().getMemberScope().getFunctions(Name.identifier("f")));
+        assert function != null;
+        typeVariable = function.getTypeParameters().get(0);
+
+        KotlinBuiltIns builtIns = KotlinBuiltIns.getInstance();
+        intType = builtIns.getIntType();
+        stringType = builtIns.getStringType();
+        booleanType = builtIns.getBooleanType();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        typeVariable = null;
+        intType = null;
+        stringType = null;
+        booleanType = null;
+        super.tearDown();
+    }
+
+    public void testCopyIsIsolatedFromOriginal() throws Exception {
+        ConstraintSystem original = createSystemWithLowerBound(intType);
+        ConstraintSystem copy = original.copy();
+
+        addLowerBound(original, stringType);
+        assertEquals(Sets.newHashSet(intType, stringType), getLowerBounds(original));
+        assertEquals(Collections.singleton(intType), getLowerBounds(copy));
+
+        addLowerBound(copy, booleanType);
+        assertEquals(Sets.newHashSet(intType, stringType), getLowerBounds(original));
+        assertEquals(Sets.newHashSet(intType, booleanType), getLowerBounds(copy));
+    }
+
+    public void testSystemWithReplacedTypeVariablesIsIsolatedFromOriginal() throws Exception {
+        ConstraintSystemImpl original = createSystemWithLowerBound(intType);
+        ConstraintSystem replaced = original.replaceTypeVariables(Functions.<TypeParameterDescriptor>identity());
+
+        addLowerBound(replaced, stringType);
+        assertEquals(Collections.singleton(intType), getLowerBounds(original));
+        assertEquals(Sets.newHashSet(intType, stringType), getLowerBounds(replaced));
+    }
+
+    public void testCachedValuesAreInvalidatedByNewBounds() throws Exception {
+        ConstraintSystem original = createSystemWithLowerBound(intType);
+        assertEquals(Collections.singleton(intType), getValues(original));
+        assertEquals(intType, getResultingType(original));
+
+        ConstraintSystem copy = original.copy();
+        addLowerBound(copy, stringType);
+        JetType commonSupertype = CommonSupertypes.commonSupertype(Lists.newArrayList(intType, stringType));
+        assertEquals(Collections.singleton(commonSupertype), getValues(copy));
+        assertEquals(commonSupertype, getResultingType(copy));
+        assertEquals(Collections.singleton(intType), getValues(original));
+
+        addLowerBound(original, booleanType);
+        JetType otherCommonSupertype = CommonSupertypes.commonSupertype(Lists.newArrayList(intType, booleanType));
+        assertEquals(Collections.singleton(otherCommonSupertype), getValues(original));
+        assertEquals(otherCommonSupertype, getResultingType(original));
+    }
+
+    @NotNull
+    private ConstraintSystemImpl createSystemWithLowerBound(@NotNull JetType lowerBound) {
+        ConstraintSystemImpl system = new ConstraintSystemImpl();
+        system.registerTypeVariable(typeVariable, Variance.INVARIANT);
+        addLowerBound(system, lowerBound);
+        return system;
+    }
+
+    private void addLowerBound(@NotNull ConstraintSystem system, @NotNull JetType lowerBound) {
+        system.addSubtypeConstraint(typeVariable.getDefaultType(), lowerBound, ConstraintPosition.getValueParameterPosition(0));
+    }
+
+    @NotNull
+    private Set<JetType> getLowerBounds(@NotNull ConstraintSystem system) {
+        return Sets.newHashSet(getTypeConstraints(system).getLowerBounds());
+    }
+
+    @NotNull
+    private Set<JetType> getValues(@NotNull ConstraintSystem system) {
+        return Sets.newHashSet(ConstraintsUtil.getValues(getTypeConstraints(system)));
+    }
+
+    @NotNull
+    private JetType getResultingType(@NotNull ConstraintSystem system) {
+        JetType type = system.getResultingSubstitutor().substitute(typeVariable.getDefaultType(), Variance.INVARIANT);
+        assert type != null;
+        return type;
+    }
+
+    @NotNull
+    private TypeConstraints getTypeConstraints(@NotNull ConstraintSystem system) {
+        TypeConstraints typeConstraints = system.getTypeConstraints(typeVariable);
+        assert typeConstraints != null;
+        return typeConstraints;
+    }
+}
@@ -27,6 +27,7 @@ import org.jetbrains.jet.lang.descriptors.ModuleDescriptor;
 import org.jetbrains.jet.lang.psi.JetNamedFunction;
 import org.jetbrains.jet.lang.psi.JetPsiFactory;
 import org.jetbrains.jet.lang.resolve.DescriptorResolver;
+import org.jetbrains.jet.lang.resolve.OverrideGraph;
 import org.jetbrains.jet.lang.resolve.OverridingUtil;
 import org.jetbrains.jet.lang.resolve.name.Name;
 import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns;
@@ -155,6 +156,20 @@ public class JetOverridingTest extends JetLiteFixture {
 
     }
 
+    public void testSignatureKeys() throws Exception {
+        assertNotOverridable(
+                "fun a(a : Int) : Int",
+                "fun a(a : Int, b : Int) : Int");
+        assertFalse(OverrideGraph.getSignatureKey(makeFunction("fun a(a : Int) : Int")).equals(
+                OverrideGraph.getSignatureKey(makeFunction("fun a(a : Int, b : Int) : Int"))));
+
+        assertNotOverridable(
+                "fun a<T>(a : T) : Int",
+                "fun a(a : Any?) : Int");
+        assertEquals(OverrideGraph.getSignatureKey(makeFunction("fun Int.a() : Int")),
+                     OverrideGraph.getSignatureKey(makeFunction("fun a(a : Int) : Int")));
+    }
+
     private void assertOverridable(String superFun, String subFun) {
         assertOverridabilityRelation(superFun, subFun, false);
     }
@@ -168,6 +183,9 @@ public class JetOverridingTest extends JetLiteFixture {
         FunctionDescriptor b = makeFunction(subFun);
         OverridingUtil.OverrideCompatibilityInfo overridableWith = OverridingUtil.isOverridableBy(a, b);
         assertEquals(overridableWith.getMessage(), expectedIsError, overridableWith.getResult() != OverridingUtil.OverrideCompatibilityInfo.Result.OVERRIDABLE);
+        if (overridableWith.getResult() != OverridingUtil.OverrideCompatibilityInfo.Result.INCOMPATIBLE) {
+            assertEquals(OverrideGraph.getSignatureKey(a), OverrideGraph.getSignatureKey(b));
+        }
     }
 
     private FunctionDescriptor makeFunction(String funDecl) {
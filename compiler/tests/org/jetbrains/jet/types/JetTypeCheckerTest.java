@@ -27,10 +27,7 @@ import org.jetbrains.jet.JetTestUtils;
 import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
 import org.jetbrains.jet.di.InjectorForJavaSemanticServices;
 import org.jetbrains.jet.di.InjectorForTests;
-import org.jetbrains.jet.lang.descriptors.ModuleDescriptor;
-import org.jetbrains.jet.lang.descriptors.NamespaceDescriptor;
-import org.jetbrains.jet.lang.descriptors.ReceiverParameterDescriptor;
-import org.jetbrains.jet.lang.descriptors.ReceiverParameterDescriptorImpl;
+import org.jetbrains.jet.lang.descriptors.*;
 import org.jetbrains.jet.lang.psi.JetExpression;
 import org.jetbrains.jet.lang.psi.JetPsiFactory;
 import org.jetbrains.jet.lang.resolve.DescriptorResolver;
@@ -43,11 +40,10 @@ import org.jetbrains.jet.lang.resolve.name.FqName;
 import org.jetbrains.jet.lang.resolve.name.Name;
 import org.jetbrains.jet.lang.resolve.scopes.*;
 import org.jetbrains.jet.lang.resolve.scopes.receivers.ExpressionReceiver;
-import org.jetbrains.jet.lang.types.CommonSupertypes;
-import org.jetbrains.jet.lang.types.ErrorUtils;
-import org.jetbrains.jet.lang.types.JetType;
-import org.jetbrains.jet.lang.types.TypeUtils;
+import org.jetbrains.jet.lang.types.*;
 import org.jetbrains.jet.lang.types.checker.JetTypeChecker;
+import org.jetbrains.jet.lang.types.checker.SubtypingCache;
+import org.jetbrains.jet.lang.types.checker.TypeCheckingProcedure;
 import org.jetbrains.jet.lang.types.expressions.ExpressionTypingServices;
 import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns;
 
@@ -524,6 +520,123 @@ public class JetTypeCheckerTest extends JetLiteFixture {
         assertSubtype("Base_inT<out Any?>", "Base_inT<out Int>");
     }
 
+    public void testCorrespondingSupertype() throws Exception {
+        JetType subtype = makeType(scopeWithImports, "DDerived1_T<Int>");
+        JetType supertype = makeType(scopeWithImports, "Base_T<Any>");
+        assertEquals(makeType(scopeWithImports, "Base_T<Int>"), TypeCheckingProcedure.findCorrespondingSupertype(subtype, supertype));
+        assertNull(TypeCheckingProcedure.findCorrespondingSupertype(subtype, makeType(scopeWithImports, "Base_inT<Int>")));
+    }
+
+    public void testRepeatedChecksOnSameTypes() throws Exception {
+        JetType subtype = makeType(scopeWithImports, "Derived_T<Int>");
+        JetType supertype = makeType(scopeWithImports, "Base_T<out Any>");
+        JetType notSupertype = makeType(scopeWithImports, "Base_T<String>");
+        assertTrue(SubtypingCache.startSession());
+        try {
+            assertFalse(SubtypingCache.startSession());
+            for (int i = 0; i < 3; i++) {
+                assertTrue(JetTypeChecker.INSTANCE.isSubtypeOf(subtype, supertype));
+                assertFalse(JetTypeChecker.INSTANCE.isSubtypeOf(subtype, notSupertype));
+            }
+        }
+        finally {
+            SubtypingCache.finishSession();
+        }
+    }
+
+    public void testSupertypesAddedAfterFirstCheck() throws Exception {
+        MutableClassDescriptor klass = new MutableClassDescriptor(
+                new ModuleDescriptor(Name.special("<test_root>")), scopeWithImports, ClassKind.CLASS, false, Name.identifier("Late"));
+        klass.setModality(Modality.FINAL);
+        klass.setVisibility(Visibilities.PUBLIC);
+        klass.setTypeParameterDescriptors(Collections.<TypeParameterDescriptor>emptyList());
+        klass.createTypeConstructor();
+
+        JetType late = klass.getDefaultType();
+        JetType base = makeType(scopeWithImports, "Base_T<Int>");
+        TypeConstructorImpl constructor = (TypeConstructorImpl) late.getConstructor();
+
+        assertTrue(SubtypingCache.startSession());
+        try {
+            // The hierarchy is incomplete, so the answer must not be remembered
+            assertFalse(JetTypeChecker.INSTANCE.isSubtypeOf(late, base));
+            assertNull(constructor.getSupertypeTable());
+
+            klass.addSupertype(base);
+            assertTrue(JetTypeChecker.INSTANCE.isSubtypeOf(late, base));
+
+            klass.lockSupertypes();
+            assertNotNull(constructor.getSupertypeTable());
+            assertTrue(JetTypeChecker.INSTANCE.isSubtypeOf(late, base));
+            assertTrue(JetTypeChecker.INSTANCE.isSubtypeOf(late, makeType(scopeWithImports, "Base_T<out Any>")));
+        }
+        finally {
+            SubtypingCache.finishSession();
+        }
+    }
+
+    public void testSupertypeTableWithUnlockedAncestor() throws Exception {
+        MutableClassDescriptor parent = createClass("Parent");
+        MutableClassDescriptor child = createClass("Child");
+        child.addSupertype(parent.getDefaultType());
+        child.lockSupertypes();
+
+        TypeConstructorImpl constructor = (TypeConstructorImpl) child.getDefaultType().getConstructor();
+        assertNull(constructor.getSupertypeTable());
+
+        // The failure is remembered, the table is not built again on every check
+        parent.lockSupertypes();
+        assertNull(constructor.getSupertypeTable());
+        assertTrue(JetTypeChecker.INSTANCE.isSubtypeOf(child.getDefaultType(), parent.getDefaultType()));
+    }
+
+    private MutableClassDescriptor createClass(String name) {
+        MutableClassDescriptor klass = new MutableClassDescriptor(
+                new ModuleDescriptor(Name.special("<test_root>")), scopeWithImports, ClassKind.CLASS, false, Name.identifier(name));
+        klass.setModality(Modality.OPEN);
+        klass.setVisibility(Visibilities.PUBLIC);
+        klass.setTypeParameterDescriptors(Collections.<TypeParameterDescriptor>emptyList());
+        klass.createTypeConstructor();
+        return klass;
+    }
+
+    public void testInternedTypes() throws Exception {
+        JetType listOfString;
+        assertTrue(TypeInterner.startSession());
+        try {
+            assertFalse(TypeInterner.startSession());
+
+            listOfString = TypeInterner.intern(makeType("List<String>"));
+            assertSame(listOfString, TypeInterner.intern(makeType("List<String>")));
+            assertSame(listOfString, TypeUtils.makeNotNullable(TypeUtils.makeNullable(listOfString)));
+
+            JetType listOfInt = TypeInterner.intern(makeType("List<Int>"));
+            assertNotSame(listOfString, listOfInt);
+            assertFalse(listOfString.equals(listOfInt));
+
+            JetType listOfOutString = makeType("List<out String>");
+            assertSame(listOfOutString, TypeInterner.intern(listOfOutString));
+        }
+        finally {
+            TypeInterner.finishSession();
+        }
+
+        // Nothing is interned outside of a session
+        JetType otherListOfString = makeType("List<String>");
+        assertSame(otherListOfString, TypeInterner.intern(otherListOfString));
+
+        // Types interned in different sessions are compared structurally
+        assertTrue(TypeInterner.startSession());
+        try {
+            JetType nextListOfString = TypeInterner.intern(makeType("List<String>"));
+            assertNotSame(listOfString, nextListOfString);
+            assertEquals(listOfString, nextListOfString);
+        }
+        finally {
+            TypeInterner.finishSession();
+        }
+    }
+
 ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     private void assertSupertypes(String typeStr, String... supertypeStrs) {
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.util;
+
+import com.google.common.collect.Maps;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+public class HashTrieMapTest {
+
+    private static final HashTrieMap.Merger<Object, Integer> SUM = new HashTrieMap.Merger<Object, Integer>() {
+        @Override
+        public Integer merge(Object key, Integer value, Integer otherValue) {
+            if (value.equals(otherValue)) return value;
+            return value + otherValue;
+        }
+    };
+
+    private static final HashTrieMap.Merger<Object, Integer> SUM_OF_EVEN = new HashTrieMap.Merger<Object, Integer>() {
+        @Override
+        public Integer merge(Object key, Integer value, Integer otherValue) {
+            if (value.equals(otherValue)) return value;
+            int sum = value + otherValue;
+            return sum % 2 == 0 ? sum : null;
+        }
+    };
+
+    private static class CollidingKey {
+        private final int id;
+
+        private CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id % 3;
+        }
+    }
+
+    @Test
+    public void plusAndGet() {
+        HashTrieMap<Integer, String> map = HashTrieMap.empty();
+        for (int i = 0; i < 10000; i++) {
+            map = map.plus(i * 31, "v" + i);
+        }
+        Assert.assertEquals(10000, map.size());
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertEquals("v" + i, map.get(i * 31));
+        }
+        Assert.assertNull(map.get(1));
+    }
+
+    @Test
+    public void oldVersionIsNotChanged() {
+        HashTrieMap<String, Integer> first = HashTrieMap.<String, Integer>empty().plus("a", 1);
+        HashTrieMap<String, Integer> second = first.plus("a", 2).plus("b", 3);
+
+        Assert.assertEquals(1, first.size());
+        Assert.assertEquals(Integer.valueOf(1), first.get("a"));
+        Assert.assertNull(first.get("b"));
+
+        Assert.assertEquals(2, second.size());
+        Assert.assertEquals(Integer.valueOf(2), second.get("a"));
+        Assert.assertEquals(Integer.valueOf(3), second.get("b"));
+    }
+
+    @Test
+    public void equalValueKeepsMap() {
+        HashTrieMap<String, String> map = HashTrieMap.<String, String>empty().plus("a", "x");
+        Assert.assertSame(map, map.plus("a", new String("x")));
+    }
+
+    @Test
+    public void collisions() {
+        HashTrieMap<CollidingKey, Integer> map = HashTrieMap.empty();
+        for (int i = 0; i < 100; i++) {
+            map = map.plus(new CollidingKey(i), i);
+        }
+        map = map.plus(new CollidingKey(50), -50);
+
+        Assert.assertEquals(100, map.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(Integer.valueOf(i == 50 ? -50 : i), map.get(new CollidingKey(i)));
+        }
+
+        Map<CollidingKey, Integer> entries = Maps.newHashMap();
+        for (Map.Entry<CollidingKey, Integer> entry : map) {
+            entries.put(entry.getKey(), entry.getValue());
+        }
+        Assert.assertEquals(100, entries.size());
+    }
+
+    @Test
+    public void unionAndIntersection() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            HashTrieMap<Object, Integer> common = HashTrieMap.empty();
+            for (int i = 0; i < 200; i++) {
+                common = common.plus(random.nextInt(1000), random.nextInt(10));
+            }
+            HashTrieMap<Object, Integer> first = common;
+            HashTrieMap<Object, Integer> second = common;
+            for (int i = 0; i < 50; i++) {
+                first = first.plus(random.nextInt(1000), random.nextInt(10));
+                second = second.plus(random.nextInt(1000), random.nextInt(10));
+                first = first.plus(new CollidingKey(random.nextInt(30)), random.nextInt(10));
+                second = second.plus(new CollidingKey(random.nextInt(30)), random.nextInt(10));
+            }
+
+            Map<Object, Integer> firstEntries = toMap(first);
+            Map<Object, Integer> secondEntries = toMap(second);
+
+            Map<Object, Integer> expectedUnion = Maps.newHashMap(secondEntries);
+            Map<Object, Integer> expectedIntersection = Maps.newHashMap();
+            for (Map.Entry<Object, Integer> entry : firstEntries.entrySet()) {
+                Integer otherValue = secondEntries.get(entry.getKey());
+                if (otherValue == null) {
+                    expectedUnion.put(entry.getKey(), entry.getValue());
+                    continue;
+                }
+                expectedUnion.put(entry.getKey(), SUM.merge(entry.getKey(), entry.getValue(), otherValue));
+                Integer merged = SUM_OF_EVEN.merge(entry.getKey(), entry.getValue(), otherValue);
+                if (merged != null) {
+                    expectedIntersection.put(entry.getKey(), merged);
+                }
+            }
+
+            assertMapContents(expectedUnion, first.union(second, SUM));
+            assertMapContents(expectedIntersection, first.intersection(second, SUM_OF_EVEN));
+        }
+    }
+
+    @Test
+    public void mergeKeepsSharedSubtrees() {
+        HashTrieMap<Object, Integer> common = HashTrieMap.empty();
+        for (int i = 0; i < 10000; i++) {
+            common = common.plus(i, i);
+        }
+        HashTrieMap<Object, Integer> extended = common.plus(-1, 1);
+        HashTrieMap<Object, Integer> changed = extended.plus(5, 7).plus(6, 7);
+
+        Assert.assertSame(common, common.union(common, SUM));
+        Assert.assertSame(common, common.intersection(common, SUM));
+        Assert.assertSame(extended, common.union(extended, SUM));
+        Assert.assertSame(common, common.intersection(extended, SUM_OF_EVEN));
+
+        HashTrieMap<Object, Integer> intersection = common.intersection(changed, SUM_OF_EVEN);
+        Assert.assertEquals(9999, intersection.size());
+        Assert.assertEquals(Integer.valueOf(12), intersection.get(5));
+        Assert.assertNull(intersection.get(6));
+        Assert.assertNull(intersection.get(-1));
+        Assert.assertEquals(Integer.valueOf(7), intersection.get(7));
+    }
+
+    @Test
+    public void iteratorVisitsEachEntryOnce() {
+        HashTrieMap<Object, Integer> map = HashTrieMap.empty();
+        Assert.assertFalse(map.iterator().hasNext());
+        for (int i = 0; i < 1000; i++) {
+            map = map.plus(i, i).plus(new CollidingKey(i), -i);
+        }
+
+        Iterator<Map.Entry<Object, Integer>> iterator = map.iterator();
+        int count = 0;
+        while (iterator.hasNext()) {
+            Map.Entry<Object, Integer> entry = iterator.next();
+            Assert.assertEquals(entry.getValue(), map.get(entry.getKey()));
+            count++;
+        }
+        Assert.assertEquals(2000, count);
+        Assert.assertEquals(2000, toMap(map).size());
+    }
+
+    private static Map<Object, Integer> toMap(HashTrieMap<Object, Integer> map) {
+        Map<Object, Integer> entries = Maps.newHashMap();
+        for (Map.Entry<Object, Integer> entry : map) {
+            entries.put(entry.getKey(), entry.getValue());
+        }
+        return entries;
+    }
+
+    private static void assertMapContents(Map<Object, Integer> expected, HashTrieMap<Object, Integer> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        Assert.assertEquals(expected, toMap(actual));
+        for (Map.Entry<Object, Integer> entry : expected.entrySet()) {
+            Assert.assertEquals(entry.getValue(), actual.get(entry.getKey()));
+        }
+    }
+}
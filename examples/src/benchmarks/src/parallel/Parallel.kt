@@ -0,0 +1,65 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package parallel_kotlin
+
+import kotlin.util.*
+import kotlin.concurrent.*
+
+// Compares the parallel operations of kotlin.concurrent with the sequential ones on large inputs
+
+fun work(n: Int): Double {
+    var x = n.toDouble()
+    for (i in 0..99) {
+        x = Math.sqrt(x + i)
+    }
+    return x
+}
+
+fun main(args: Array<String>) {
+    val size = if (args.size > 0) Integer.parseInt(args[0]) else 1000000
+    val numbers = (0..size - 1).toList()
+
+    for (run in 0..4) {
+        println("Run $run, $size elements")
+
+        var sequential = 0.0
+        var parallel = 0.0
+        report("map", measureTimeMillis { sequential = numbers.map { work(it) }[size - 1] },
+                      measureTimeMillis { parallel = numbers.parallelMap { work(it) }[size - 1] })
+        check(sequential == parallel)
+
+        var sequentialCount = 0
+        var parallelCount = 0
+        report("filter", measureTimeMillis { sequentialCount = numbers.filter { work(it) > 1.5 }.size() },
+                         measureTimeMillis { parallelCount = numbers.parallelFilter { work(it) > 1.5 }.size() })
+        check(sequentialCount == parallelCount)
+
+        var sequentialSum = 0.toLong()
+        var parallelSum = 0.toLong()
+        val longs = numbers.map { it.toLong() }
+        report("reduce", measureTimeMillis { sequentialSum = longs.reduce { (a, b) -> a + b } },
+                         measureTimeMillis { parallelSum = longs.parallelReduce { (a, b) -> a + b } })
+        check(sequentialSum == parallelSum)
+
+        report("forEach", measureTimeMillis { numbers.forEach { work(it) } },
+                          measureTimeMillis { numbers.parallelForEach { work(it) } })
+    }
+}
+
+fun report(operation: String, sequentialMillis: Long, parallelMillis: Long) {
+    println("  $operation: sequential $sequentialMillis ms, parallel $parallelMillis ms")
+}
@@ -44,7 +44,7 @@ public class JetFoldingBuilder extends FoldingBuilderEx implements DumbAware {
     private static void appendDescriptors(ASTNode node, Document document, List<FoldingDescriptor> descriptors) {
         TextRange textRange = node.getTextRange();
         IElementType type = node.getElementType();
-        if ((type == JetNodeTypes.BLOCK || type == JetNodeTypes.CLASS_BODY) &&
+        if ((type == JetNodeTypes.BLOCK || type == JetNodeTypes.BRACELESS_BLOCK || type == JetNodeTypes.CLASS_BODY) &&
             !isOneLine(textRange, document)) {
             descriptors.add(new FoldingDescriptor(node, textRange));
         }
@@ -45,6 +45,7 @@ public class JetBlock extends AbstractBlock {
 
     private static final TokenSet CODE_BLOCKS = TokenSet.create(
             BLOCK,
+            BRACELESS_BLOCK,
             CLASS_BODY,
             FUNCTION_LITERAL);
 
@@ -145,13 +146,13 @@ public class JetBlock extends AbstractBlock {
         JetCodeStyleSettings jetSettings = mySettings.getCustomSettings(JetCodeStyleSettings.class);
         int spacesInSimpleMethod = jetSettings.INSERT_WHITESPACES_IN_SIMPLE_ONE_LINE_METHOD ? 1 : 0;
 
-        if (parentType == FUNCTION_LITERAL && child1Type == LBRACE && child2Type == BLOCK) {
+        if (parentType == FUNCTION_LITERAL && child1Type == LBRACE && child2Type == BRACELESS_BLOCK) {
             return Spacing.createDependentLFSpacing(
                     spacesInSimpleMethod, spacesInSimpleMethod, this.getTextRange(),
                     mySettings.KEEP_LINE_BREAKS, mySettings.KEEP_BLANK_LINES_IN_CODE);
         }
 
-        if (parentType == FUNCTION_LITERAL && child1Type == ARROW && child2Type == BLOCK) {
+        if (parentType == FUNCTION_LITERAL && child1Type == ARROW && child2Type == BRACELESS_BLOCK) {
             return Spacing.createDependentLFSpacing(1, 1, this.getTextRange(), mySettings.KEEP_LINE_BREAKS, mySettings.KEEP_BLANK_LINES_IN_CODE);
         }
 
@@ -293,13 +294,13 @@ public class JetBlock extends AbstractBlock {
 
     static ASTIndentStrategy[] INDENT_RULES = new ASTIndentStrategy[] {
             ASTIndentStrategy.forNode("No indent for braces in blocks")
-                    .in(BLOCK, CLASS_BODY, FUNCTION_LITERAL)
+                    .in(BLOCK, BRACELESS_BLOCK, CLASS_BODY, FUNCTION_LITERAL)
                     .forType(RBRACE, LBRACE)
                     .set(Indent.getNoneIndent()),
 
             ASTIndentStrategy.forNode("Indent for block content")
-                    .in(BLOCK, CLASS_BODY, FUNCTION_LITERAL)
-                    .notForType(RBRACE, LBRACE, BLOCK)
+                    .in(BLOCK, BRACELESS_BLOCK, CLASS_BODY, FUNCTION_LITERAL)
+                    .notForType(RBRACE, LBRACE, BLOCK, BRACELESS_BLOCK)
                     .set(Indent.getNormalIndent()),
 
             ASTIndentStrategy.forNode("Indent for property accessors")
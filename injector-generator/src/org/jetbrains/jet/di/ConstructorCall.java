@@ -26,10 +26,12 @@ import java.util.Iterator;
 import java.util.List;
 
 public class ConstructorCall implements Expression {
+    private final Field field;
     private final Constructor<?> constructor;
     private final List<Field> constructorArguments = Lists.newArrayList();
 
-    ConstructorCall(Constructor<?> constructor) {
+    ConstructorCall(Field field, Constructor<?> constructor) {
+        this.field = field;
         this.constructor = constructor;
     }
 
@@ -48,7 +50,8 @@ public class ConstructorCall implements Expression {
         StringBuilder builder = new StringBuilder("new " + constructor.getDeclaringClass().getSimpleName() + "(");
         for (Iterator<Field> iterator = constructorArguments.iterator(); iterator.hasNext(); ) {
             Field argument = iterator.next();
-            if (argument.isPublic()) {
+            // Per-thread fields are created in a static class, which gets the shared fields as constructor parameters
+            if (argument.isPublic() && !field.isPerThread()) {
                 builder.append(argument.getGetterName()).append("()");
             }
             else {
@@ -39,15 +39,29 @@ import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.util.*;
 
+/**
+ * Generates an injector class which creates and wires the components given to it, and the components they depend on.
+ *
+ * Components are shared by all threads using the injector by default. Components added as per-thread are created once
+ * for each thread which asks for them, in a static nested class of the injector kept in a ThreadLocal: mutable resolvers
+ * can be made per-thread, so that several threads can use one injector. The nested class gets the shared components it
+ * needs as constructor parameters and doesn't reference the injector, so the components of other threads are dropped
+ * once the injector is collected; destroy() drops the components of the calling thread right away.
+ * Per-thread components can depend on shared ones, but not the other way round. Dependencies which are not added
+ * explicitly are shared if some shared component needs them, and per-thread otherwise.
+ */
 public class DependencyInjectorGenerator {
 
     public static final String INDENT_STEP = "    ";
     private static final String LOCK_NAME = "__lock__";
+    private static final String PER_THREAD_CLASS_NAME = "PerThread";
+    private static final String PER_THREAD_FIELD_NAME = "perThread";
 
     private final boolean lazy;
     private final Multimap<DiType, Field> typeToField = HashMultimap.create();
     private final Set<Field> satisfied = Sets.newHashSet();
     private final Set<Field> fields = Sets.newLinkedHashSet();
+    private final Set<Field> implicitFields = Sets.newHashSet();
     private final Set<Parameter> parameters = Sets.newLinkedHashSet();
 
     private final Set<Field> backsParameter = Sets.newHashSet();
@@ -88,6 +102,8 @@ public class DependencyInjectorGenerator {
             for (Field field : Lists.newArrayList(fields)) {
                 satisfyDependenciesFor(field, field);
             }
+            inferScopeOfImplicitFields();
+            checkPerThreadFields();
 
             String copyright = "injector-generator/copyright.txt";
             out.println(FileUtil.loadFile(new File(copyright)));
@@ -113,6 +129,9 @@ public class DependencyInjectorGenerator {
             generateDestroy(injectorClassName, out);
             out.println();
             generateGetters(out);
+            if (!getPerThreadFields().isEmpty()) {
+                generatePerThreadClass(out);
+            }
 // Needed to fix double-checked locking
 //            out.println();
 //            generateMakeFunction(out);
@@ -225,6 +244,124 @@ public class DependencyInjectorGenerator {
         return field;
     }
 
+    public Field addPublicPerThreadField(Class<?> type) {
+        return addPerThreadField(true, new DiType(type));
+    }
+
+    public Field addPerThreadField(Class<?> type) {
+        return addPerThreadField(false, new DiType(type));
+    }
+
+    public Field addPerThreadField(boolean isPublic, DiType type) {
+        Field field = addField(isPublic, type, null, null);
+        field.setPerThread(true);
+        return field;
+    }
+
+    @NotNull
+    private List<Field> getPerThreadFields() {
+        List<Field> result = Lists.newArrayList();
+        for (Field field : fields) {
+            if (field.isPerThread()) {
+                result.add(field);
+            }
+        }
+        return result;
+    }
+
+    @NotNull
+    private List<Field> getSharedFields() {
+        List<Field> result = Lists.newArrayList();
+        for (Field field : fields) {
+            if (!field.isPerThread()) {
+                result.add(field);
+            }
+        }
+        return result;
+    }
+
+    private void checkPerThreadFields() {
+        List<Field> perThreadFields = getPerThreadFields();
+        if (perThreadFields.isEmpty()) return;
+
+        if (lazy) {
+            throw new IllegalStateException("Per-thread fields are not supported in lazy injectors: " + perThreadFields);
+        }
+
+        for (Field field : perThreadFields) {
+            if (!getPreDestroyMethods(getEffectiveFieldType(field).getClazz()).isEmpty()) {
+                throw new IllegalArgumentException("Per-thread field can't have @PreDestroy methods: " + field);
+            }
+        }
+
+        for (Field field : getSharedFields()) {
+            for (Field dependency : getDependencies(field)) {
+                if (dependency.isPerThread()) {
+                    throw new IllegalArgumentException(
+                            "Shared field " + field + " depends on per-thread field " + dependency +
+                            ": add the shared field as per-thread, or add the dependency explicitly as shared");
+                }
+            }
+        }
+    }
+
+    /*
+     * The scope doesn't depend on the order in which the fields needing an implicit field were added
+     */
+    private void inferScopeOfImplicitFields() {
+        Set<Field> shared = Sets.newHashSet();
+        Deque<Field> queue = new ArrayDeque<Field>();
+        for (Field field : fields) {
+            if (!field.isPerThread() && !implicitFields.contains(field)) {
+                queue.add(field);
+            }
+        }
+        while (!queue.isEmpty()) {
+            for (Field dependency : getDependencies(queue.poll())) {
+                if (implicitFields.contains(dependency) && shared.add(dependency)) {
+                    queue.add(dependency);
+                }
+            }
+        }
+        for (Field field : implicitFields) {
+            field.setPerThread(!shared.contains(field));
+        }
+    }
+
+    @NotNull
+    private static List<Field> getDependencies(@NotNull Field field) {
+        List<Field> dependencies = Lists.newArrayList();
+        if (field.getInitialization() instanceof ConstructorCall) {
+            dependencies.addAll(((ConstructorCall) field.getInitialization()).getConstructorArguments());
+        }
+        for (SetterDependency dependency : field.getDependencies()) {
+            dependencies.add(dependency.getDependency());
+        }
+        return dependencies;
+    }
+
+    /*
+     * Shared fields which per-thread fields depend on, in the order of the fields of the injector
+     */
+    @NotNull
+    private List<Field> getSharedFieldsNeededPerThread() {
+        Set<Field> needed = Sets.newHashSet();
+        for (Field field : getPerThreadFields()) {
+            for (Field dependency : getDependencies(field)) {
+                if (!dependency.isPerThread()) {
+                    needed.add(dependency);
+                }
+            }
+        }
+        List<Field> result = Lists.newArrayList();
+        for (Field field : fields) {
+            if (needed.contains(field)) {
+                result.add(field);
+            }
+        }
+        return result;
+    }
+
     private void generateImports(PrintStream out, String injectorPackageName) {
         for (Field field : fields) {
             generateImportDirectives(out, field.getType(), injectorPackageName);
@@ -271,10 +408,32 @@ public class DependencyInjectorGenerator {
     }
 
     private void generateFields(PrintStream out) {
-        for (Field field : fields) {
+        generateFields(out, "    ", getSharedFields());
+        if (!getPerThreadFields().isEmpty()) {
+            String threadLocalType = "ThreadLocal<" + PER_THREAD_CLASS_NAME + ">";
+            out.println("    private final " + threadLocalType + " " + PER_THREAD_FIELD_NAME + " = new " + threadLocalType + "() {");
+            out.println("        @Override");
+            out.println("        protected " + PER_THREAD_CLASS_NAME + " initialValue() {");
+            out.println("            return new " + PER_THREAD_CLASS_NAME + "(" + renderNames(getSharedFieldsNeededPerThread()) + ");");
+            out.println("        }");
+            out.println("    };");
+        }
+    }
+
+    private void generateFields(PrintStream out, String indent, Collection<Field> fieldsToGenerate) {
+        for (Field field : fieldsToGenerate) {
             String _final = backsParameter.contains(field) ? "final " : "";
-            out.println("    private " + _final + getEffectiveFieldType(field).getSimpleName() + " " + field.getName() + ";");
+            out.println(indent + "private " + _final + getEffectiveFieldType(field).getSimpleName() + " " + field.getName() + ";");
+        }
+    }
+
+    @NotNull
+    private static String renderNames(@NotNull Collection<Field> fieldsToRender) {
+        List<String> names = Lists.newArrayList();
+        for (Field field : fieldsToRender) {
+            names.add(field.getName());
         }
+        return StringUtil.join(names, ", ");
     }
 
     private static DiType getEffectiveFieldType(Field field) {
@@ -313,39 +472,58 @@ public class DependencyInjectorGenerator {
             }
         }
         else {
-            // Initialize fields
-            for (Field field : fields) {
-                //if (!backsParameter.contains(field) || field.isPublic()) {
-                    String prefix = "this.";
-                    out.println(indent + prefix + field.getName() + " = " + field.getInitialization().renderAsCode() + ";");
-                //}
-            }
-            out.println();
+            generateInitialization(out, indent, getSharedFields());
+        }
 
-            // Call setters
-            for (Field field : fields) {
-                for (SetterDependency dependency : field.getDependencies()) {
-                    String prefix = field.isPublic() ? "this." : "";
-                    out.println(indent + prefix + dependency.getDependent().getName() + "." + dependency.getSetterName() + "(" + dependency.getDependency().getName() + ");");
-                }
-                if (!field.getDependencies().isEmpty()) {
-                    out.println();
-                }
+        out.println("    }");
+    }
+
+    private static void generateInitialization(PrintStream out, String indent, Collection<Field> fieldsToInitialize) {
+        // Initialize fields
+        for (Field field : fieldsToInitialize) {
+            //if (!backsParameter.contains(field) || field.isPublic()) {
+                String prefix = "this.";
+                out.println(indent + prefix + field.getName() + " = " + field.getInitialization().renderAsCode() + ";");
+            //}
+        }
+        out.println();
+
+        // Call setters
+        for (Field field : fieldsToInitialize) {
+            for (SetterDependency dependency : field.getDependencies()) {
+                String prefix = field.isPublic() ? "this." : "";
+                out.println(indent + prefix + dependency.getDependent().getName() + "." + dependency.getSetterName() + "(" + dependency.getDependency().getName() + ");");
             }
+            if (!field.getDependencies().isEmpty()) {
+                out.println();
+            }
+        }
 
-            // call @PostConstruct
-            for (Field field : fields) {
-                // TODO: type of field may be different from type of object
-                List<Method> postConstructMethods = getPostConstructMethods(getEffectiveFieldType(field).getClazz());
-                for (Method postConstruct : postConstructMethods) {
-                    out.println(indent + field.getName() + "." + postConstruct.getName() + "();");
-                }
-                if (postConstructMethods.size() > 0) {
-                    out.println();
-                }
+        // call @PostConstruct
+        for (Field field : fieldsToInitialize) {
+            // TODO: type of field may be different from type of object
+            List<Method> postConstructMethods = getPostConstructMethods(getEffectiveFieldType(field).getClazz());
+            for (Method postConstruct : postConstructMethods) {
+                out.println(indent + field.getName() + "." + postConstruct.getName() + "();");
+            }
+            if (postConstructMethods.size() > 0) {
+                out.println();
             }
         }
+    }
 
+    private void generatePerThreadClass(PrintStream out) {
+        List<Field> perThreadFields = getPerThreadFields();
+        out.println("    private static class " + PER_THREAD_CLASS_NAME + " {");
+        generateFields(out, "        ", perThreadFields);
+        out.println();
+        List<String> constructorParameters = Lists.newArrayList();
+        for (Field field : getSharedFieldsNeededPerThread()) {
+            constructorParameters.add(getEffectiveFieldType(field).getSimpleName() + " " + field.getName());
+        }
+        out.println("        " + PER_THREAD_CLASS_NAME + "(" + StringUtil.join(constructorParameters, ", ") + ") {");
+        generateInitialization(out, "            ", perThreadFields);
+        out.println("        }");
         out.println("    }");
     }
 
@@ -373,7 +551,7 @@ public class DependencyInjectorGenerator {
     private void generateDestroy(@NotNull String injectorClassName, @NotNull PrintStream out) {
         out.println("    @PreDestroy");
         out.println("    public void destroy() {");
-        for (Field field : fields) {
+        for (Field field : getSharedFields()) {
             // TODO: type of field may be different from type of object
             List<Method> preDestroyMethods = getPreDestroyMethods(getEffectiveFieldType(field).getClazz());
             for (Method preDestroy : preDestroyMethods) {
@@ -383,6 +561,9 @@ public class DependencyInjectorGenerator {
                 out.println();
             }
         }
+        if (!getPerThreadFields().isEmpty()) {
+            out.println("        " + PER_THREAD_FIELD_NAME + ".remove();");
+        }
         out.println("    }");
     }
 
@@ -430,7 +611,12 @@ public class DependencyInjectorGenerator {
                 */
             }
 
-            out.println(indent1 + "return this." + field.getName() + ";");
+            if (field.isPerThread()) {
+                out.println(indent1 + "return " + PER_THREAD_FIELD_NAME + ".get()." + field.getName() + ";");
+            }
+            else {
+                out.println(indent1 + "return this." + field.getName() + ";");
+            }
             out.println(indent0 + "}");
             out.println();
         }
@@ -485,6 +671,7 @@ public class DependencyInjectorGenerator {
             }
             
             dependency = addField(parameterType);
+            implicitFields.add(dependency);
             satisfyDependenciesFor(dependency, neededFor);
         }
         else if (fields.size() == 1) {
@@ -520,7 +707,7 @@ public class DependencyInjectorGenerator {
         Constructor<?> constructor = constructors[0];
 
         // Find arguments
-        ConstructorCall dependency = new ConstructorCall(constructor);
+        ConstructorCall dependency = new ConstructorCall(field, constructor);
         Type[] parameterTypes = constructor.getGenericParameterTypes();
         for (Type parameterType : parameterTypes) {
             Field fieldForParameter = findDependencyOfType(DiType.fromReflectionType(parameterType), "constructor: " + constructor + ", parameter: " + parameterType, field);
@@ -36,6 +36,7 @@ class Field {
     private final DiType type;
     private final String name;
     private final boolean isPublic;
+    private boolean perThread;
 
     @NotNull
     private Expression initialization;
@@ -89,6 +90,17 @@ class Field {
         return isPublic;
     }
 
+    /**
+     * Per-thread fields are created for every thread which uses the injector, the others are shared by all threads
+     */
+    public boolean isPerThread() {
+        return perThread;
+    }
+
+    public void setPerThread(boolean perThread) {
+        this.perThread = perThread;
+    }
+
     @Override
     public String toString() {
         return getTypeName() + " " + getName();
@@ -1,144 +1,263 @@
-//package org.jetbrains.jet.j2k;
-//
-//import com.intellij.psi.PsiFile;
-//import com.intellij.psi.PsiJavaFile;
-//import org.apache.commons.cli.*;
-//import org.jetbrains.annotations.NotNull;
-//import org.jetbrains.annotations.Nullable;
-//
-//import java.io.File;
-//import java.io.FileNotFoundException;
-//import java.io.IOException;
-//import java.util.ArrayList;
-//import java.util.Arrays;
-//import java.util.List;
-//import java.util.logging.Logger;
-//import java.util.regex.Pattern;
-//
-//import static org.apache.commons.io.FileUtils.readFileToString;
-//import static org.apache.commons.io.FileUtils.writeStringToFile;
-//
-//@SuppressWarnings({"CallToPrintStackTrace", "UseOfSystemOutOrSystemErr"})
-//public class JavaToKotlinCli {
-//  private static final Logger myLogger = Logger.getAnonymousLogger();
-//
-//  private JavaToKotlinCli() {
-//  }
-//
-//  public static void main(String[] args) {
-//    CommandLineParser parser = new BasicParser();
-//    Options options = new Options()
-//      .addOption("h", "help", false, "Print usage information")
-//      .addOption("f", "from", true, "Directory with Java sources")
-//      .addOption("t", "to", true, "Directory with Kotlin sources")
-//      .addOption("p", "public-only", false, "Only public and protected members")
-//      .addOption("fqn", "fqn", false, "Full qualified names")
-//      .addOption("d", "declarations-only", false, "Declarations only")
-//      ;
-//
-//    try {
-//      CommandLine commandLine = parser.parse(options, args);
-//
-//      if (commandLine.hasOption("help"))
-//        showHelpAndExit();
-//
-//      if (commandLine.hasOption("from") && commandLine.hasOption("to")) {
-//        String from = commandLine.getOptionValue("from");
-//        String to = commandLine.getOptionValue("to");
-//
-//        for (Option o : commandLine.getOptions()) {
-//          Converter.addFlag(o.getLongOpt());
-//        }
-//
-//        if (!from.isEmpty() && !to.isEmpty())
-//          convertSourceTree(from, to);
-//        else
-//          showHelpAndExit();
-//      } else
-//        showHelpAndExit();
-//    } catch (ParseException e) {
-//      e.printStackTrace();
-//    }
-//  }
-//
-//  @SuppressWarnings("ResultOfMethodCallIgnored")
-//  private static void convertSourceTree(String javaPath, String kotlinPath) {
-//    try {
-//      File javaDir = new File(javaPath);
-//      File kotlinDir = new File(kotlinPath);
-//
-//      if (kotlinDir.exists())
-//        kotlinDir.delete();
-//
-//      if (!kotlinDir.exists() && !kotlinDir.mkdir())
-//        myLogger.warning("Creation failed: " + kotlinDir.getAbsolutePath());
-//
-//      for (File f : getJavaFiles(javaDir.getAbsolutePath())) {
-//        String relative = javaDir.toURI().relativize(f.toURI()).getPath().replace(".java", ".kt");
-//        File file = new File(kotlinPath, relative);
-//
-//        if (file.exists())
-//          file.delete();
-//
-//        if (f.isDirectory())
-//          if (!file.exists() && !file.mkdir())
-//            myLogger.warning("Creation failed: " + file.getAbsolutePath());
-//
-//        if (f.isFile()) {
-//          writeStringToFile(file, fileToKotlin(f));
-//        }
-//      }
-//    } catch (FileNotFoundException e) {
-//      e.printStackTrace();
-//    } catch (IOException e) {
-//      e.printStackTrace();
-//    }
-//  }
-//
-//  @NotNull
-//  private static String fileToKotlin(File f) throws IOException {
-//    final String javaCode = readJavaFileToString(f);
-//    return generateKotlinCode(JavaToKotlinTranslator.createFile(JavaToKotlinTranslator.setUpJavaCoreEnvironment(), javaCode));
-//  }
-//
-//  @NotNull
-//  private static String generateKotlinCode(@Nullable PsiFile file) {
-//    if (file != null && file instanceof PsiJavaFile) {
-//      JavaToKotlinTranslator.setClassIdentifiers(file);
-//      return JavaToKotlinTranslator.prettify(Converter.fileToFile((PsiJavaFile) file).toKotlin());
-//    }
-//    return "";
-//  }
-//
-//  @NotNull
-//  private static String readJavaFileToString(@NotNull File javaFile) throws IOException {
-//    return Pattern.compile("\\s*/\\*.*\\*/", Pattern.DOTALL).matcher(readFileToString(javaFile)).replaceAll("");
-//  }
-//
-//  private static void showHelpAndExit() {
-//    System.err.println("Usage: java -jar java2kotlin.jar -f <from> -t <to>");
-//    System.exit(1);
-//  }
-//
-//  static public List<File> getJavaFiles(String startDirName) throws FileNotFoundException {
-//    return getJavaFiles(new File(startDirName));
-//  }
-//
-//  private static List<File> getJavaFiles(File start) throws FileNotFoundException {
-//    List<File> result = new ArrayList<File>();
-//
-//    if (start.isFile())
-//      return Arrays.asList(start);
-//
-//    for (File file : Arrays.asList(start.listFiles())) {
-//      if ((file.isFile() && file.getName().endsWith(".java")) || file.isDirectory())
-//        result.add(file);
-//
-//      if (file.isDirectory()) {
-//        List<File> deeperList = getJavaFiles(file);
-//        result.addAll(deeperList);
-//      }
-//    }
-//    return result;
-//  }
-//}
\ No newline at end of file
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.j2k;
+
+import com.intellij.core.JavaCoreApplicationEnvironment;
+import com.intellij.core.JavaCoreProjectEnvironment;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Converts a whole source tree at once. All the files are loaded into one environment (so that references between them
+ * and to the classpath are resolved) and are converted in parallel, each by its own {@link Converter}.
+ *
+ * Conversion only reads PSI, which supports concurrent reads under read actions: every file is converted inside a read
+ * action, nothing modifies PSI while the pool runs, and all the files are parsed before it starts. The converter state
+ * is not shared, a {@link Converter} has no static mutable state. With <code>-threads 1</code> the files are converted
+ * one by one.
+ */
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class JavaToKotlinCli {
+    private static final int PROGRESS_REPORT_STEP = 100;
+
+    private JavaToKotlinCli() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * @return the exit code: 0 if all the files were converted, 1 if the arguments are wrong or some files failed to convert
+     */
+    public static int run(@NotNull String[] args, @NotNull PrintStream out, @NotNull PrintStream err) throws InterruptedException {
+        File from = null;
+        File to = null;
+        List<File> classpath = new ArrayList<File>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        Set<J2KConverterFlags> flags = EnumSet.noneOf(J2KConverterFlags.class);
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-from") && i + 1 < args.length) {
+                from = new File(args[++i]);
+            }
+            else if (arg.equals("-to") && i + 1 < args.length) {
+                to = new File(args[++i]);
+            }
+            else if (arg.equals("-classpath") && i + 1 < args.length) {
+                for (String path : args[++i].split(File.pathSeparator)) {
+                    classpath.add(new File(path));
+                }
+            }
+            else if (arg.equals("-threads") && i + 1 < args.length) {
+                String count = args[++i];
+                try {
+                    threads = Integer.parseInt(count);
+                }
+                catch (NumberFormatException e) {
+                    return usageError(err, "Thread count is not a number: " + count);
+                }
+                if (threads < 1) {
+                    return usageError(err, "Thread count must be positive: " + count);
+                }
+            }
+            else if (arg.equals("-fqn")) {
+                flags.add(J2KConverterFlags.FULLY_QUALIFIED_TYPE_NAMES);
+            }
+            else if (arg.equals("-declarations-only")) {
+                flags.add(J2KConverterFlags.SKIP_BODIES);
+            }
+            else if (arg.equals("-public-only")) {
+                flags.add(J2KConverterFlags.SKIP_NON_PUBLIC_MEMBERS);
+            }
+            else {
+                return usageError(err, "Unknown or incomplete option: " + arg);
+            }
+        }
+        if (from == null || to == null) {
+            return usageError(err, "Both -from and -to must be specified");
+        }
+        if (!from.isDirectory()) {
+            return usageError(err, "Java source directory is not found: " + from);
+        }
+
+        int failed = convertSourceTree(from, to, classpath, flags, threads, out);
+        return failed == 0 ? 0 : 1;
+    }
+
+    private static int usageError(@NotNull PrintStream err, @NotNull String message) {
+        err.println("error: " + message);
+        err.println("Usage: java -jar java2kotlin.jar -from <java source dir> -to <kotlin output dir>\n" +
+                    "    [-classpath <jars and dirs>] [-threads <count>] [-fqn] [-declarations-only] [-public-only]");
+        return 1;
+    }
+
+    /**
+     * @return the number of files which failed to convert
+     */
+    public static int convertSourceTree(
+            @NotNull File javaDir,
+            @NotNull File kotlinDir,
+            @NotNull List<File> classpath,
+            @NotNull final Set<J2KConverterFlags> flags,
+            int threads,
+            @NotNull final PrintStream out
+    ) throws InterruptedException {
+        JavaCoreApplicationEnvironment applicationEnvironment = new JavaCoreApplicationEnvironment(JavaToKotlinTranslator.DISPOSABLE);
+        JavaCoreProjectEnvironment environment = JavaToKotlinTranslator.setUpJavaCoreEnvironment(applicationEnvironment);
+        for (File entry : classpath) {
+            if (entry.isDirectory()) {
+                VirtualFile root = applicationEnvironment.getLocalFileSystem().findFileByPath(entry.getAbsolutePath());
+                if (root != null) {
+                    environment.addSourcesToClasspath(root);
+                }
+            }
+            else {
+                environment.addJarToClassPath(entry);
+            }
+        }
+        VirtualFile sourceRoot = applicationEnvironment.getLocalFileSystem().findFileByPath(javaDir.getAbsolutePath());
+        if (sourceRoot == null) {
+            throw new IllegalArgumentException("Java source directory is not found: " + javaDir);
+        }
+        environment.addSourcesToClasspath(sourceRoot);
+
+        List<VirtualFile> javaFiles = new ArrayList<VirtualFile>();
+        collectJavaFiles(sourceRoot, javaFiles);
+        final Map<VirtualFile, PsiJavaFile> psiFiles = loadPsiFiles(PsiManager.getInstance(environment.getProject()), javaFiles);
+
+        final int total = javaFiles.size();
+        final AtomicInteger done = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final long start = System.currentTimeMillis();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (final VirtualFile javaFile : javaFiles) {
+                final File kotlinFile = new File(kotlinDir, getKotlinPath(sourceRoot, javaFile));
+                executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            PsiJavaFile psiFile = psiFiles.get(javaFile);
+                            String kotlinCode = psiFile != null ? convertFile(psiFile, flags) : "";
+                            FileUtil.writeToFile(kotlinFile, kotlinCode);
+                        }
+                        catch (Throwable e) {
+                            failed.incrementAndGet();
+                            out.println("Failed to convert " + javaFile.getPath() + ": " + e);
+                        }
+                        int count = done.incrementAndGet();
+                        if (count % PROGRESS_REPORT_STEP == 0 || count == total) {
+                            reportProgress(out, count, total, start);
+                        }
+                    }
+                });
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+
+        if (failed.get() > 0) {
+            out.println(failed.get() + " of " + total + " files failed to convert");
+        }
+        return failed.get();
+    }
+
+    /**
+     * Creates and parses the PSI of all the files up front, on the calling thread: the PSI manager's caches of files
+     * and the lazily built syntax trees are then only read by the conversion threads.
+     */
+    @NotNull
+    private static Map<VirtualFile, PsiJavaFile> loadPsiFiles(@NotNull final PsiManager psiManager, @NotNull final List<VirtualFile> javaFiles) {
+        return ApplicationManager.getApplication().runReadAction(new Computable<Map<VirtualFile, PsiJavaFile>>() {
+            @Override
+            public Map<VirtualFile, PsiJavaFile> compute() {
+                Map<VirtualFile, PsiJavaFile> result = new HashMap<VirtualFile, PsiJavaFile>();
+                for (VirtualFile javaFile : javaFiles) {
+                    PsiFile file = psiManager.findFile(javaFile);
+                    if (file instanceof PsiJavaFile) {
+                        file.getNode();
+                        result.put(javaFile, (PsiJavaFile) file);
+                    }
+                }
+                return result;
+            }
+        });
+    }
+
+    @NotNull
+    private static String convertFile(@NotNull final PsiJavaFile file, @NotNull final Set<J2KConverterFlags> flags) {
+        return ApplicationManager.getApplication().runReadAction(new Computable<String>() {
+            @Override
+            public String compute() {
+                // Converter keeps the state of the file being converted, so every file needs its own
+                Converter converter = new Converter(file.getProject());
+                for (J2KConverterFlags flag : flags) {
+                    converter.addFlag(flag);
+                }
+                JavaToKotlinTranslator.setClassIdentifiers(converter, file);
+                return JavaToKotlinTranslator.prettify(converter.fileToFile(file).toKotlin());
+            }
+        });
+    }
+
+    private static synchronized void reportProgress(@NotNull PrintStream out, int done, int total, long start) {
+        long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+        out.println(String.format("Converted %d of %d files in %.1f s (%.1f files/s)",
+                                  done, total, elapsed / 1000.0, done * 1000.0 / elapsed));
+    }
+
+    @NotNull
+    private static String getKotlinPath(@NotNull VirtualFile sourceRoot, @NotNull VirtualFile javaFile) {
+        String relativePath = javaFile.getPath().substring(sourceRoot.getPath().length());
+        return relativePath.substring(0, relativePath.length() - ".java".length()) + ".kt";
+    }
+
+    private static void collectJavaFiles(@NotNull VirtualFile dir, @NotNull List<VirtualFile> result) {
+        VirtualFile[] children = dir.getChildren();
+        Arrays.sort(children, new Comparator<VirtualFile>() {
+            @Override
+            public int compare(@NotNull VirtualFile f1, @NotNull VirtualFile f2) {
+                return f1.getName().compareTo(f2.getName());
+            }
+        });
+        for (VirtualFile child : children) {
+            if (child.isDirectory()) {
+                collectJavaFiles(child, result);
+            }
+            else if ("java".equals(child.getExtension())) {
+                result.add(child);
+            }
+        }
+    }
+}
@@ -37,7 +37,7 @@ import java.net.URLClassLoader;
 
 public class JavaToKotlinTranslator {
 
-    private static final Disposable DISPOSABLE = new Disposable() {
+    static final Disposable DISPOSABLE = new Disposable() {
         @Override
         public void dispose() {
         }
@@ -63,7 +63,11 @@ public class JavaToKotlinTranslator {
 
     @NotNull
     static JavaCoreProjectEnvironment setUpJavaCoreEnvironment() {
-        JavaCoreApplicationEnvironment applicationEnvironment = new JavaCoreApplicationEnvironment(DISPOSABLE);
+        return setUpJavaCoreEnvironment(new JavaCoreApplicationEnvironment(DISPOSABLE));
+    }
+
+    @NotNull
+    static JavaCoreProjectEnvironment setUpJavaCoreEnvironment(@NotNull JavaCoreApplicationEnvironment applicationEnvironment) {
         JavaCoreProjectEnvironment javaCoreEnvironment = new JavaCoreProjectEnvironment(DISPOSABLE, applicationEnvironment);
 
         javaCoreEnvironment.addJarToClassPath(PathUtil.findRtJar());
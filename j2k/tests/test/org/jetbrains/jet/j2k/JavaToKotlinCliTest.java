@@ -0,0 +1,103 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.j2k;
+
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+
+public class JavaToKotlinCliTest extends TestCase {
+    private File javaDir;
+    private File kotlinDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        javaDir = FileUtil.createTempDirectory("j2kCliJava", null);
+        kotlinDir = FileUtil.createTempDirectory("j2kCliKotlin", null);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FileUtil.delete(javaDir);
+        FileUtil.delete(kotlinDir);
+        super.tearDown();
+    }
+
+    public void testConvertsSourceTree() throws Exception {
+        FileUtil.writeToFile(new File(javaDir, "a/A.java"), "package a;\npublic class A {\n    public int answer() { return 42; }\n}\n");
+        FileUtil.writeToFile(new File(javaDir, "b/B.java"), "package b;\npublic class B extends a.A {\n}\n");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = run(out, err, "-from", javaDir.getPath(), "-to", kotlinDir.getPath(), "-threads", "2");
+
+        assertEquals(err.toString(), 0, exitCode);
+        assertEquals("", err.toString());
+        assertTrue(out.toString(), out.toString().contains("Converted 2 of 2 files"));
+        assertTrue(FileUtil.loadFile(new File(kotlinDir, "a/A.kt")).contains("class A"));
+        assertTrue(FileUtil.loadFile(new File(kotlinDir, "b/B.kt")).contains("class B"));
+    }
+
+    public void testThreadCountIsNotANumber() throws Exception {
+        assertUsageError("Thread count is not a number: many", "-from", javaDir.getPath(), "-to", kotlinDir.getPath(), "-threads", "many");
+    }
+
+    public void testThreadCountIsNotPositive() throws Exception {
+        assertUsageError("Thread count must be positive: 0", "-from", javaDir.getPath(), "-to", kotlinDir.getPath(), "-threads", "0");
+    }
+
+    public void testSourceDirectoryIsMissing() throws Exception {
+        File missing = new File(javaDir, "missing");
+        assertUsageError("Java source directory is not found: " + missing, "-from", missing.getPath(), "-to", kotlinDir.getPath());
+    }
+
+    public void testOutputDirectoryIsNotSpecified() throws Exception {
+        assertUsageError("Both -from and -to must be specified", "-from", javaDir.getPath());
+    }
+
+    public void testUnknownOption() throws Exception {
+        assertUsageError("Unknown or incomplete option: -jobs", "-jobs", "2");
+    }
+
+    private static void assertUsageError(@NotNull String message, @NotNull String... args) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        assertEquals(1, run(out, err, args));
+        assertTrue(err.toString(), err.toString().startsWith("error: " + message));
+        assertTrue(err.toString(), err.toString().contains("Usage: "));
+        assertEquals("", out.toString());
+    }
+
+    private static int run(@NotNull ByteArrayOutputStream out, @NotNull ByteArrayOutputStream err, @NotNull String... args)
+            throws InterruptedException {
+        PrintStream outStream = new PrintStream(out, true);
+        PrintStream errStream = new PrintStream(err, true);
+        try {
+            return JavaToKotlinCli.run(args, outStream, errStream);
+        }
+        finally {
+            outStream.close();
+            errStream.close();
+        }
+    }
+}
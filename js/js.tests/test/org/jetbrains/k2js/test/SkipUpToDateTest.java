@@ -0,0 +1,107 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.k2js.test;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.ArrayUtil;
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.cli.common.ExitCode;
+import org.jetbrains.jet.cli.js.K2JSCompiler;
+import org.jetbrains.jet.cli.js.K2JSCompilerArguments;
+import org.jetbrains.k2js.test.utils.LibraryFilePathsUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+public final class SkipUpToDateTest extends TestCase {
+    private static final String STALE_OUTPUT = "// not regenerated";
+
+    private File sourceDir;
+    private File library;
+    private File main;
+    private File outputFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        sourceDir = FileUtil.createTempDirectory("skipUpToDate", null);
+        library = new File(sourceDir, "library.kt");
+        main = new File(sourceDir, "main.kt");
+        outputFile = new File(sourceDir, "out.js");
+
+        FileUtil.writeToFile(library, "package foo\n\nfun answer() = 42\n");
+        FileUtil.writeToFile(main, "package foo\n\nfun box(): Boolean {\n    val unused = 1\n    return answer() == 42\n}\n");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FileUtil.delete(sourceDir);
+        super.tearDown();
+    }
+
+    public void testNoChangeSkipsBuildAndReportsWarningsAgain() throws Exception {
+        String firstOutput = compile();
+        assertTrue(firstOutput, firstOutput.contains("Variable 'unused' is never used"));
+        markOutputStale();
+
+        String secondOutput = compile();
+        assertEquals(STALE_OUTPUT, FileUtil.loadFile(outputFile));
+        assertEquals(firstOutput, secondOutput);
+    }
+
+    public void testChangedFileRebuildsOutput() throws Exception {
+        compile();
+        markOutputStale();
+
+        FileUtil.writeToFile(main, "package foo\n\nfun box(): Boolean = answer() == 42\n");
+        String output = compile();
+        assertFalse(output, output.contains("never used"));
+        assertFalse(STALE_OUTPUT.equals(FileUtil.loadFile(outputFile)));
+    }
+
+    public void testChangedLibraryFileRebuildsOutput() throws Exception {
+        compile();
+        markOutputStale();
+
+        FileUtil.writeToFile(library, "package foo\n\nfun answer() = 43\n");
+        compile();
+        String generated = FileUtil.loadFile(outputFile);
+        assertTrue(generated, generated.contains("43"));
+        assertTrue(generated, generated.contains("box"));
+    }
+
+    private void markOutputStale() throws IOException {
+        FileUtil.writeToFile(outputFile, STALE_OUTPUT);
+    }
+
+    @NotNull
+    private String compile() throws Exception {
+        K2JSCompilerArguments arguments = new K2JSCompilerArguments();
+        arguments.outputFile = outputFile.getPath();
+        arguments.sourceFiles = new String[] {library.getPath(), main.getPath()};
+        arguments.libraryFiles = ArrayUtil.toStringArray(LibraryFilePathsUtil.getBasicLibraryFiles());
+        arguments.skipUpToDate = true;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ExitCode exitCode = new K2JSCompiler().exec(new PrintStream(bytes, true, "UTF-8"), arguments);
+        assertEquals(bytes.toString("UTF-8"), ExitCode.OK, exitCode);
+        return bytes.toString("UTF-8");
+    }
+}
@@ -45,4 +45,8 @@ public final class EqualsTest extends AbstractExpressionTest {
     public void testKt2370() throws Exception {
         fooBoxTest();
     }
+
+    public void testEqualsOfJsPrimitives() throws Exception {
+        fooBoxTest();
+    }
 }
\ No newline at end of file
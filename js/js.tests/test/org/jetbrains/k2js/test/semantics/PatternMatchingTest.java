@@ -81,4 +81,16 @@ public final class PatternMatchingTest extends SingleFileTranslationTest {
     public void testWhenWithoutExpression() throws Exception {
         fooBoxTest();
     }
-}
\ No newline at end of file
+
+    public void testWhenStringConstants() throws Exception {
+        fooBoxTest();
+    }
+
+    public void testWhenWithBreakInLoop() throws Exception {
+        fooBoxTest();
+    }
+
+    public void testWhenConstantsAsExpression() throws Exception {
+        fooBoxTest();
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.k2js.facade;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.psi.JetFile;
+import org.jetbrains.k2js.config.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tells whether the output file is up to date, by a digest of everything the generated program depends on:
+ * source and library files (paths and texts, in order), target, module id and main call parameters.
+ *
+ * A change in any input invalidates the whole output, and only a build with no changes at all is skipped.
+ * The compiler messages of the build are saved with the digest, so that a skipped build can report them again.
+ */
+public final class UpToDateCheck {
+    private static final String FINGERPRINT_FILE_EXTENSION = ".fingerprint";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private UpToDateCheck() {
+    }
+
+    @NotNull
+    public static String compute(@NotNull List<JetFile> files, @NotNull MainCallParameters mainCallParameters,
+            @NotNull Config config, @NotNull String compilerVersion) {
+        MessageDigest digest = createDigest();
+        update(digest, compilerVersion);
+        update(digest, config.getTarget().name());
+        update(digest, config.getModuleId());
+        update(digest, String.valueOf(mainCallParameters.shouldBeGenerated()));
+        if (mainCallParameters.shouldBeGenerated()) {
+            for (String argument : mainCallParameters.arguments()) {
+                update(digest, argument);
+            }
+        }
+        updateWithFiles(digest, config.getLibFiles());
+        updateWithFiles(digest, files);
+        return toHexString(digest.digest());
+    }
+
+    /**
+     * @return the messages saved with the fingerprint if the output file exists and was generated from the inputs
+     * with the given fingerprint, null otherwise
+     */
+    @Nullable
+    public static List<String> loadMessagesIfUpToDate(@NotNull File outputFile, @NotNull String fingerprint) {
+        File fingerprintFile = getFingerprintFile(outputFile);
+        if (!outputFile.isFile() || !fingerprintFile.isFile()) {
+            return null;
+        }
+        String[] lines;
+        try {
+            lines = FileUtil.loadFile(fingerprintFile, UTF_8.name()).split("\n", -1);
+        }
+        catch (IOException e) {
+            return null;
+        }
+        if (!fingerprint.equals(lines[0])) {
+            return null;
+        }
+
+        List<String> messages = new ArrayList<String>(lines.length - 1);
+        for (int i = 1; i < lines.length; i++) {
+            if (!lines[i].isEmpty()) {
+                messages.add(unescape(lines[i]));
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Should be called only after the output file is written completely
+     */
+    public static void save(@NotNull File outputFile, @NotNull String fingerprint, @NotNull List<String> messages) throws IOException {
+        StringBuilder text = new StringBuilder(fingerprint);
+        for (String message : messages) {
+            text.append('\n').append(escape(message));
+        }
+        FileUtil.writeToFile(getFingerprintFile(outputFile), text.toString().getBytes(UTF_8));
+    }
+
+    // One message per line
+    @NotNull
+    private static String escape(@NotNull String message) {
+        return message.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    @NotNull
+    private static String unescape(@NotNull String line) {
+        StringBuilder message = new StringBuilder(line.length());
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                message.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            }
+            else {
+                message.append(c);
+            }
+        }
+        return message.toString();
+    }
+
+    @NotNull
+    private static File getFingerprintFile(@NotNull File outputFile) {
+        return new File(outputFile.getPath() + FINGERPRINT_FILE_EXTENSION);
+    }
+
+    private static void updateWithFiles(@NotNull MessageDigest digest, @NotNull List<JetFile> files) {
+        update(digest, String.valueOf(files.size()));
+        for (JetFile file : files) {
+            update(digest, getPath(file));
+            update(digest, file.getText());
+        }
+    }
+
+    @NotNull
+    private static String getPath(@NotNull JetFile file) {
+        VirtualFile virtualFile = file.getVirtualFile();
+        return virtualFile != null ? virtualFile.getPath() : file.getName();
+    }
+
+    private static void update(@NotNull MessageDigest digest, @Nullable String value) {
+        byte[] bytes = String.valueOf(value).getBytes(UTF_8);
+        // Length prefix keeps ("ab", "c") and ("a", "bc") apart
+        digest.update(String.valueOf(bytes.length).getBytes(UTF_8));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+
+    @NotNull
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @NotNull
+    private static String toHexString(@NotNull byte[] bytes) {
+        StringBuilder builder = new StringBuilder(2 * bytes.length);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+            builder.append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+}
@@ -16,15 +16,21 @@
 
 package org.jetbrains.k2js.translate.expression;
 
-import com.google.common.collect.Lists;
 import com.google.dart.compiler.backend.js.ast.*;
+import com.intellij.psi.util.PsiTreeUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.lang.descriptors.ClassDescriptor;
+import org.jetbrains.jet.lang.descriptors.DeclarationDescriptor;
+import org.jetbrains.jet.lang.descriptors.PropertyDescriptor;
 import org.jetbrains.jet.lang.psi.*;
+import org.jetbrains.jet.lang.resolve.BindingContext;
+import org.jetbrains.jet.lang.resolve.DescriptorUtils;
 import org.jetbrains.k2js.translate.context.TemporaryVariable;
 import org.jetbrains.k2js.translate.context.TranslationContext;
 import org.jetbrains.k2js.translate.general.AbstractTranslator;
 import org.jetbrains.k2js.translate.general.Translation;
+import org.jetbrains.k2js.translate.utils.BindingUtils;
 import org.jetbrains.k2js.translate.utils.mutator.AssignToExpressionMutator;
 import org.jetbrains.k2js.translate.utils.mutator.LastExpressionMutator;
 
@@ -33,6 +39,10 @@ import java.util.List;
 
 import static org.jetbrains.k2js.translate.utils.JsAstUtils.*;
 
+/**
+ * Translates when into a conditional expression if it is used as an expression and all its branches are expressions,
+ * into a switch if all its conditions are constants or enum entries, and into an if-else chain otherwise.
+ */
 public final class WhenTranslator extends AbstractTranslator {
 
     @NotNull
@@ -45,86 +55,223 @@ public final class WhenTranslator extends AbstractTranslator {
     private final JetWhenExpression whenExpression;
     @Nullable
     private final TemporaryVariable expressionToMatch;
-    @NotNull
-    private final TemporaryVariable dummyCounter;
-    @NotNull
-    private final TemporaryVariable result;
-
-    private int currentEntryNumber = 0;
+    private final boolean isStatement;
 
     private WhenTranslator(@NotNull JetWhenExpression expression, @NotNull TranslationContext context) {
         super(context);
         this.whenExpression = expression;
+        this.isStatement = BindingUtils.isStatement(context.bindingContext(), expression);
         JsExpression expressionToMatch = translateExpressionToMatch(whenExpression);
         this.expressionToMatch = expressionToMatch != null ? context.declareTemporary(expressionToMatch) : null;
-        this.dummyCounter = context.declareTemporary(program().getNumberLiteral(0));
-        this.result = context.declareTemporary(JsLiteral.NULL);
+        if (this.expressionToMatch != null) {
+            // The subject is evaluated before any of the conditions
+            context.addStatementToCurrentBlock(convertToStatement(this.expressionToMatch.assignmentExpression()));
+        }
     }
 
     @NotNull
     JsNode translate() {
-        JsFor resultingFor = generateDummyFor();
-        resultingFor.setBody(new JsBlock(translateEntries()));
-        context().addStatementToCurrentBlock(resultingFor);
+        // Conditions of a switch are translated once, as case expressions
+        boolean asSwitch = canBeSwitch();
+        List<List<JsExpression>> caseExpressions = new ArrayList<List<JsExpression>>();
+        List<JsExpression> conditions = new ArrayList<JsExpression>();
+        List<JsNode> branches = new ArrayList<JsNode>();
+        JsNode elseBranch = null;
+        for (JetWhenEntry entry : whenExpression.getEntries()) {
+            if (entry.isElse()) {
+                elseBranch = translateEntryExpression(entry);
+            }
+            else {
+                if (asSwitch) {
+                    caseExpressions.add(translateCaseExpressions(entry));
+                }
+                else {
+                    conditions.add(translateConditions(entry));
+                }
+                branches.add(translateEntryExpression(entry));
+            }
+        }
+
+        if (!isStatement && elseBranch instanceof JsExpression && allAreExpressions(branches)) {
+            if (asSwitch) {
+                conditions = caseExpressionsToConditions(caseExpressions);
+            }
+            return translateAsConditional(conditions, branches, (JsExpression) elseBranch);
+        }
+
+        TemporaryVariable result = isStatement ? null : context().declareTemporary(JsLiteral.NULL);
+        if (result != null) {
+            // The result of a when without else matching nothing is null, also on the next iteration of a loop
+            context().addStatementToCurrentBlock(convertToStatement(result.assignmentExpression()));
+        }
+        JsStatement statement = asSwitch
+                                ? translateAsSwitch(caseExpressions, branches, elseBranch, result)
+                                : translateAsIfChain(conditions, branches, elseBranch, result);
+        if (result == null) {
+            return statement;
+        }
+        context().addStatementToCurrentBlock(statement);
         return result.reference();
     }
 
     @NotNull
-    private List<JsStatement> translateEntries() {
-        List<JsStatement> entries = new ArrayList<JsStatement>();
-        for (JetWhenEntry entry : whenExpression.getEntries()) {
-            entries.add(surroundWithDummyIf(translateEntry(entry)));
+    private static JsExpression translateAsConditional(
+            @NotNull List<JsExpression> conditions,
+            @NotNull List<JsNode> branches,
+            @NotNull JsExpression elseBranch
+    ) {
+        JsExpression result = elseBranch;
+        for (int i = conditions.size() - 1; i >= 0; i--) {
+            result = new JsConditional(conditions.get(i), (JsExpression) branches.get(i), result);
         }
-        return entries;
+        return result;
     }
 
     @NotNull
-    private JsStatement surroundWithDummyIf(@NotNull JsStatement entryStatement) {
-        JsNumberLiteral jsEntryNumber = program().getNumberLiteral(this.currentEntryNumber);
-        JsExpression stepNumberEqualsCurrentEntryNumber = equality(dummyCounter.reference(), jsEntryNumber);
-        currentEntryNumber++;
-        return new JsIf(stepNumberEqualsCurrentEntryNumber, entryStatement, null);
+    private JsStatement translateAsIfChain(
+            @NotNull List<JsExpression> conditions,
+            @NotNull List<JsNode> branches,
+            @Nullable JsNode elseBranch,
+            @Nullable TemporaryVariable result
+    ) {
+        JsStatement statement = elseBranch != null ? withReturnValueCaptured(elseBranch, result) : null;
+        for (int i = conditions.size() - 1; i >= 0; i--) {
+            statement = new JsIf(conditions.get(i), withReturnValueCaptured(branches.get(i), result), statement);
+        }
+        return statement != null ? statement : program().getEmptyStmt();
     }
 
     @NotNull
-    private JsFor generateDummyFor() {
-        return new JsFor(generateInitExpressions(), generateConditionStatement(), generateIncrementStatement());
+    private JsStatement translateAsSwitch(
+            @NotNull List<List<JsExpression>> caseExpressions,
+            @NotNull List<JsNode> branches,
+            @Nullable JsNode elseBranch,
+            @Nullable TemporaryVariable result
+    ) {
+        assert expressionToMatch != null : "A switch is only generated for when with subject";
+        JsSwitch jsSwitch = new JsSwitch();
+        jsSwitch.setExpr(expressionToMatch.reference());
+
+        int branchIndex = 0;
+        for (JetWhenEntry entry : whenExpression.getEntries()) {
+            JsSwitchMember lastMember;
+            JsNode branch;
+            if (entry.isElse()) {
+                lastMember = new JsDefault();
+                jsSwitch.getCases().add(lastMember);
+                branch = elseBranch;
+            }
+            else {
+                lastMember = null;
+                for (JsExpression caseExpression : caseExpressions.get(branchIndex)) {
+                    JsCase jsCase = new JsCase();
+                    jsCase.setCaseExpr(caseExpression);
+                    jsSwitch.getCases().add(jsCase);
+                    lastMember = jsCase;
+                }
+                assert lastMember != null : "When entry (not else) should have at least one condition";
+                branch = branches.get(branchIndex++);
+            }
+            assert branch != null;
+
+            JsStatement statement = withReturnValueCaptured(branch, result);
+            lastMember.getStatements().add(statement);
+            if (!isJump(statement)) {
+                lastMember.getStatements().add(new JsBreak());
+            }
+        }
+        return jsSwitch;
     }
 
-    @NotNull
-    private JsExpression generateInitExpressions() {
-        List<JsExpression> initExpressions = Lists.newArrayList(dummyCounter.assignmentExpression());
-        if (expressionToMatch != null) {
-            initExpressions.add(expressionToMatch.assignmentExpression());
+    private static boolean isJump(@NotNull JsStatement statement) {
+        if (statement instanceof JsBlock) {
+            List<JsStatement> statements = ((JsBlock) statement).getStatements();
+            return !statements.isEmpty() && isJump(statements.get(statements.size() - 1));
         }
-        return newSequence(initExpressions);
+        return statement instanceof JsReturn || statement instanceof JsThrow;
     }
 
-    @NotNull
-    private JsBinaryOperation generateConditionStatement() {
-        JsNumberLiteral entriesNumber = program().getNumberLiteral(whenExpression.getEntries().size());
-        return new JsBinaryOperation(JsBinaryOperator.LT, dummyCounter.reference(), entriesNumber);
+    private static boolean allAreExpressions(@NotNull List<JsNode> nodes) {
+        for (JsNode node : nodes) {
+            if (!(node instanceof JsExpression)) return false;
+        }
+        return true;
+    }
+
+    /*
+     * Case expressions are compared with the subject by ===, the same way expression conditions are.
+     */
+    private boolean canBeSwitch() {
+        if (expressionToMatch == null) return false;
+
+        for (JetWhenEntry entry : whenExpression.getEntries()) {
+            for (JetWhenCondition condition : entry.getConditions()) {
+                if (!(condition instanceof JetWhenConditionWithExpression)) return false;
+                JetExpression pattern = ((JetWhenConditionWithExpression) condition).getExpression();
+                if (pattern == null || !isConstantOrEnumEntry(pattern)) return false;
+            }
+        }
+
+        // In a switch, an unlabeled break would leave the switch instead of the enclosing loop
+        for (JetBreakExpression breakExpression : PsiTreeUtil.findChildrenOfType(whenExpression, JetBreakExpression.class)) {
+            if (breakExpression.getTargetLabel() != null) continue;
+            JetLoopExpression loop = PsiTreeUtil.getParentOfType(breakExpression, JetLoopExpression.class);
+            if (loop == null || !PsiTreeUtil.isAncestor(whenExpression, loop, true)) return false;
+        }
+        return true;
+    }
+
+    private boolean isConstantOrEnumEntry(@NotNull JetExpression expression) {
+        if (BindingUtils.getCompileTimeValue(bindingContext(), expression) != null) return true;
+
+        JetExpression reference = expression instanceof JetDotQualifiedExpression
+                                  ? ((JetDotQualifiedExpression) expression).getSelectorExpression()
+                                  : expression;
+        if (!(reference instanceof JetSimpleNameExpression)) return false;
+
+        DeclarationDescriptor descriptor =
+                BindingUtils.getNullableDescriptorForReferenceExpression(bindingContext(), (JetSimpleNameExpression) reference);
+        if (descriptor instanceof PropertyDescriptor) {
+            ClassDescriptor objectClass = bindingContext().get(BindingContext.OBJECT_DECLARATION_CLASS, (PropertyDescriptor) descriptor);
+            return objectClass != null && DescriptorUtils.isEnumEntry(objectClass);
+        }
+        return descriptor != null && DescriptorUtils.isEnumEntry(descriptor);
     }
 
     @NotNull
-    private JsPrefixOperation generateIncrementStatement() {
-        return new JsPrefixOperation(JsUnaryOperator.INC, dummyCounter.reference());
+    private List<JsExpression> translateCaseExpressions(@NotNull JetWhenEntry entry) {
+        List<JsExpression> caseExpressions = new ArrayList<JsExpression>();
+        for (JetWhenCondition condition : entry.getConditions()) {
+            JetExpression patternExpression = ((JetWhenConditionWithExpression) condition).getExpression();
+            assert patternExpression != null : "Expression pattern should have an expression.";
+            caseExpressions.add(Translation.patternTranslator(context()).translateExpressionForExpressionPattern(patternExpression));
+        }
+        return caseExpressions;
     }
 
+    /*
+     * The same comparisons as translateExpressionPattern() makes, built of the already translated case expressions
+     */
     @NotNull
-    private JsStatement translateEntry(@NotNull JetWhenEntry entry) {
-        JsStatement statementToExecute = withReturnValueCaptured(translateEntryExpression(entry));
-        if (entry.isElse()) {
-            return statementToExecute;
+    private List<JsExpression> caseExpressionsToConditions(@NotNull List<List<JsExpression>> caseExpressions) {
+        assert expressionToMatch != null : "Case expressions are only translated for when with subject";
+        List<JsExpression> conditions = new ArrayList<JsExpression>();
+        for (List<JsExpression> entryCaseExpressions : caseExpressions) {
+            List<JsExpression> entryConditions = new ArrayList<JsExpression>();
+            for (JsExpression caseExpression : entryCaseExpressions) {
+                entryConditions.add(equality(expressionToMatch.reference(), caseExpression));
+            }
+            conditions.add(anyOfThemIsTrue(entryConditions));
         }
-        JsExpression condition = translateConditions(entry);
-        return new JsIf(condition, addDummyBreakIfNeed(statementToExecute), null);
+        return conditions;
     }
 
     @NotNull
-    JsStatement withReturnValueCaptured(@NotNull JsNode node) {
-        return convertToStatement(LastExpressionMutator.mutateLastExpression(node,
-                                                                             new AssignToExpressionMutator(result.reference())));
+    private static JsStatement withReturnValueCaptured(@NotNull JsNode node, @Nullable TemporaryVariable result) {
+        if (result == null) {
+            return convertToStatement(node);
+        }
+        return LastExpressionMutator.mutateLastExpression(node, new AssignToExpressionMutator(result.reference()));
     }
 
     @NotNull
@@ -172,11 +319,6 @@ public final class WhenTranslator extends AbstractTranslator {
         throw new AssertionError("Unsupported when condition " + condition.getClass());
     }
 
-    @NotNull
-    private static JsStatement addDummyBreakIfNeed(@NotNull JsStatement statement) {
-        return statement instanceof JsReturn ? statement : new JsBlock(statement, new JsBreak());
-    }
-
     @NotNull
     private JsExpression translatePatternCondition(@NotNull JetWhenCondition condition) {
         JsExpression patternMatchExpression = translateWhenConditionToBooleanExpression(condition);
@@ -23,7 +23,10 @@ import com.google.dart.compiler.backend.js.ast.JsLiteral;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.jet.lang.descriptors.FunctionDescriptor;
 import org.jetbrains.jet.lang.psi.JetBinaryExpression;
+import org.jetbrains.jet.lang.psi.JetExpression;
+import org.jetbrains.jet.lang.resolve.BindingContext;
 import org.jetbrains.jet.lang.resolve.name.Name;
+import org.jetbrains.jet.lang.types.JetType;
 import org.jetbrains.jet.lang.types.expressions.OperatorConventions;
 import org.jetbrains.jet.lexer.JetTokens;
 import org.jetbrains.k2js.translate.context.TranslationContext;
@@ -39,6 +42,7 @@ import static org.jetbrains.k2js.translate.utils.BindingUtils.getFunctionDescrip
 import static org.jetbrains.k2js.translate.utils.PsiUtils.getOperationToken;
 
 public final class EqualsIntrinsic implements BinaryOperationIntrinsic {
+    private static final NamePredicate JS_PRIMITIVE_TYPES = new NamePredicate("String", "Boolean", "Char");
 
     @Override
     public boolean isApplicable(@NotNull JetBinaryExpression expression, @NotNull TranslationContext context) {
@@ -70,6 +74,21 @@ public final class EqualsIntrinsic implements BinaryOperationIntrinsic {
 
     private static boolean canUseSimpleEquals(@NotNull JetBinaryExpression expression, @NotNull TranslationContext context) {
         Name typeName = JsDescriptorUtils.getNameIfStandardType(expression.getLeft(), context);
-        return typeName != null && NamePredicate.PRIMITIVE_NUMBERS.apply(typeName);
+        if (typeName != null && NamePredicate.PRIMITIVE_NUMBERS.apply(typeName)) {
+            return true;
+        }
+
+        JetExpression right = expression.getRight();
+        return right != null && isNotNullJsPrimitive(expression.getLeft(), context) && isNotNullJsPrimitive(right, context);
+    }
+
+    // Kotlin.equals() compares JS primitives by ===, null and undefined need special care
+    private static boolean isNotNullJsPrimitive(@NotNull JetExpression expression, @NotNull TranslationContext context) {
+        JetType type = context.bindingContext().get(BindingContext.EXPRESSION_TYPE, expression);
+        if (type == null || type.isNullable()) {
+            return false;
+        }
+        Name typeName = JsDescriptorUtils.getNameIfStandardType(type);
+        return typeName != null && (NamePredicate.PRIMITIVE_NUMBERS.apply(typeName) || JS_PRIMITIVE_TYPES.apply(typeName));
     }
 }
@@ -0,0 +1,27 @@
+package foo
+
+fun same(s: String?): String? = s
+
+fun box(): Boolean {
+    val a = "abc"
+    val b = "ab" + "c"
+    if (a != b) return false
+    if (!(a == b)) return false
+
+    val t = true
+    if (t != (1 < 2)) return false
+
+    val c = 'x'
+    if (c != 'x' || c == 'y') return false
+
+    val n: String? = same(null)
+    if (n == a) return false
+    if (n != same(null)) return false
+    if (same(a) != b) return false
+
+    var count = 0
+    for (i in 0..9) {
+        if (i == 3 || i.toString() == "5") count++
+    }
+    return count == 2
+}
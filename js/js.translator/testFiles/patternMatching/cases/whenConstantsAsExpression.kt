@@ -0,0 +1,27 @@
+package foo
+
+fun name(c: String): String = when (c) {
+    "r" -> "red"
+    "g", "b" -> "other"
+    else -> "none"
+}
+
+fun box(): Boolean {
+    var log = ""
+    for (i in 0..4) {
+        val digit = when (i) {
+            0, 1 -> {
+                log += "s"
+                "small"
+            }
+            2 -> "two"
+            else -> {
+                log += "b"
+                "big"
+            }
+        }
+        log += digit
+    }
+    if (log != "ssmallssmalltwobbigbbig") return false
+    return name("r") == "red" && name("b") == "other" && name("x") == "none"
+}
@@ -0,0 +1,26 @@
+package foo
+
+fun isVertical(d: String): Boolean {
+    when (d) {
+        "north", "south" -> return true
+        else -> return false
+    }
+}
+
+fun turn(d: String): String {
+    var result = d
+    when (d) {
+        "north" -> result = "east"
+        "east" -> result = "south"
+        "south" -> result = "west"
+        "west" -> result = "north"
+    }
+    return result
+}
+
+fun box(): Boolean {
+    if (!isVertical("north") || !isVertical("south") || isVertical("west")) return false
+    if (turn("north") != "east") return false
+    if (turn(turn(turn(turn("west")))) != "west") return false
+    return true
+}
@@ -0,0 +1,22 @@
+package foo
+
+fun box(): Boolean {
+    var sum = 0
+    var i = 0
+    while (true) {
+        i++
+        when (i) {
+            1, 2 -> sum += i
+            3 -> {
+                sum += 10
+            }
+            5 -> break
+            else -> sum += 100
+        }
+    }
+    val kind = when (sum) {
+        113 -> "expected"
+        else -> "unexpected"
+    }
+    return kind == "expected" && i == 5
+}
@@ -69,6 +69,31 @@ fun <T> Connection.query(sql: String, block: (ResultSet) -> T): T {
     }
 }
 
+/**
+ * Perform a query on the connection with the given fetch size and processes the result set with a function.
+ * The rows are streamed from the database *fetchSize* at a time, as far as the driver supports it:
+ * some drivers stream only when the connection is not in the auto-commit mode
+ */
+fun <T> Connection.query(sql: String, fetchSize: Int, block: (ResultSet) -> T): T {
+    return statement{
+        it.setFetchSize(fetchSize)
+        val rs = it.executeQuery(sql)
+        block(rs)
+    }
+}
+
+/**
+ * Inserts or updates a row for each element in batches of *batchSize* rows, binding the parameters
+ * of the SQL with *bind*. Returns the number of updated rows known to the driver
+ */
+fun <T> Connection.batchUpdate(sql: String, elements: Iterable<T>, batchSize: Int = 1000, bind: (PreparedStatement, T) -> Unit): Int {
+    val preparedStatement = prepareStatement(sql)
+    if (preparedStatement == null) {
+        throw IllegalStateException("No PreparedStatement returned from $this")
+    }
+    return preparedStatement.batchUpdate(elements, batchSize, bind)
+}
+
 
 
 /**
@@ -41,6 +41,34 @@ fun <T> DataSource.query(sql: String, block: (ResultSet) -> T): T {
     return useDataSource{ it.query(sql, block) }
 }
 
+/**
+ * Perform a query on the connection with the given fetch size and processes the result set with a function
+ */
+fun <T> DataSource.query(sql: String, fetchSize: Int, block: (ResultSet) -> T): T {
+    return useDataSource{ it.query(sql, fetchSize, block) }
+}
+
+/**
+ * Inserts or updates a row for each element in batches of *batchSize* rows in one transaction,
+ * binding the parameters of the SQL with *bind*
+ */
+fun <T> DataSource.batchUpdate(sql: String, elements: Iterable<T>, batchSize: Int = 1000, bind: (PreparedStatement, T) -> Unit): Int {
+    return useDataSource{
+        val autoCommit = it.getAutoCommit()
+        it.setAutoCommit(false)
+        try {
+            val updated = it.batchUpdate(sql, elements, batchSize, bind)
+            it.commit()
+            updated
+        } catch (e: Throwable) {
+            it.rollback()
+            throw e
+        } finally {
+            it.setAutoCommit(autoCommit)
+        }
+    }
+}
+
 /**
  * Performs the update using the given SQL using a [[StringTemplate]]
  */
@@ -21,4 +21,53 @@ fun <T> PreparedStatement.query(block: (ResultSet) -> T): T {
     } finally {
         close()
     }
-}
\ No newline at end of file
+}
+
+/**
+ * Binds the parameters of a row for each element with *bind* and executes them in batches of *batchSize* rows,
+ * then closes the statement. Returns the number of updated rows known to the driver.
+ *
+ * Each batch is committed separately if the connection is in the auto-commit mode, so for the best
+ * throughput turn auto-commit off and commit after the whole update
+ */
+fun <T> PreparedStatement.batchUpdate(elements: Iterable<T>, batchSize: Int = 1000, bind: (PreparedStatement, T) -> Unit): Int {
+    require(batchSize > 0, "Batch size $batchSize should be positive")
+    try {
+        var updated = 0
+        var rows = 0
+        for (element in elements) {
+            bind(this, element)
+            addBatch()
+            if (++rows == batchSize) {
+                updated += countUpdated(executeBatch())
+                rows = 0
+            }
+        }
+        if (rows > 0) {
+            updated += countUpdated(executeBatch())
+        }
+        return updated
+    } finally {
+        close()
+    }
+}
+
+/**
+ * Executes the query with the given fetch size, so that the driver streams the rows
+ * rather than loads them all at once, and processes the result set with a function
+ */
+fun <T> PreparedStatement.query(fetchSize: Int, block: (ResultSet) -> T): T {
+    setFetchSize(fetchSize)
+    return query(block)
+}
+
+private fun countUpdated(counts: IntArray?): Int {
+    var updated = 0
+    if (counts != null) {
+        for (count in counts) {
+            // Statement.SUCCESS_NO_INFO and Statement.EXECUTE_FAILED are negative
+            if (count > 0) updated += count
+        }
+    }
+    return updated
+}
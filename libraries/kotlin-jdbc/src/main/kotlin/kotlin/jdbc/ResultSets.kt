@@ -107,3 +107,44 @@ fun ResultSet.singleLong() : Long = ensureHasRow().getLong(1)
  */
 fun ResultSet.singleDouble() : Double = ensureHasRow().getDouble(1)
 
+/**
+ * Calls the *block* for each of the remaining rows, with the cursor on the row
+ */
+inline fun ResultSet.forEachRow(block: (ResultSet) -> Unit) {
+    while (next()) {
+        block(this)
+    }
+}
+
+/**
+ * Reads the column of all the remaining rows into an array, without boxing the values. SQL *null* is read as 0
+ */
+fun ResultSet.getIntColumn(columnId: Int = 1): IntArray {
+    val values = IntList()
+    while (next()) {
+        values.add(getInt(columnId))
+    }
+    return values.toArray()
+}
+
+/**
+ * Reads the column of all the remaining rows into an array, without boxing the values. SQL *null* is read as 0
+ */
+fun ResultSet.getLongColumn(columnId: Int = 1): LongArray {
+    val values = LongList()
+    while (next()) {
+        values.add(getLong(columnId))
+    }
+    return values.toArray()
+}
+
+/**
+ * Reads the column of all the remaining rows into an array, without boxing the values. SQL *null* is read as 0.0
+ */
+fun ResultSet.getDoubleColumn(columnId: Int = 1): DoubleArray {
+    val values = DoubleList()
+    while (next()) {
+        values.add(getDouble(columnId))
+    }
+    return values.toArray()
+}
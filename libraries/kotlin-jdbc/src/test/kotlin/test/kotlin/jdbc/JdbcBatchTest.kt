@@ -0,0 +1,56 @@
+package test.kotlin.jdbc
+
+import javax.sql.DataSource
+import kotlin.jdbc.*
+import kotlin.test.*
+import org.h2.jdbcx.JdbcConnectionPool
+import org.junit.Test as test
+
+fun createNumbersDataSource(name: String): DataSource {
+    val dataSource = JdbcConnectionPool.create("jdbc:h2:mem:$name;DB_CLOSE_DELAY=-1", "user", "password")
+    if (dataSource == null) {
+        throw IllegalStateException("No DataSource created")
+    }
+    dataSource.update("create table if not exists numbers (id int primary key, value bigint, ratio double)")
+    return dataSource
+}
+
+class JdbcBatchTest {
+    val numbers = createNumbersDataSource("KotlinJdbcBatchTest")
+
+    test fun batchUpdateInsertsAllRows() {
+        numbers.update("delete from numbers")
+        val updated = numbers.batchUpdate("insert into numbers (id, value, ratio) values (?, ?, ?)", 0..2499, 1000) { (statement, i) ->
+            statement.setInt(1, i)
+            statement.setLong(2, i.toLong() * 1000000000)
+            statement.setDouble(3, i / 4.0)
+        }
+        assertEquals(2500, updated)
+        assertEquals(2500, numbers.query("select count(*) from numbers") { it.singleInt() })
+
+        val ids = numbers.query("select id from numbers order by id") { it.getIntColumn() }
+        assertEquals(2500, ids.size)
+        assertEquals(2499, ids[2499])
+
+        val values = numbers.query("select value from numbers order by id", 100) { it.getLongColumn() }
+        assertEquals(2499.toLong() * 1000000000, values[2499])
+
+        val ratios = numbers.query("select id, ratio from numbers order by id") { it.getDoubleColumn(2) }
+        assertEquals(0.25, ratios[1])
+
+        var sum = 0.toLong()
+        numbers.query("select value from numbers", 100) {
+            it.forEachRow { sum += it.getLong(1) }
+        }
+        assertEquals(2500.toLong() * 2499 / 2 * 1000000000, sum)
+    }
+
+    test fun failedBatchIsRolledBack() {
+        fails {
+            numbers.batchUpdate("insert into numbers (id, value, ratio) values (?, 0, 0)", arrayList(10000, 10001, 10000), 2) { (statement, id) ->
+                statement.setInt(1, id)
+            }
+        }
+        assertEquals(0, numbers.query("select count(*) from numbers where id >= 10000") { it.singleInt() })
+    }
+}
@@ -0,0 +1,57 @@
+package test.kotlin.jdbc
+
+import kotlin.jdbc.*
+import kotlin.util.*
+
+// Compares row-at-a-time and batched inserts, and row mapping and columnar reads, on an in-memory H2 database
+
+fun main(args: Array<String>) {
+    val rows = if (args.size > 0) Integer.parseInt(args[0]) else 100000
+    val numbers = createNumbersDataSource("KotlinJdbcBenchmark")
+
+    for (run in 0..4) {
+        numbers.update("delete from numbers")
+        val singleMillis = measureTimeMillis {
+            numbers.useDataSource {
+                it.setAutoCommit(false)
+                val statement = it.prepareStatement("insert into numbers (id, value, ratio) values (?, ?, ?)")!!
+                for (i in 0..rows - 1) {
+                    statement.setInt(1, i)
+                    statement.setLong(2, i.toLong())
+                    statement.setDouble(3, i.toDouble())
+                    statement.executeUpdate()
+                }
+                statement.close()
+                it.commit()
+                it.setAutoCommit(true)
+            }
+        }
+
+        numbers.update("delete from numbers")
+        val batchMillis = measureTimeMillis {
+            numbers.batchUpdate("insert into numbers (id, value, ratio) values (?, ?, ?)", 0..rows - 1) { (statement, i) ->
+                statement.setInt(1, i)
+                statement.setLong(2, i.toLong())
+                statement.setDouble(3, i.toDouble())
+            }
+        }
+
+        var mappedSum = 0.toLong()
+        val mapMillis = measureTimeMillis {
+            numbers.query("select value from numbers") {
+                for (value in it.map { it.getLong(1) }) mappedSum += value
+            }
+        }
+
+        var columnSum = 0.toLong()
+        val columnMillis = measureTimeMillis {
+            val values = numbers.query("select value from numbers", 1000) { it.getLongColumn() }
+            for (value in values) columnSum += value
+        }
+        check(mappedSum == columnSum)
+
+        println("Run $run, $rows rows")
+        println("  insert: one by one $singleMillis ms, batched $batchMillis ms")
+        println("  read: mapped $mapMillis ms, columnar $columnMillis ms")
+    }
+}
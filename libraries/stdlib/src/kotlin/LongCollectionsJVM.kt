@@ -0,0 +1,409 @@
+package kotlin
+
+import java.util.ArrayList
+import java.util.Arrays
+import kotlin.support.primitiveEquals
+import kotlin.support.primitiveHash
+
+//
+// Collections of primitive values which keep them in primitive arrays, so no element is boxed.
+// The versions for the other primitive types are generated from this file,
+// see [[GenerateStandardLib.kt]] for more details
+//
+
+/**
+ * A growable list of primitive values
+ *
+ * @includeFunctionBody ../../test/PrimitiveCollectionsTest.kt list
+ */
+public class LongList(initialCapacity: Int = 10) {
+    private var elements = LongArray(initialCapacity)
+    private var length = 0
+
+    /** Returns the number of elements in this list */
+    public val size: Int
+        get() = length
+
+    public fun isEmpty(): Boolean = length == 0
+
+    public fun get(index: Int): Long {
+        checkIndex(index)
+        return elements[index]
+    }
+
+    public fun set(index: Int, value: Long) {
+        checkIndex(index)
+        elements[index] = value
+    }
+
+    public fun add(value: Long) {
+        if (length == elements.size) {
+            elements = Arrays.copyOf(elements, Math.max(2 * length, 10))!!
+        }
+        elements[length++] = value
+    }
+
+    /** Removes and returns the last element of this list */
+    public fun removeLast(): Long {
+        checkIndex(length - 1)
+        return elements[--length]
+    }
+
+    public fun clear() {
+        length = 0
+    }
+
+    public fun indexOf(value: Long): Int {
+        for (i in 0..length - 1) {
+            if (primitiveEquals(elements[i], value)) return i
+        }
+        return -1
+    }
+
+    public fun contains(value: Long): Boolean = indexOf(value) >= 0
+
+    /** Returns an iterator, whose *next()* calls the compiler turns into the primitive *nextLong()* */
+    public fun iterator(): LongIterator = object : LongIterator() {
+        var index = 0
+
+        override fun hasNext(): Boolean = index < length
+
+        override fun nextLong(): Long = get(index++)
+    }
+
+    public fun toArray(): LongArray = Arrays.copyOf(elements, length)!!
+
+    public override fun toString(): String = Arrays.toString(toArray())!!
+
+    private fun checkIndex(index: Int) {
+        if (index < 0 || index >= length) {
+            throw IndexOutOfBoundsException("Index: $index, size: $length")
+        }
+    }
+}
+
+/**
+ * A base class for hash tables of primitive keys, with open addressing and linear probing
+ */
+public abstract class AbstractLongHashTable(expectedSize: Int) {
+    protected var keys: LongArray = LongArray(tableSizeFor(expectedSize))
+    protected var used: BooleanArray = BooleanArray(keys.size)
+    private var count = 0
+
+    /** Returns the number of keys in this table */
+    public val size: Int
+        get() = count
+
+    public fun isEmpty(): Boolean = count == 0
+
+    public open fun clear() {
+        Arrays.fill(used, false)
+        count = 0
+    }
+
+    /** Returns an iterator over the keys in no particular order, which mustn't be used after the table is changed */
+    protected fun keyIterator(): LongIterator = object : LongIterator() {
+        var index = nextUsedSlot(0)
+
+        override fun hasNext(): Boolean = index < keys.size
+
+        override fun nextLong(): Long {
+            if (index >= keys.size) throw java.util.NoSuchElementException()
+            val key = keys[index]
+            index = nextUsedSlot(index + 1)
+            return key
+        }
+    }
+
+    /** Returns the slot of the key, or -1 if there's no such key */
+    protected fun findSlot(key: Long): Int {
+        val mask = keys.size - 1
+        var slot = primitiveHash(key) and mask
+        while (used[slot]) {
+            if (primitiveEquals(keys[slot], key)) return slot
+            slot = (slot + 1) and mask
+        }
+        return -1
+    }
+
+    /** Returns the slot of the key, which is added if there's no such key. Slots change when the table grows */
+    protected fun insertSlot(key: Long): Int {
+        if (4 * (count + 1) > 3 * keys.size) {
+            rehash(2 * keys.size)
+        }
+        val mask = keys.size - 1
+        var slot = primitiveHash(key) and mask
+        while (used[slot]) {
+            if (primitiveEquals(keys[slot], key)) return slot
+            slot = (slot + 1) and mask
+        }
+        keys[slot] = key
+        used[slot] = true
+        count++
+        return slot
+    }
+
+    /** Removes the key in the slot, moving the keys after it so that no probe sequence is broken */
+    protected fun removeSlot(slot: Int) {
+        val mask = keys.size - 1
+        var gap = slot
+        var index = (slot + 1) and mask
+        while (used[index]) {
+            val home = primitiveHash(keys[index]) and mask
+            // The key can be moved to the gap if the gap is between its home slot and its current slot
+            if (((index - home) and mask) >= ((index - gap) and mask)) {
+                keys[gap] = keys[index]
+                moveValue(index, gap)
+                gap = index
+            }
+            index = (index + 1) and mask
+        }
+        used[gap] = false
+        clearValue(gap)
+        count--
+    }
+
+    /** Called when the key in the slot *from* is moved to the slot *to* */
+    protected open fun moveValue(from: Int, to: Int) {
+    }
+
+    /** Called when the slot becomes free */
+    protected open fun clearValue(slot: Int) {
+    }
+
+    /** Called when the table grows, after the keys are copied into the new arrays */
+    protected open fun rehashValues(oldSlots: IntArray, newSlots: IntArray, newCapacity: Int) {
+    }
+
+    private fun rehash(newCapacity: Int) {
+        val oldKeys = keys
+        val oldUsed = used
+        keys = LongArray(newCapacity)
+        used = BooleanArray(newCapacity)
+
+        val oldSlots = IntArray(count)
+        val newSlots = IntArray(count)
+        var moved = 0
+        val mask = newCapacity - 1
+        for (i in 0..oldKeys.size - 1) {
+            if (!oldUsed[i]) continue
+            var slot = primitiveHash(oldKeys[i]) and mask
+            while (used[slot]) {
+                slot = (slot + 1) and mask
+            }
+            keys[slot] = oldKeys[i]
+            used[slot] = true
+            oldSlots[moved] = i
+            newSlots[moved] = slot
+            moved++
+        }
+        rehashValues(oldSlots, newSlots, newCapacity)
+    }
+
+    private fun nextUsedSlot(from: Int): Int {
+        var index = from
+        while (index < keys.size && !used[index]) {
+            index++
+        }
+        return index
+    }
+
+    private fun tableSizeFor(expectedSize: Int): Int {
+        var capacity = 4
+        while (3 * capacity < 4 * expectedSize) {
+            capacity *= 2
+        }
+        return capacity
+    }
+}
+
+/**
+ * A hash set of primitive values
+ *
+ * @includeFunctionBody ../../test/PrimitiveCollectionsTest.kt set
+ */
+public class LongSet(expectedSize: Int = 16) : AbstractLongHashTable(expectedSize) {
+    public fun contains(value: Long): Boolean = findSlot(value) >= 0
+
+    /** Returns true if the value wasn't in the set */
+    public fun add(value: Long): Boolean {
+        val sizeBefore = size
+        insertSlot(value)
+        return size > sizeBefore
+    }
+
+    /** Returns true if the value was in the set */
+    public fun remove(value: Long): Boolean {
+        val slot = findSlot(value)
+        if (slot < 0) return false
+        removeSlot(slot)
+        return true
+    }
+
+    public fun iterator(): LongIterator = keyIterator()
+
+    public fun toArray(): LongArray {
+        val result = LongArray(size)
+        var index = 0
+        for (value in this) {
+            result[index++] = value
+        }
+        return result
+    }
+}
+
+/**
+ * A hash map with primitive keys. The values are objects, so only the keys are never boxed
+ *
+ * @includeFunctionBody ../../test/PrimitiveCollectionsTest.kt map
+ */
+public class LongMap<V>(expectedSize: Int = 16) : AbstractLongHashTable(expectedSize) {
+    private var values = arrayOfNulls<Any?>(keys.size)
+
+    public fun containsKey(key: Long): Boolean = findSlot(key) >= 0
+
+    /** Returns the value for the key, or *null* if there's no such key */
+    public fun get(key: Long): V? {
+        val slot = findSlot(key)
+        return if (slot >= 0) values[slot] as V else null
+    }
+
+    public fun set(key: Long, value: V) {
+        values[insertSlot(key)] = value
+    }
+
+    /** Returns the previous value for the key, or *null* if there was no such key */
+    public fun remove(key: Long): V? {
+        val slot = findSlot(key)
+        if (slot < 0) return null
+        val value = values[slot] as V
+        removeSlot(slot)
+        return value
+    }
+
+    /** Returns an iterator over the keys */
+    public fun keys(): LongIterator = keyIterator()
+
+    public override fun clear() {
+        super.clear()
+        Arrays.fill(values, null)
+    }
+
+    protected override fun moveValue(from: Int, to: Int) {
+        values[to] = values[from]
+    }
+
+    protected override fun clearValue(slot: Int) {
+        values[slot] = null
+    }
+
+    protected override fun rehashValues(oldSlots: IntArray, newSlots: IntArray, newCapacity: Int) {
+        val oldValues = values
+        values = arrayOfNulls<Any?>(newCapacity)
+        for (i in 0..oldSlots.size - 1) {
+            values[newSlots[i]] = oldValues[oldSlots[i]]
+        }
+    }
+}
+
+/** Returns a new [[LongList]] of the given values */
+public fun longListOf(vararg values: Long): LongList = values.toLongList()
+
+/** Returns a new [[LongSet]] of the given values */
+public fun longSetOf(vararg values: Long): LongSet = values.toLongSet()
+
+/** Copies the values into a new [[LongList]] */
+public fun LongArray.toLongList(): LongList {
+    val result = LongList(size)
+    for (value in this) result.add(value)
+    return result
+}
+
+/** Copies the values into a new [[LongSet]] */
+public fun LongArray.toLongSet(): LongSet {
+    val result = LongSet(size)
+    for (value in this) result.add(value)
+    return result
+}
+
+/** Unboxes the values into a new [[LongList]] */
+public fun Iterable<Long>.toLongList(): LongList {
+    val result = LongList()
+    for (value in this) result.add(value)
+    return result
+}
+
+/** Unboxes the values into a new [[LongSet]] */
+public fun Iterable<Long>.toLongSet(): LongSet {
+    val result = LongSet()
+    for (value in this) result.add(value)
+    return result
+}
+
+/** Boxes the values into a new [[List]] */
+public fun LongList.toList(): List<Long> {
+    val result = ArrayList<Long>(size)
+    for (value in this) result.add(value)
+    return result
+}
+
+/** Performs the given *operation* on each element */
+public inline fun LongList.forEach(operation: (Long) -> Unit): Unit = for (element in this) operation(element)
+
+/** Performs the given *operation* on each element */
+public inline fun LongSet.forEach(operation: (Long) -> Unit): Unit = for (element in this) operation(element)
+
+/** Returns the value for the key, adding the value calculated by *defaultValue* if there's no such key */
+public inline fun <V> LongMap<V>.getOrPut(key: Long, defaultValue: () -> V): V {
+    if (containsKey(key)) {
+        return get(key) as V
+    }
+    val value = defaultValue()
+    set(key, value)
+    return value
+}
+
+/** Performs the given *operation* on each key and value */
+public inline fun <V> LongMap<V>.forEach(operation: (Long, V) -> Unit) {
+    for (key in keys()) operation(key, get(key) as V)
+}
+
+/** Folds all the elements from left to right with the *initial* value to perform the operation on sequential pairs of elements */
+public inline fun <R> LongList.fold(initial: R, operation: (R, Long) -> R): R {
+    var answer = initial
+    for (element in this) answer = operation(answer, element)
+    return answer
+}
+
+/** Returns true if any element matches the given *predicate* */
+public inline fun LongList.any(predicate: (Long) -> Boolean): Boolean {
+    for (element in this) if (predicate(element)) return true
+    return false
+}
+
+/** Returns true if all the elements match the given *predicate* */
+public inline fun LongList.all(predicate: (Long) -> Boolean): Boolean {
+    for (element in this) if (!predicate(element)) return false
+    return true
+}
+
+/** Returns the number of elements which match the given *predicate* */
+public inline fun LongList.count(predicate: (Long) -> Boolean): Int {
+    var count = 0
+    for (element in this) if (predicate(element)) count++
+    return count
+}
+
+/** Returns a new list of the elements which match the given *predicate* */
+public inline fun LongList.filter(predicate: (Long) -> Boolean): LongList {
+    val result = LongList()
+    for (element in this) if (predicate(element)) result.add(element)
+    return result
+}
+
+/** Returns a new list of the results of applying *transform* to each element */
+public inline fun LongList.mapToLong(transform: (Long) -> Long): LongList {
+    val result = LongList(size)
+    for (element in this) result.add(transform(element))
+    return result
+}
@@ -0,0 +1,213 @@
+package kotlin
+
+import java.util.ArrayList
+import kotlin.support.AbstractIterator
+
+//
+// Unlike the functions in [[IterablesLazy.kt]], which create a new list for each step,
+// a stream doesn't look at any element until it is iterated, and then pulls the elements
+// through all the steps one at a time. Consecutive [[map]] and [[filter]] steps are fused,
+// so that each of them costs a function call per element rather than an iterator.
+//
+
+/**
+ * A lazily evaluated sequence of elements which can be iterated more than once if its source can
+ *
+ * @includeFunctionBody ../../test/iterators/StreamsTest.kt filterAndMapArePulledOneElementAtATime
+ */
+public trait Stream<out T> {
+    /** Returns an iterator which evaluates the elements of this stream as they are requested */
+    public fun iterator(): Iterator<T>
+}
+
+/**
+ * Returns a stream over the elements of this collection
+ *
+ * @includeFunctionBody ../../test/iterators/StreamsTest.kt streamIsEvaluatedOnlyWhenIterated
+ */
+public fun <T> Iterable<T>.stream(): Stream<T> = IterableStream(this)
+
+/**
+ * Returns a stream which starts with *initialValue* and then invokes *nextFunction* on the previous element
+ * to calculate the next one, until it returns *null*
+ *
+ * @includeFunctionBody ../../test/iterators/StreamsTest.kt infiniteStreamIsNotMaterialized
+ */
+public fun <T: Any> stream(initialValue: T, nextFunction: (T) -> T?): Stream<T> = GeneratorStream(initialValue, nextFunction)
+
+/**
+ * Returns a stream of the elements which match the given *predicate*
+ *
+ * @includeFunctionBody ../../test/iterators/StreamsTest.kt filterAndMapArePulledOneElementAtATime
+ */
+public fun <T> Stream<T>.filter(predicate: (T) -> Boolean): Stream<T> {
+    if (this is FilteringStream<T>) {
+        return and(predicate)
+    }
+    return FilteringStream(this, predicate)
+}
+
+/** Returns a stream of the elements which do not match the given *predicate* */
+public fun <T> Stream<T>.filterNot(predicate: (T) -> Boolean): Stream<T> = filter { !predicate(it) }
+
+/**
+ * Returns a stream of the results of applying *transform* to each element
+ *
+ * @includeFunctionBody ../../test/iterators/StreamsTest.kt filterAndMapArePulledOneElementAtATime
+ */
+public fun <T, R> Stream<T>.map(transform: (T) -> R): Stream<R> {
+    if (this is TransformingStream<*, T>) {
+        return andThen(transform)
+    }
+    return TransformingStream(this, transform)
+}
+
+/**
+ * Returns a stream of the concatenated elements of the streams *transform* returns for each element
+ *
+ * @includeFunctionBody ../../test/iterators/StreamsTest.kt flatMapConcatenatesTheTransformedStreams
+ */
+public fun <T, R> Stream<T>.flatMap(transform: (T) -> Stream<R>): Stream<R> = FlatteningStream(this, transform)
+
+/**
+ * Returns a stream of the first elements which match the given *predicate*
+ *
+ * @includeFunctionBody ../../test/iterators/StreamsTest.kt infiniteStreamIsNotMaterialized
+ */
+public fun <T> Stream<T>.takeWhile(predicate: (T) -> Boolean): Stream<T> = TakeWhileStream(this, predicate)
+
+/**
+ * Returns a stream of the first *n* elements
+ *
+ * @includeFunctionBody ../../test/iterators/StreamsTest.kt takeDoesNotPullMoreElementsThanNeeded
+ */
+public fun <T> Stream<T>.take(n: Int): Stream<T> {
+    require(n >= 0, "Requested element count $n is less than zero")
+    return TakeStream(this, n)
+}
+
+/** Performs the given *operation* on each element of this stream */
+public inline fun <T> Stream<T>.forEach(operation: (T) -> Unit): Unit = iterator().forEach(operation)
+
+/** Folds all the elements from left to right with the *initial* value to perform the operation on sequential pairs of elements */
+public inline fun <T, R> Stream<T>.fold(initial: R, operation: (R, T) -> R): R = iterator().fold(initial, operation)
+
+/** Copies all the elements of this stream into the given collection */
+public fun <T, C: MutableCollection<in T>> Stream<T>.toCollection(result: C): C {
+    for (element in this) result.add(element)
+    return result
+}
+
+/** Copies all the elements of this stream into a [[List]] */
+public fun <T> Stream<T>.toList(): List<T> = toCollection(ArrayList<T>())
+
+private class IterableStream<T>(val iterable: Iterable<T>) : Stream<T> {
+    override fun iterator(): Iterator<T> = iterable.iterator()
+}
+
+private class GeneratorStream<T: Any>(val initialValue: T, val nextFunction: (T) -> T?) : Stream<T> {
+    override fun iterator(): Iterator<T> = object : AbstractIterator<T>() {
+        var last: T? = null
+
+        override protected fun computeNext(): Unit {
+            val previous = last
+            val next = if (previous == null) initialValue else (nextFunction)(previous)
+            if (next == null) {
+                done()
+            } else {
+                last = next
+                setNext(next)
+            }
+        }
+    }
+}
+
+private class FilteringStream<T>(val source: Stream<T>, val predicate: (T) -> Boolean) : Stream<T> {
+    /** Checks both predicates in the iterator of the same source instead of filtering this stream again */
+    fun and(next: (T) -> Boolean): Stream<T> = FilteringStream(source, { (predicate)(it) && next(it) })
+
+    override fun iterator(): Iterator<T> = object : AbstractIterator<T>() {
+        val iterator = source.iterator()
+
+        override protected fun computeNext(): Unit {
+            while (iterator.hasNext()) {
+                val next = iterator.next()
+                if ((predicate)(next)) {
+                    setNext(next)
+                    return
+                }
+            }
+            done()
+        }
+    }
+}
+
+private class TransformingStream<T, R>(val source: Stream<T>, val transform: (T) -> R) : Stream<R> {
+    /** Composes both transformations in the iterator of the same source instead of mapping this stream again */
+    fun <E> andThen(next: (R) -> E): Stream<E> = TransformingStream(source, { next((transform)(it)) })
+
+    override fun iterator(): Iterator<R> = object : Iterator<R> {
+        val iterator = source.iterator()
+
+        override fun hasNext(): Boolean = iterator.hasNext()
+
+        override fun next(): R = (transform)(iterator.next())
+    }
+}
+
+private class FlatteningStream<T, R>(val source: Stream<T>, val transform: (T) -> Stream<R>) : Stream<R> {
+    override fun iterator(): Iterator<R> = object : AbstractIterator<R>() {
+        val iterator = source.iterator()
+        var transformed: Iterator<R>? = null
+
+        override protected fun computeNext(): Unit {
+            while (true) {
+                val current = transformed
+                if (current != null && current.hasNext()) {
+                    setNext(current.next())
+                    return
+                }
+                if (iterator.hasNext()) {
+                    transformed = (transform)(iterator.next()).iterator()
+                } else {
+                    done()
+                    return
+                }
+            }
+        }
+    }
+}
+
+private class TakeWhileStream<T>(val source: Stream<T>, val predicate: (T) -> Boolean) : Stream<T> {
+    override fun iterator(): Iterator<T> = object : AbstractIterator<T>() {
+        val iterator = source.iterator()
+
+        override protected fun computeNext(): Unit {
+            if (iterator.hasNext()) {
+                val next = iterator.next()
+                if ((predicate)(next)) {
+                    setNext(next)
+                    return
+                }
+            }
+            done()
+        }
+    }
+}
+
+private class TakeStream<T>(val source: Stream<T>, val count: Int) : Stream<T> {
+    override fun iterator(): Iterator<T> = object : AbstractIterator<T>() {
+        val iterator = source.iterator()
+        var left = count
+
+        override protected fun computeNext(): Unit {
+            // The source is not asked for the element after the last one, which may be expensive or may not exist
+            if (left > 0 && iterator.hasNext()) {
+                left--
+                setNext(iterator.next())
+            } else {
+                done()
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package kotlin.concurrent
+
+import java.util.ArrayList
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.atomic.AtomicBoolean
+
+//
+// Parallel bulk operations split the indices of the input into contiguous chunks,
+// process the chunks on a shared pool of daemon threads and on the calling thread,
+// and put the partial results together in the order of the input.
+//
+
+/**
+ * Inputs with fewer elements than this are processed sequentially on the calling thread,
+ * as are the operations started from the parallel operations themselves
+ */
+public val PARALLEL_THRESHOLD: Int = 1000
+
+/**
+ * Returns a list of the results of applying *transform* to each element, computed in parallel
+ *
+ * @includeFunctionBody ../../test/concurrent/ParallelTest.kt parallelMapKeepsTheOrder
+ */
+public fun <T, R> Array<T>.parallelMap(transform: (T) -> R): List<R> = mapChunks(size, { this[it] }, transform)
+
+/** Returns a list of the results of applying *transform* to each element, computed in parallel */
+public fun <T, R> List<T>.parallelMap(transform: (T) -> R): List<R> = mapChunks(size(), { get(it) }, transform)
+
+/** Returns a list of the results of applying *transform* to each number, computed in parallel */
+public fun <R> IntRange.parallelMap(transform: (Int) -> R): List<R> = mapChunks(rangeSize(this), { start + it }, transform)
+
+/**
+ * Returns a list of the elements which match the given *predicate*, checked in parallel
+ *
+ * @includeFunctionBody ../../test/concurrent/ParallelTest.kt parallelFilterKeepsTheOrder
+ */
+public fun <T> Array<T>.parallelFilter(predicate: (T) -> Boolean): List<T> = filterChunks(size, { this[it] }, predicate)
+
+/** Returns a list of the elements which match the given *predicate*, checked in parallel */
+public fun <T> List<T>.parallelFilter(predicate: (T) -> Boolean): List<T> = filterChunks(size(), { get(it) }, predicate)
+
+/** Returns a list of the numbers which match the given *predicate*, checked in parallel */
+public fun IntRange.parallelFilter(predicate: (Int) -> Boolean): List<Int> = filterChunks(rangeSize(this), { start + it }, predicate)
+
+/**
+ * Applies the *operation* to the elements in parallel. The order of the operands is kept,
+ * but the elements are grouped differently than by [[reduce]], so the *operation* must be associative
+ *
+ * @includeFunctionBody ../../test/concurrent/ParallelTest.kt parallelReduceSumsTheElements
+ */
+public fun <T> Array<T>.parallelReduce(operation: (T, T) -> T): T = reduceChunks(size, { this[it] }, operation)
+
+/** Applies the associative *operation* to the elements in parallel */
+public fun <T> List<T>.parallelReduce(operation: (T, T) -> T): T = reduceChunks(size(), { get(it) }, operation)
+
+/** Applies the associative *operation* to the numbers in parallel */
+public fun IntRange.parallelReduce(operation: (Int, Int) -> Int): Int = reduceChunks(rangeSize(this), { start + it }, operation)
+
+/**
+ * Performs the given *operation* on each element in parallel, in no particular order
+ *
+ * @includeFunctionBody ../../test/concurrent/ParallelTest.kt parallelForEachVisitsEachElementOnce
+ */
+public fun <T> Array<T>.parallelForEach(operation: (T) -> Unit): Unit = forEachChunks(size, { this[it] }, operation)
+
+/** Performs the given *operation* on each element in parallel, in no particular order */
+public fun <T> List<T>.parallelForEach(operation: (T) -> Unit): Unit = forEachChunks(size(), { get(it) }, operation)
+
+/** Performs the given *operation* on each number in parallel, in no particular order */
+public fun IntRange.parallelForEach(operation: (Int) -> Unit): Unit = forEachChunks(rangeSize(this), { start + it }, operation)
+
+private object ParallelPool {
+    val parallelism = Runtime.getRuntime()!!.availableProcessors()
+
+    val executor: ExecutorService = Executors.newFixedThreadPool(parallelism, object : ThreadFactory {
+        override fun newThread(runnable: Runnable?): Thread? {
+            val thread = ParallelWorker(runnable)
+            thread.setDaemon(true)
+            thread.setName("kotlin-parallel-" + thread.getId())
+            return thread
+        }
+    })!!
+}
+
+/** Operations started on a worker are not split again, a worker waiting for the queued chunks could starve the pool */
+private class ParallelWorker(runnable: Runnable?) : Thread(runnable)
+
+private fun rangeSize(range: IntRange): Int {
+    val size = if (range.end >= range.start) range.end.toLong() - range.start + 1 else 0.toLong()
+    if (size > java.lang.Integer.MAX_VALUE) {
+        throw IllegalArgumentException("Range $range has more than ${java.lang.Integer.MAX_VALUE} elements")
+    }
+    return size.toInt()
+}
+
+private fun chunkCount(size: Int): Int {
+    if (currentThread is ParallelWorker) return 1
+    return Math.max(1, Math.min(size / PARALLEL_THRESHOLD, 4 * ParallelPool.parallelism))
+}
+
+private fun chunkStart(size: Int, chunks: Int, chunk: Int): Int = (size.toLong() * chunk / chunks).toInt()
+
+/**
+ * Runs the *action* with the index and the bounds of each chunk, and waits for all of them to finish.
+ * If a chunk fails, the chunks which haven't started yet are skipped, and the call returns only after the running ones
+ * finish, so no user code runs and no results are written after it
+ */
+private fun runChunks(size: Int, chunks: Int, action: (Int, Int, Int) -> Unit) {
+    val failed = AtomicBoolean()
+    val futures = ArrayList<Future<*>>(chunks - 1)
+    var error: Throwable? = null
+    try {
+        for (chunk in 1..chunks - 1) {
+            val from = chunkStart(size, chunks, chunk)
+            val to = chunkStart(size, chunks, chunk + 1)
+            futures.add(ParallelPool.executor.submit(runnable {
+                if (!failed.get()) {
+                    try {
+                        action(chunk, from, to)
+                    }
+                    catch (e: Throwable) {
+                        failed.set(true)
+                        throw e
+                    }
+                }
+            })!!)
+        }
+        // The calling thread would wait anyway, so it takes the first chunk
+        action(0, 0, chunkStart(size, chunks, 1))
+    }
+    catch (e: Throwable) {
+        failed.set(true)
+        error = e
+    }
+    for (future in futures) {
+        try {
+            future.get()
+        }
+        catch (e: ExecutionException) {
+            if (error == null) error = e.getCause() ?: e
+        }
+        catch (e: InterruptedException) {
+            // The chunks are still waited for, the interruption is reported afterwards
+            failed.set(true)
+            if (error == null) error = e
+        }
+    }
+    val e = error
+    if (e != null) throw e
+}
+
+private fun <T, R> mapChunks(size: Int, get: (Int) -> T, transform: (T) -> R): List<R> {
+    val results = arrayOfNulls<Any?>(size)
+    runChunks(size, chunkCount(size)) { (chunk, from, to) ->
+        for (i in from..to - 1) {
+            results[i] = transform(get(i))
+        }
+    }
+    val list = ArrayList<R>(size)
+    for (result in results) {
+        list.add(result as R)
+    }
+    return list
+}
+
+private fun <T> filterChunks(size: Int, get: (Int) -> T, predicate: (T) -> Boolean): List<T> {
+    val chunks = chunkCount(size)
+    val parts = arrayOfNulls<List<T>>(chunks)
+    runChunks(size, chunks) { (chunk, from, to) ->
+        val part = ArrayList<T>()
+        for (i in from..to - 1) {
+            val element = get(i)
+            if (predicate(element)) part.add(element)
+        }
+        parts[chunk] = part
+    }
+    val list = ArrayList<T>()
+    for (part in parts) {
+        list.addAll(part!!)
+    }
+    return list
+}
+
+private fun <T> reduceChunks(size: Int, get: (Int) -> T, operation: (T, T) -> T): T {
+    if (size == 0) {
+        throw UnsupportedOperationException("Empty collection can't be reduced")
+    }
+    val chunks = chunkCount(size)
+    val partials = arrayOfNulls<Any?>(chunks)
+    runChunks(size, chunks) { (chunk, from, to) ->
+        var result = get(from)
+        for (i in from + 1..to - 1) {
+            result = operation(result, get(i))
+        }
+        partials[chunk] = result
+    }
+    var result = partials[0] as T
+    for (i in 1..chunks - 1) {
+        result = operation(result, partials[i] as T)
+    }
+    return result
+}
+
+private fun <T> forEachChunks(size: Int, get: (Int) -> T, operation: (T) -> Unit) {
+    runChunks(size, chunkCount(size)) { (chunk, from, to) ->
+        for (i in from..to - 1) {
+            operation(get(i))
+        }
+    }
+}
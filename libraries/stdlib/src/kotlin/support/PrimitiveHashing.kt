@@ -0,0 +1,28 @@
+package kotlin.support
+
+//
+// Hashing and equality of the keys of the primitive hash sets and maps, like [[LongSet]] and [[LongMap]].
+// The tables are open addressed with linear probing, so the hash codes are scrambled to spread
+// sequential keys and keys differing only in the high bits.
+//
+
+public fun primitiveHash(value: Int): Int {
+    val h = value * -1640531527
+    return h xor (h ushr 16)
+}
+
+public fun primitiveHash(value: Long): Int = primitiveHash((value xor (value ushr 32)).toInt())
+
+public fun primitiveHash(value: Double): Int = primitiveHash(java.lang.Double.doubleToLongBits(value))
+
+public fun primitiveHash(value: Char): Int = primitiveHash(value.toInt())
+
+public fun primitiveEquals(a: Int, b: Int): Boolean = a == b
+
+public fun primitiveEquals(a: Long, b: Long): Boolean = a == b
+
+/** Compares the bits as [[java.lang.Double.equals()]] does, so that *NaN* can be found and 0.0 and -0.0 are different */
+public fun primitiveEquals(a: Double, b: Double): Boolean =
+        java.lang.Double.doubleToLongBits(a) == java.lang.Double.doubleToLongBits(b)
+
+public fun primitiveEquals(a: Char, b: Char): Boolean = a == b
@@ -0,0 +1,134 @@
+package test.collections
+
+import kotlin.test.*
+
+import java.util.*
+import java.lang.Double as jDouble
+
+import org.junit.Test as test
+
+class PrimitiveCollectionsTest {
+
+    test fun list() {
+        val list = LongList()
+        for (i in 0..99) {
+            list.add(i.toLong() * 3)
+        }
+        assertEquals(100, list.size)
+        assertEquals(27.toLong(), list[9])
+        assertEquals(33, list.indexOf(99))
+        assertFalse(list.contains(100))
+
+        list[0] = -1
+        assertEquals(-1.toLong(), list[0])
+        assertEquals(297.toLong(), list.removeLast())
+        assertEquals(99, list.size)
+
+        fails {
+            list[99]
+        }
+    }
+
+    test fun listIteration() {
+        val list = intListOf(3, 1, 4, 1, 5)
+        var sum = 0
+        for (element in list) {
+            sum += element
+        }
+        assertEquals(14, sum)
+        assertEquals(14, list.fold(0) { (result, element) -> result + element })
+        assertEquals(2, list.count { it == 1 })
+        assertTrue(list.any { it > 4 })
+        assertFalse(list.all { it > 1 })
+        assertEquals(arrayList(3, 4, 5), list.filter { it > 1 }.toList())
+        assertEquals(arrayList(6, 2, 8, 2, 10), list.mapToInt { it * 2 }.toList())
+        assertEquals("[3, 1, 4, 1, 5]", list.toString())
+
+        list.clear()
+        assertTrue(list.isEmpty())
+    }
+
+    test fun set() {
+        val set = LongSet()
+        for (i in 0..999) {
+            assertTrue(set.add(i.toLong() * 1000000007))
+        }
+        assertFalse(set.add(0))
+        assertEquals(1000, set.size)
+        assertTrue(set.contains(999.toLong() * 1000000007))
+        assertFalse(set.contains(1))
+
+        for (i in 0..999 step 2) {
+            assertTrue(set.remove(i.toLong() * 1000000007))
+        }
+        assertFalse(set.remove(0))
+        assertEquals(500, set.size)
+        for (i in 0..999) {
+            assertEquals(i % 2 == 1, set.contains(i.toLong() * 1000000007), "$i")
+        }
+
+        var count = 0
+        set.forEach { count++ }
+        assertEquals(500, count)
+        assertEquals(500, set.toArray().size)
+    }
+
+    test fun setOfDoubles() {
+        val set = doubleSetOf(1.5, jDouble.NaN, 0.0, -0.0)
+        assertEquals(4, set.size)
+        assertTrue(set.contains(jDouble.NaN))
+        assertTrue(set.contains(-0.0))
+        assertFalse(set.add(1.5))
+    }
+
+    test fun setOfChars() {
+        val set = "hello, world".toCharArray().toCharSet()
+        assertEquals(9, set.size)
+        assertTrue(set.contains('w'))
+        assertFalse(set.contains('x'))
+    }
+
+    test fun map() {
+        val map = LongMap<String>()
+        for (i in 0..999) {
+            map[i.toLong() shl 32] = "v$i"
+        }
+        assertEquals(1000, map.size)
+        assertEquals("v7", map[7.toLong() shl 32])
+        assertNull(map[7])
+
+        assertEquals("v7", map.remove(7.toLong() shl 32))
+        assertNull(map.remove(7.toLong() shl 32))
+        assertFalse(map.containsKey(7.toLong() shl 32))
+        assertEquals(999, map.size)
+
+        assertEquals("v8", map.getOrPut(8.toLong() shl 32) { "other" })
+        assertEquals("new", map.getOrPut(7.toLong() shl 32) { "new" })
+
+        var count = 0
+        map.forEach { (key, value) ->
+            if (key != 7.toLong() shl 32) assertEquals("v${key ushr 32}", value)
+            count++
+        }
+        assertEquals(1000, count)
+
+        map.clear()
+        assertTrue(map.isEmpty())
+        assertNull(map[8.toLong() shl 32])
+    }
+
+    test fun mapOfIntsToCounts() {
+        val counts = IntMap<Int>()
+        for (value in intArray(1, 2, 2, 3, 3, 3)) {
+            counts[value] = (counts[value] ?: 0) + 1
+        }
+        assertEquals(3, counts.size)
+        assertEquals(3, counts[3])
+    }
+
+    test fun conversions() {
+        assertEquals(arrayList(1.toLong(), 2.toLong()), arrayList(1.toLong(), 2.toLong()).toLongList().toList())
+        assertEquals(2, arrayList(1, 1, 2).toIntSet().size)
+        assertEquals(3, intArray(1, 2, 3).toIntList().size)
+    }
+}
@@ -0,0 +1,95 @@
+package concurrent
+
+import kotlin.concurrent.*
+import kotlin.test.*
+
+import org.junit.Test as test
+
+import java.util.Collections
+import java.util.HashSet
+import java.lang.Integer as jInteger
+import java.util.concurrent.atomic.AtomicInteger
+
+class ParallelTest {
+    val size = 100000
+
+    test fun parallelMapKeepsTheOrder() {
+        val squares = (0..size - 1).parallelMap { it.toLong() * it }
+        assertEquals(size, squares.size())
+        for (i in 0..size - 1) {
+            assertEquals(i.toLong() * i, squares[i])
+        }
+
+        assertEquals(arrayList("a!", "b!"), arrayList("a", "b").parallelMap { it + "!" })
+    }
+
+    test fun parallelFilterKeepsTheOrder() {
+        val numbers = (0..size - 1).map { it }
+        val even = numbers.parallelFilter { it % 2 == 0 }
+        assertEquals(numbers.filter { it % 2 == 0 }, even)
+
+        assertEquals(arrayList<Int>(), (1..0).parallelFilter { true })
+    }
+
+    test fun parallelReduceSumsTheElements() {
+        val numbers = Array<Long>(size) { it.toLong() }
+        assertEquals(size.toLong() * (size - 1) / 2, numbers.parallelReduce { (a, b) -> a + b })
+
+        // the order of the operands is kept
+        val letters = (0..3 * PARALLEL_THRESHOLD).map { "" + ('a' + it % 26) }
+        assertEquals(letters.reduce { (a, b) -> a + b }, letters.parallelReduce { (a, b) -> a + b })
+
+        fails {
+            arrayList<Int>().parallelReduce { (a, b) -> a + b }
+        }
+    }
+
+    test fun parallelForEachVisitsEachElementOnce() {
+        val seen = Collections.synchronizedSet(HashSet<Int>())!!
+        val count = AtomicInteger()
+        (0..size - 1).parallelForEach {
+            seen.add(it)
+            count.incrementAndGet()
+        }
+        assertEquals(size, count.get())
+        assertEquals(size, seen.size())
+    }
+
+    test fun nestedOperationsDoNotDeadlock() {
+        // the outer operation is split, so the inner ones run on the workers
+        val n = 2 * PARALLEL_THRESHOLD
+        val sums = (0..n - 1).parallelMap { i -> (0..n - 1).parallelReduce { (a, b) -> a + b } + i }
+        assertEquals(n, sums.size())
+        assertEquals(n * (n - 1) / 2 + n - 1, sums[n - 1])
+    }
+
+    test fun failedOperationDoesNotOutliveTheCall() {
+        val count = AtomicInteger()
+        // The first chunk runs on the calling thread
+        failsWith(javaClass<IllegalStateException>()) {
+            (0..size - 1).parallelForEach {
+                if (it == 0) throw IllegalStateException("first")
+                count.incrementAndGet()
+            }
+        }
+        val countAfterCall = count.get()
+        Thread.sleep(100)
+        assertEquals(countAfterCall, count.get())
+    }
+
+    test fun tooLargeRangeIsRejected() {
+        failsWith(javaClass<IllegalArgumentException>()) {
+            (jInteger.MIN_VALUE..jInteger.MAX_VALUE).parallelForEach { }
+        }
+        assertEquals(3, (jInteger.MAX_VALUE - 2..jInteger.MAX_VALUE).parallelMap { it }.size())
+    }
+
+    test fun exceptionIsRethrown() {
+        val e = failsWith(javaClass<IllegalStateException>()) {
+            (0..size - 1).parallelForEach {
+                if (it == size - 1) throw IllegalStateException("last")
+            }
+        }
+        assertEquals("last", e.getMessage())
+    }
+}
@@ -0,0 +1,85 @@
+package iterators
+
+import kotlin.test.*
+import org.junit.Test as test
+
+class StreamsTest {
+
+    test fun streamIsEvaluatedOnlyWhenIterated() {
+        var calls = 0
+        val stream = arrayList(1, 2, 3).stream().map { calls++; it * 2 }
+        assertEquals(0, calls)
+
+        assertEquals(arrayList(2, 4, 6), stream.toList())
+        assertEquals(3, calls)
+
+        // the source is iterated again, each element is transformed once per pass
+        assertEquals(12, stream.fold(0) { (sum, element) -> sum + element })
+        assertEquals(6, calls)
+    }
+
+    test fun filterAndMapArePulledOneElementAtATime() {
+        val log = arrayList<String>()
+        val stream = arrayList(1, 2, 3, 4).stream()
+                .filter { log.add("filter $it"); it % 2 == 0 }
+                .map { log.add("map $it"); it * 10 }
+
+        val iterator = stream.iterator()
+        assertEquals(20, iterator.next())
+        assertEquals(arrayList("filter 1", "filter 2", "map 2"), log)
+
+        assertEquals(40, iterator.next())
+        assertEquals(arrayList("filter 1", "filter 2", "map 2", "filter 3", "filter 4", "map 4"), log)
+        assertFalse(iterator.hasNext())
+    }
+
+    test fun consecutiveStepsAreFused() {
+        val stream = arrayList(1, 2, 3, 4, 5, 6).stream()
+                .filter { it > 1 }
+                .filter { it < 6 }
+                .filterNot { it == 3 }
+                .map { it * 2 }
+                .map { "<$it>" }
+        assertEquals(arrayList("<4>", "<8>", "<10>"), stream.toList())
+    }
+
+    test fun infiniteStreamIsNotMaterialized() {
+        val naturals = stream(1) { it + 1 }
+        assertEquals(arrayList(4, 16, 36, 64), naturals.filter { it % 2 == 0 }.map { it * it }.takeWhile { it < 100 }.toList())
+        assertEquals(arrayList(1, 2, 3), naturals.take(3).toList())
+    }
+
+    test fun takeDoesNotPullMoreElementsThanNeeded() {
+        var pulled = 0
+        val stream = stream(1) { pulled++; it + 1 }.take(5)
+        assertEquals(arrayList(1, 2, 3, 4, 5), stream.toList())
+        assertEquals(4, pulled)
+
+        assertEquals(0, stream.take(0).toList().size())
+        fails {
+            stream.take(-1)
+        }
+    }
+
+    test fun longStreamIsTraversedInOnePass() {
+        // no step keeps more than the current element, however long the source is
+        var passed = 0
+        stream(0) { if (it < 1000000) it + 1 else null }
+                .map { it.toLong() }
+                .filter { it % 1000 == 0.toLong() }
+                .forEach { passed++ }
+        assertEquals(1001, passed)
+    }
+
+    test fun generatorStopsAtNull() {
+        assertEquals(arrayList(5, 4, 3, 2, 1), stream(5) { if (it > 1) it - 1 else null }.toList())
+    }
+
+    test fun flatMapConcatenatesTheTransformedStreams() {
+        val stream = arrayList(1, 2, 3).stream().flatMap { n -> stream(n) { if (it > 1) it - 1 else null } }
+        assertEquals(arrayList(1, 2, 1, 3, 2, 1), stream.toList())
+
+        val infinite = stream(1) { it + 1 }.flatMap { arrayList(it, -it).stream() }
+        assertEquals(arrayList(1, -1, 2, -2, 3), infinite.take(5).toList())
+    }
+}
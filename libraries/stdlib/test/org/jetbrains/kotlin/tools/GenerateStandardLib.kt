@@ -138,6 +138,13 @@ fun main(args: Array<String>) {
         it.replaceAll("Collection<T", "Iterable<T").replaceAll("(this.size)", "")
     }
 
+    // Primitive collections - the same collections for the other primitive types
+    for (primitiveName in arrayList("Int", "Double", "Char")) {
+        generateFile(File(outDir, "${primitiveName}CollectionsJVM.kt"), "package kotlin", File(srcDir, "LongCollectionsJVM.kt")) {
+            it.replaceAll("Long", primitiveName).replaceAll("long", primitiveName.toLowerCase())
+        }
+    }
+
     generateDownTos(File(outDir, "DownTo.kt"), "package kotlin")
 }
 
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package jet.runtime.typeinfo;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Contents of {@link JetMethod} and {@link JetValueParameter} annotations of all the methods of the class,
+ * so that they can be read at once without looking at every method
+ *
+ * @url http://confluence.jetbrains.net/display/JET/Jet+Signatures
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JetMembers {
+    /**
+     * @return strings referred to from data by their indices
+     */
+    String[] strings() default {};
+
+    /**
+     * @return encoded members, see JetMembersData in the compiler
+     */
+    String data() default "";
+}